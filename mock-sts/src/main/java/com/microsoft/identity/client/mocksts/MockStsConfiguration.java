@@ -0,0 +1,190 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.mocksts;
+
+/**
+ * Network behavior of a {@link MockStsServer}. Create instances with {@link Builder}.
+ */
+public final class MockStsConfiguration {
+
+    private final long mMinLatencyMillis;
+    private final long mMaxLatencyMillis;
+    private final double mErrorRate;
+    private final int mErrorStatusCode;
+    private final int mRetryAfterSeconds;
+    private final long mAccessTokenLifetimeSeconds;
+    private final int mDeviceCodePendingPolls;
+    private final int mDeviceCodeIntervalSeconds;
+    private final String mTenantId;
+    private final long mSeed;
+    private final int mThreadCount;
+
+    private MockStsConfiguration(final Builder builder) {
+        mMinLatencyMillis = builder.mMinLatencyMillis;
+        mMaxLatencyMillis = builder.mMaxLatencyMillis;
+        mErrorRate = builder.mErrorRate;
+        mErrorStatusCode = builder.mErrorStatusCode;
+        mRetryAfterSeconds = builder.mRetryAfterSeconds;
+        mAccessTokenLifetimeSeconds = builder.mAccessTokenLifetimeSeconds;
+        mDeviceCodePendingPolls = builder.mDeviceCodePendingPolls;
+        mDeviceCodeIntervalSeconds = builder.mDeviceCodeIntervalSeconds;
+        mTenantId = builder.mTenantId;
+        mSeed = builder.mSeed;
+        mThreadCount = builder.mThreadCount;
+    }
+
+    public long getMinLatencyMillis() {
+        return mMinLatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+        return mMaxLatencyMillis;
+    }
+
+    public double getErrorRate() {
+        return mErrorRate;
+    }
+
+    public int getErrorStatusCode() {
+        return mErrorStatusCode;
+    }
+
+    public int getRetryAfterSeconds() {
+        return mRetryAfterSeconds;
+    }
+
+    public long getAccessTokenLifetimeSeconds() {
+        return mAccessTokenLifetimeSeconds;
+    }
+
+    public int getDeviceCodePendingPolls() {
+        return mDeviceCodePendingPolls;
+    }
+
+    public int getDeviceCodeIntervalSeconds() {
+        return mDeviceCodeIntervalSeconds;
+    }
+
+    public String getTenantId() {
+        return mTenantId;
+    }
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    public int getThreadCount() {
+        return mThreadCount;
+    }
+
+    public static final class Builder {
+
+        private long mMinLatencyMillis;
+        private long mMaxLatencyMillis;
+        private double mErrorRate;
+        private int mErrorStatusCode = 503;
+        private int mRetryAfterSeconds;
+        private long mAccessTokenLifetimeSeconds = 3600;
+        private int mDeviceCodePendingPolls = 1;
+        private int mDeviceCodeIntervalSeconds = 5;
+        private String mTenantId = "f645ad92-e38d-4d1a-b510-d1b09a74a8ca";
+        private long mSeed = 42;
+        private int mThreadCount = 16;
+
+        /**
+         * Delays every response by a random duration in [min, max].
+         */
+        public Builder withLatency(final long minMillis, final long maxMillis) {
+            if (minMillis < 0 || maxMillis < minMillis) {
+                throw new IllegalArgumentException("Latency must satisfy 0 <= min <= max.");
+            }
+
+            mMinLatencyMillis = minMillis;
+            mMaxLatencyMillis = maxMillis;
+            return this;
+        }
+
+        /**
+         * Fails the given fraction of requests with {@code statusCode}, sending a Retry-After
+         * header if {@code retryAfterSeconds} is positive.
+         */
+        public Builder withErrorRate(final double errorRate,
+                                     final int statusCode,
+                                     final int retryAfterSeconds) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("errorRate must be within [0, 1].");
+            }
+
+            mErrorRate = errorRate;
+            mErrorStatusCode = statusCode;
+            mRetryAfterSeconds = retryAfterSeconds;
+            return this;
+        }
+
+        /**
+         * Sets the expires_in of issued access tokens.
+         */
+        public Builder withAccessTokenLifetime(final long seconds) {
+            mAccessTokenLifetimeSeconds = seconds;
+            return this;
+        }
+
+        /**
+         * Sets how many polls of a device code answer authorization_pending before tokens are
+         * issued, and the polling interval advertised to clients.
+         */
+        public Builder withDeviceCodeFlow(final int pendingPolls, final int intervalSeconds) {
+            mDeviceCodePendingPolls = pendingPolls;
+            mDeviceCodeIntervalSeconds = intervalSeconds;
+            return this;
+        }
+
+        /**
+         * Sets the tenant id of issued tokens.
+         */
+        public Builder withTenantId(final String tenantId) {
+            mTenantId = tenantId;
+            return this;
+        }
+
+        /**
+         * Seeds the latency and error injection, so that runs are repeatable.
+         */
+        public Builder withSeed(final long seed) {
+            mSeed = seed;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads serving requests.
+         */
+        public Builder withThreadCount(final int threadCount) {
+            mThreadCount = threadCount;
+            return this;
+        }
+
+        public MockStsConfiguration build() {
+            return new MockStsConfiguration(this);
+        }
+    }
+}
@@ -0,0 +1,462 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.mocksts;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process HTTP server imitating the Microsoft identity platform endpoints used by MSAL:
+ * <ul>
+ * <li>GET  /common/discovery/instance - instance discovery</li>
+ * <li>GET  /{tenant}/v2.0/.well-known/openid-configuration - OpenID provider metadata</li>
+ * <li>POST /{tenant}/oauth2/v2.0/devicecode - device authorization</li>
+ * <li>POST /{tenant}/oauth2/v2.0/token - authorization_code, refresh_token, password and
+ * device_code grants</li>
+ * </ul>
+ * Latency, error rate and token lifetimes come from a {@link MockStsConfiguration}. Tokens are
+ * not signed; id tokens and client_info have the shape MSAL expects.
+ * <p>
+ * The server speaks plain HTTP on the loopback interface.
+ */
+public final class MockStsServer {
+
+    public static final String ENDPOINT_INSTANCE_DISCOVERY = "instance_discovery";
+    public static final String ENDPOINT_OPENID_CONFIGURATION = "openid_configuration";
+    public static final String ENDPOINT_DEVICE_CODE = "device_code";
+    public static final String ENDPOINT_TOKEN = "token";
+    public static final String ENDPOINT_UNKNOWN = "unknown";
+    public static final String INJECTED_ERRORS = "injected_errors";
+
+    private static final String GRANT_TYPE_DEVICE_CODE = "urn:ietf:params:oauth:grant-type:device_code";
+    private static final String DEFAULT_USERNAME = "user@contoso.com";
+    private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+
+    private final MockStsConfiguration mConfiguration;
+    private final Random mRandom;
+    private final ConcurrentMap<String, AtomicLong> mRequestCounts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> mPendingDeviceCodes = new ConcurrentHashMap<>();
+    private final AtomicInteger mRefreshTokenGeneration = new AtomicInteger();
+
+    private HttpServer mServer;
+    private ExecutorService mExecutor;
+
+    public MockStsServer(final MockStsConfiguration configuration) {
+        mConfiguration = configuration;
+        mRandom = new Random(configuration.getSeed());
+    }
+
+    /**
+     * Starts serving on an ephemeral loopback port.
+     */
+    public synchronized void start() throws IOException {
+        if (null != mServer) {
+            throw new IllegalStateException("Already started.");
+        }
+
+        mExecutor = Executors.newFixedThreadPool(mConfiguration.getThreadCount());
+        mServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        mServer.createContext("/", new Handler());
+        mServer.setExecutor(mExecutor);
+        mServer.start();
+    }
+
+    /**
+     * Stops the server, waiting for in-flight requests to complete.
+     */
+    public synchronized void stop() {
+        if (null == mServer) {
+            return;
+        }
+
+        mServer.stop(0);
+        mExecutor.shutdown();
+
+        try {
+            mExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        mServer = null;
+        mExecutor = null;
+    }
+
+    /**
+     * @return The base URL of the server, e.g. http://127.0.0.1:54321
+     */
+    public synchronized String getBaseUrl() {
+        if (null == mServer) {
+            throw new IllegalStateException("Not started.");
+        }
+
+        return "http://" + getHost();
+    }
+
+    /**
+     * @return The authority of the configured tenant, e.g. http://127.0.0.1:54321/{tenant}
+     */
+    public String getAuthority() {
+        return getBaseUrl() + "/" + mConfiguration.getTenantId();
+    }
+
+    /**
+     * Makes every refresh token issued so far fail with invalid_grant.
+     */
+    public void revokeRefreshTokens() {
+        mRefreshTokenGeneration.incrementAndGet();
+    }
+
+    /**
+     * @return The number of requests served per endpoint, and the number of injected errors.
+     */
+    public Map<String, Long> getRequestCounts() {
+        final Map<String, Long> counts = new HashMap<>();
+
+        for (final Map.Entry<String, AtomicLong> entry : mRequestCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+
+        return counts;
+    }
+
+    private String getHost() {
+        return mServer.getAddress().getAddress().getHostAddress() + ":" + mServer.getAddress().getPort();
+    }
+
+    private void count(final String name) {
+        AtomicLong counter = mRequestCounts.get(name);
+
+        if (null == counter) {
+            final AtomicLong newCounter = new AtomicLong();
+            counter = mRequestCounts.putIfAbsent(name, newCounter);
+
+            if (null == counter) {
+                counter = newCounter;
+            }
+        }
+
+        counter.incrementAndGet();
+    }
+
+    private final class Handler implements HttpHandler {
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            try {
+                final String path = exchange.getRequestURI().getPath();
+                final String endpoint = getEndpoint(path);
+                count(endpoint);
+                simulateLatency();
+
+                if (ENDPOINT_UNKNOWN.equals(endpoint)) {
+                    send(exchange, 404, error("invalid_request", "Unknown endpoint " + path));
+                    return;
+                }
+
+                if (shouldInjectError()) {
+                    count(INJECTED_ERRORS);
+
+                    if (mConfiguration.getRetryAfterSeconds() > 0) {
+                        exchange.getResponseHeaders().add("Retry-After", String.valueOf(mConfiguration.getRetryAfterSeconds()));
+                    }
+
+                    send(exchange, mConfiguration.getErrorStatusCode(), error("temporarily_unavailable", "Injected failure."));
+                    return;
+                }
+
+                final String tenant = path.split("/")[1];
+
+                if (ENDPOINT_INSTANCE_DISCOVERY.equals(endpoint)) {
+                    send(exchange, 200, instanceDiscovery());
+                } else if (ENDPOINT_OPENID_CONFIGURATION.equals(endpoint)) {
+                    send(exchange, 200, openIdConfiguration(tenant));
+                } else if (ENDPOINT_DEVICE_CODE.equals(endpoint)) {
+                    send(exchange, 200, deviceCode());
+                } else {
+                    token(exchange, tenant, readForm(exchange));
+                }
+            } catch (final RuntimeException e) {
+                send(exchange, 500, error("server_error", String.valueOf(e.getMessage())));
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private String getEndpoint(final String path) {
+            if ("/common/discovery/instance".equals(path)) {
+                return ENDPOINT_INSTANCE_DISCOVERY;
+            } else if (path.matches("/[^/]+/v2\\.0/\\.well-known/openid-configuration")) {
+                return ENDPOINT_OPENID_CONFIGURATION;
+            } else if (path.matches("/[^/]+/oauth2/v2\\.0/devicecode")) {
+                return ENDPOINT_DEVICE_CODE;
+            } else if (path.matches("/[^/]+/oauth2/v2\\.0/token")) {
+                return ENDPOINT_TOKEN;
+            }
+
+            return ENDPOINT_UNKNOWN;
+        }
+
+        private void simulateLatency() {
+            final long min = mConfiguration.getMinLatencyMillis();
+            final long max = mConfiguration.getMaxLatencyMillis();
+
+            if (max <= 0) {
+                return;
+            }
+
+            final long latency;
+
+            synchronized (mRandom) {
+                latency = min + (long) (mRandom.nextDouble() * (max - min));
+            }
+
+            try {
+                Thread.sleep(latency);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private boolean shouldInjectError() {
+            if (mConfiguration.getErrorRate() <= 0) {
+                return false;
+            }
+
+            synchronized (mRandom) {
+                return mRandom.nextDouble() < mConfiguration.getErrorRate();
+            }
+        }
+
+        private String instanceDiscovery() {
+            final String host = getHost();
+
+            return "{\"tenant_discovery_endpoint\":\"" + getBaseUrl() + "/common/v2.0/.well-known/openid-configuration\","
+                    + "\"api-version\":\"1.1\","
+                    + "\"metadata\":[{\"preferred_network\":\"" + host + "\","
+                    + "\"preferred_cache\":\"" + host + "\","
+                    + "\"aliases\":[\"" + host + "\"]}]}";
+        }
+
+        private String openIdConfiguration(final String tenant) {
+            final String authority = getBaseUrl() + "/" + tenant;
+
+            return "{\"issuer\":\"" + getBaseUrl() + "/" + mConfiguration.getTenantId() + "/v2.0\","
+                    + "\"authorization_endpoint\":\"" + authority + "/oauth2/v2.0/authorize\","
+                    + "\"token_endpoint\":\"" + authority + "/oauth2/v2.0/token\","
+                    + "\"device_authorization_endpoint\":\"" + authority + "/oauth2/v2.0/devicecode\","
+                    + "\"jwks_uri\":\"" + authority + "/discovery/v2.0/keys\","
+                    + "\"response_types_supported\":[\"code\",\"id_token\",\"code id_token\",\"id_token token\"],"
+                    + "\"scopes_supported\":[\"openid\",\"profile\",\"email\",\"offline_access\"],"
+                    + "\"subject_types_supported\":[\"pairwise\"],"
+                    + "\"id_token_signing_alg_values_supported\":[\"RS256\"],"
+                    + "\"tenant_region_scope\":\"NA\"}";
+        }
+
+        private String deviceCode() {
+            final String deviceCode = UUID.randomUUID().toString();
+            final String userCode = deviceCode.substring(0, 8).toUpperCase();
+            mPendingDeviceCodes.put(deviceCode, new AtomicInteger(mConfiguration.getDeviceCodePendingPolls()));
+
+            return "{\"device_code\":\"" + deviceCode + "\","
+                    + "\"user_code\":\"" + userCode + "\","
+                    + "\"verification_uri\":\"" + getBaseUrl() + "/devicelogin\","
+                    + "\"expires_in\":900,"
+                    + "\"interval\":" + mConfiguration.getDeviceCodeIntervalSeconds() + ","
+                    + "\"message\":\"To sign in, enter the code " + userCode + ".\"}";
+        }
+
+        private void token(final HttpExchange exchange,
+                           final String tenant,
+                           final Map<String, String> form) throws IOException {
+            final String grantType = form.get("grant_type");
+            final String clientId = form.get("client_id");
+            String username = DEFAULT_USERNAME;
+
+            if ("refresh_token".equals(grantType)) {
+                final String refreshToken = form.get("refresh_token");
+                final String[] parts = null == refreshToken ? new String[0] : refreshToken.split("\\.");
+                final String refreshTokenUsername = parts.length == 4
+                        && "rt".equals(parts[0])
+                        && String.valueOf(mRefreshTokenGeneration.get()).equals(parts[1])
+                        ? decodeOrNull(parts[2])
+                        : null;
+
+                if (null == refreshTokenUsername) {
+                    send(exchange, 400, error("invalid_grant", "The refresh token has expired or was revoked."));
+                    return;
+                }
+
+                username = refreshTokenUsername;
+            } else if (GRANT_TYPE_DEVICE_CODE.equals(grantType)) {
+                final AtomicInteger pendingPolls = mPendingDeviceCodes.get(String.valueOf(form.get("device_code")));
+
+                if (null == pendingPolls) {
+                    send(exchange, 400, error("expired_token", "The device code is unknown or expired."));
+                    return;
+                }
+
+                if (pendingPolls.getAndDecrement() > 0) {
+                    send(exchange, 400, error("authorization_pending", "The user has not yet signed in."));
+                    return;
+                }
+
+                mPendingDeviceCodes.remove(form.get("device_code"));
+            } else if ("password".equals(grantType)) {
+                if (null != form.get("username")) {
+                    username = form.get("username");
+                }
+            } else if (!"authorization_code".equals(grantType)) {
+                send(exchange, 400, error("unsupported_grant_type", "Unsupported grant type " + grantType));
+                return;
+            }
+
+            send(exchange, 200, tokenResponse(tenant, clientId, form.get("scope"), username));
+        }
+
+        private String tokenResponse(final String tenant,
+                                     final String clientId,
+                                     final String requestedScope,
+                                     final String username) {
+            final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+            final long lifetime = mConfiguration.getAccessTokenLifetimeSeconds();
+            final String tenantId = mConfiguration.getTenantId();
+            final String oid = UUID.nameUUIDFromBytes(username.getBytes(StandardCharsets.UTF_8)).toString();
+            final String scope = null == requestedScope ? "openid profile offline_access" : requestedScope;
+
+            final String idToken = encode("{\"alg\":\"none\",\"typ\":\"JWT\"}") + "."
+                    + encode("{\"aud\":\"" + clientId + "\","
+                    + "\"iss\":\"" + getBaseUrl() + "/" + tenantId + "/v2.0\","
+                    + "\"iat\":" + now + ",\"nbf\":" + now + ",\"exp\":" + (now + lifetime) + ","
+                    + "\"name\":\"Mock User\","
+                    + "\"oid\":\"" + oid + "\","
+                    + "\"preferred_username\":\"" + username + "\","
+                    + "\"sub\":\"" + oid + "\","
+                    + "\"tid\":\"" + tenantId + "\","
+                    + "\"ver\":\"2.0\"}") + ".";
+
+            return "{\"token_type\":\"Bearer\","
+                    + "\"scope\":\"" + scope + "\","
+                    + "\"expires_in\":" + lifetime + ","
+                    + "\"ext_expires_in\":" + lifetime + ","
+                    + "\"access_token\":\"at." + tenant + "." + UUID.randomUUID() + "\","
+                    + "\"refresh_token\":\"rt." + mRefreshTokenGeneration.get() + "." + encode(username) + "." + UUID.randomUUID() + "\","
+                    + "\"id_token\":\"" + idToken + "\","
+                    + "\"client_info\":\"" + encode("{\"uid\":\"" + oid + "\",\"utid\":\"" + tenantId + "\"}") + "\"}";
+        }
+
+        private String error(final String error, final String description) {
+            return "{\"error\":\"" + error + "\","
+                    + "\"error_description\":\"" + description.replace("\"", "'") + "\","
+                    + "\"error_codes\":[],"
+                    + "\"correlation_id\":\"" + UUID.randomUUID() + "\"}";
+        }
+
+        private Map<String, String> readForm(final HttpExchange exchange) throws IOException {
+            final Map<String, String> form = new HashMap<>();
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            final InputStream in = exchange.getRequestBody();
+            final byte[] buffer = new byte[4096];
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+
+            final String query = exchange.getRequestURI().getRawQuery();
+            final String content = body.toString("UTF-8") + (null == query ? "" : "&" + query);
+
+            for (final String pair : content.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+
+                final int equals = pair.indexOf('=');
+
+                if (equals < 0) {
+                    form.put(urlDecode(pair), "");
+                } else {
+                    form.put(urlDecode(pair.substring(0, equals)), urlDecode(pair.substring(equals + 1)));
+                }
+            }
+
+            return form;
+        }
+
+        private void send(final HttpExchange exchange, final int status, final String json) throws IOException {
+            final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE_JSON);
+            exchange.sendResponseHeaders(status, bytes.length);
+
+            final OutputStream out = exchange.getResponseBody();
+            out.write(bytes);
+            out.flush();
+        }
+    }
+
+    private static String encode(final String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The decoded value, or null if it is not base64url.
+     */
+    private static String decodeOrNull(final String value) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String urlDecode(final String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.mocksts;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MockStsServerTest {
+
+    private MockStsServer mServer;
+
+    @After
+    public void tearDown() {
+        if (null != mServer) {
+            mServer.stop();
+        }
+    }
+
+    @Test
+    public void testDiscoveryAndOpenIdConfiguration() throws IOException {
+        start(new MockStsConfiguration.Builder().build());
+
+        final Response discovery = get(mServer.getBaseUrl() + "/common/discovery/instance?api-version=1.1");
+        Assert.assertEquals(200, discovery.mStatus);
+        Assert.assertTrue(discovery.mBody.contains("tenant_discovery_endpoint"));
+
+        final Response configuration = get(mServer.getAuthority() + "/v2.0/.well-known/openid-configuration");
+        Assert.assertEquals(200, configuration.mStatus);
+        Assert.assertTrue(configuration.mBody.contains(mServer.getAuthority() + "/oauth2/v2.0/token"));
+    }
+
+    @Test
+    public void testRefreshTokenGrantUntilRevoked() throws IOException {
+        start(new MockStsConfiguration.Builder().withAccessTokenLifetime(60).build());
+
+        final Response first = post("/oauth2/v2.0/token", "grant_type=authorization_code&code=abc&client_id=client&scope=User.Read");
+        Assert.assertEquals(200, first.mStatus);
+        Assert.assertTrue(first.mBody.contains("\"expires_in\":60"));
+
+        final String refreshToken = extract(first.mBody, "refresh_token");
+        Assert.assertEquals(200, post("/oauth2/v2.0/token", "grant_type=refresh_token&client_id=client&refresh_token=" + refreshToken).mStatus);
+
+        mServer.revokeRefreshTokens();
+
+        final Response revoked = post("/oauth2/v2.0/token", "grant_type=refresh_token&client_id=client&refresh_token=" + refreshToken);
+        Assert.assertEquals(400, revoked.mStatus);
+        Assert.assertTrue(revoked.mBody.contains("invalid_grant"));
+    }
+
+    @Test
+    public void testMalformedRefreshTokenIsInvalidGrant() throws IOException {
+        start(new MockStsConfiguration.Builder().build());
+
+        final Response response = post("/oauth2/v2.0/token", "grant_type=refresh_token&client_id=client&refresh_token=rt.0.!!!!.x");
+        Assert.assertEquals(400, response.mStatus);
+        Assert.assertTrue(response.mBody.contains("invalid_grant"));
+    }
+
+    @Test
+    public void testDeviceCodeIsPendingThenIssued() throws IOException {
+        start(new MockStsConfiguration.Builder().withDeviceCodeFlow(2, 1).build());
+
+        final Response authorization = post("/oauth2/v2.0/devicecode", "client_id=client&scope=User.Read");
+        Assert.assertEquals(200, authorization.mStatus);
+        Assert.assertTrue(authorization.mBody.contains("\"interval\":1"));
+
+        final String body = "grant_type=urn%3Aietf%3Aparams%3Aoauth%3Agrant-type%3Adevice_code&client_id=client&device_code="
+                + extract(authorization.mBody, "device_code");
+
+        Assert.assertTrue(post("/oauth2/v2.0/token", body).mBody.contains("authorization_pending"));
+        Assert.assertTrue(post("/oauth2/v2.0/token", body).mBody.contains("authorization_pending"));
+        Assert.assertEquals(200, post("/oauth2/v2.0/token", body).mStatus);
+        Assert.assertTrue(post("/oauth2/v2.0/token", body).mBody.contains("expired_token"));
+    }
+
+    @Test
+    public void testInjectedErrorsCarryRetryAfter() throws IOException {
+        start(new MockStsConfiguration.Builder().withErrorRate(1, 503, 7).build());
+
+        final Response response = post("/oauth2/v2.0/token", "grant_type=authorization_code&code=abc&client_id=client");
+        Assert.assertEquals(503, response.mStatus);
+        Assert.assertEquals("7", response.mRetryAfter);
+        Assert.assertEquals(Long.valueOf(1), mServer.getRequestCounts().get(MockStsServer.INJECTED_ERRORS));
+    }
+
+    @Test
+    public void testConcurrentAcquisitionsWithLatency() throws InterruptedException {
+        start(new MockStsConfiguration.Builder().withLatency(1, 5).withThreadCount(32).build());
+
+        final int requests = 500;
+        final ExecutorService clients = Executors.newFixedThreadPool(32);
+        final CountDownLatch done = new CountDownLatch(requests);
+        final AtomicInteger successes = new AtomicInteger();
+
+        for (int i = 0; i < requests; i++) {
+            clients.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (200 == post("/oauth2/v2.0/token", "grant_type=authorization_code&code=abc&client_id=client").mStatus) {
+                            successes.incrementAndGet();
+                        }
+                    } catch (final IOException e) {
+                        // Counted as a failure.
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+        clients.shutdown();
+
+        Assert.assertEquals(requests, successes.get());
+        Assert.assertEquals(Long.valueOf(requests), mServer.getRequestCounts().get(MockStsServer.ENDPOINT_TOKEN));
+    }
+
+    private void start(final MockStsConfiguration configuration) {
+        mServer = new MockStsServer(configuration);
+
+        try {
+            mServer.start();
+        } catch (final IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private Response get(final String url) throws IOException {
+        return execute((HttpURLConnection) new URL(url).openConnection(), null);
+    }
+
+    private Response post(final String path, final String form) throws IOException {
+        return execute((HttpURLConnection) new URL(mServer.getAuthority() + path).openConnection(), form);
+    }
+
+    private static Response execute(final HttpURLConnection connection, final String form) throws IOException {
+        try {
+            if (null != form) {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+
+                final OutputStream out = connection.getOutputStream();
+                out.write(form.getBytes(StandardCharsets.UTF_8));
+                out.close();
+            }
+
+            final int status = connection.getResponseCode();
+            final InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+
+            in.close();
+            return new Response(status, body.toString("UTF-8"), connection.getHeaderField("Retry-After"));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String extract(final String json, final String field) {
+        final String prefix = "\"" + field + "\":\"";
+        final int start = json.indexOf(prefix) + prefix.length();
+        return json.substring(start, json.indexOf('"', start));
+    }
+
+    private static final class Response {
+
+        private final int mStatus;
+        private final String mBody;
+        private final String mRetryAfter;
+
+        private Response(final int status, final String body, final String retryAfter) {
+            mStatus = status;
+            mBody = body;
+            mRetryAfter = retryAfter;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.microsoft.identity.client.internal.MsalUtils;
+import com.microsoft.identity.common.internal.cache.ICacheRecord;
+import com.microsoft.identity.common.internal.dto.AccountRecord;
+import com.microsoft.identity.common.internal.dto.Credential;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.io.UnsupportedEncodingException;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache of the {@link IAccount} adapted from a set of cache records, so that results
+ * returned for the same signed-in account share one canonical instance instead of re-running
+ * {@link AccountAdapter#adapt(List)}, which filters, groups and parses every ID token.
+ * <p>
+ * Entries are keyed by a digest of the account records along with their ID tokens, so a new
+ * sign-in (and therefore new claims) produces a new instance while no token or account identifier
+ * is kept in the map. The least recently used entries are evicted once {@link #MAX_ENTRIES} is
+ * reached.
+ */
+final class AccountIdentityCache {
+
+    private static final String TAG = AccountIdentityCache.class.getSimpleName();
+
+    @VisibleForTesting
+    static final int MAX_ENTRIES = 64;
+
+    private static final char KEY_DELIMITER = '|';
+
+    private static final AccountIdentityCache sInstance = new AccountIdentityCache(MAX_ENTRIES);
+
+    private final Map<String, IAccount> mAccounts;
+
+    @VisibleForTesting
+    AccountIdentityCache(final int maxEntries) {
+        mAccounts = new LinkedHashMap<String, IAccount>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, IAccount> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return The process-wide instance.
+     */
+    @NonNull
+    static AccountIdentityCache getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Gets the canonical account for the supplied cache records, adapting them on first use.
+     *
+     * @param cacheRecords The cache records of a result, the most recently authorized first.
+     * @return The account of the first record.
+     */
+    @NonNull
+    IAccount get(@NonNull final List<ICacheRecord> cacheRecords) {
+        final String key = createKey(cacheRecords);
+
+        if (null == key) {
+            return AccountAdapter.adapt(cacheRecords).get(0);
+        }
+
+        synchronized (mAccounts) {
+            final IAccount account = mAccounts.get(key);
+
+            if (null != account) {
+                return account;
+            }
+        }
+
+        // Adapt outside of the lock; concurrent misses for the same key produce equal accounts.
+        final IAccount account = AccountAdapter.adapt(cacheRecords).get(0);
+
+        synchronized (mAccounts) {
+            final IAccount existing = mAccounts.get(key);
+
+            if (null != existing) {
+                return existing;
+            }
+
+            mAccounts.put(key, account);
+        }
+
+        return account;
+    }
+
+    /**
+     * Drops every cached account.
+     */
+    void clear() {
+        synchronized (mAccounts) {
+            mAccounts.clear();
+        }
+    }
+
+    @VisibleForTesting
+    int size() {
+        synchronized (mAccounts) {
+            return mAccounts.size();
+        }
+    }
+
+    /**
+     * @return A digest of the account records and ID tokens, or null if it cannot be computed.
+     */
+    @VisibleForTesting
+    @Nullable
+    static String createKey(@NonNull final List<ICacheRecord> cacheRecords) {
+        final String methodName = ":createKey";
+        final StringBuilder key = new StringBuilder();
+
+        for (final ICacheRecord cacheRecord : cacheRecords) {
+            final AccountRecord account = cacheRecord.getAccount();
+
+            if (null != account) {
+                key.append(account.getHomeAccountId()).append(KEY_DELIMITER)
+                        .append(account.getEnvironment()).append(KEY_DELIMITER)
+                        .append(account.getRealm()).append(KEY_DELIMITER)
+                        .append(account.getLocalAccountId()).append(KEY_DELIMITER);
+            }
+
+            appendSecret(key, cacheRecord.getIdToken());
+            appendSecret(key, cacheRecord.getV1IdToken());
+        }
+
+        try {
+            return MsalUtils.createHash(key.toString());
+        } catch (final NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            Logger.warn(
+                    TAG + methodName,
+                    "Unable to hash the account identity, not caching the account: " + e.getMessage()
+            );
+            return null;
+        }
+    }
+
+    private static void appendSecret(@NonNull final StringBuilder key,
+                                     @Nullable final Credential credential) {
+        if (null != credential) {
+            key.append(credential.getSecret());
+        }
+
+        key.append(KEY_DELIMITER);
+    }
+}
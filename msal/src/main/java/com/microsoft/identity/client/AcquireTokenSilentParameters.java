@@ -22,14 +22,18 @@
 //  THE SOFTWARE.
 package com.microsoft.identity.client;
 
+import java.util.concurrent.TimeUnit;
+
 public class AcquireTokenSilentParameters extends TokenParameters {
     private boolean mForceRefresh;
     private SilentAuthenticationCallback mCallback;
+    private long mTimeoutMillis;
 
     public AcquireTokenSilentParameters(AcquireTokenSilentParameters.Builder builder) {
         super(builder);
         mForceRefresh = builder.mForceRefresh;
         mCallback = builder.mCallback;
+        mTimeoutMillis = builder.mTimeoutMillis;
     }
 
     void setCallback(SilentAuthenticationCallback callback) {
@@ -71,10 +75,20 @@ public class AcquireTokenSilentParameters extends TokenParameters {
         return mForceRefresh;
     }
 
+    /**
+     * The end-to-end budget of the request in milliseconds, or 0 if the request has no deadline.
+     *
+     * @return long
+     */
+    public long getTimeoutMillis() {
+        return mTimeoutMillis;
+    }
+
     public static class Builder extends TokenParameters.Builder<AcquireTokenSilentParameters.Builder> {
 
         private boolean mForceRefresh;
         private SilentAuthenticationCallback mCallback;
+        private long mTimeoutMillis;
 
         public AcquireTokenSilentParameters.Builder forceRefresh(boolean forceRefresh) {
             mForceRefresh = forceRefresh;
@@ -87,6 +101,25 @@ public class AcquireTokenSilentParameters extends TokenParameters {
             return this;
         }
 
+        /**
+         * Sets an end-to-end deadline for the request, measured from the time it is submitted. If
+         * no result is available when the deadline passes, the request fails with
+         * {@link com.microsoft.identity.client.exception.MsalClientException#REQUEST_TIMEOUT}
+         * and any result arriving later is discarded.
+         *
+         * @param timeout The budget of the request; 0 means no deadline.
+         * @param unit    The unit of the budget.
+         */
+        public AcquireTokenSilentParameters.Builder withTimeout(final long timeout,
+                                                                final TimeUnit unit) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("timeout cannot be negative.");
+            }
+
+            mTimeoutMillis = unit.toMillis(timeout);
+            return self();
+        }
+
         @Override
         public AcquireTokenSilentParameters.Builder self() {
             return this;
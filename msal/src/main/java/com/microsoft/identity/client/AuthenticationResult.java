@@ -26,14 +26,20 @@ import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import com.microsoft.identity.common.internal.authscheme.TokenAuthenticationScheme;
+import com.microsoft.identity.common.internal.cache.CacheRecord;
 import com.microsoft.identity.common.internal.cache.ICacheRecord;
 import com.microsoft.identity.common.internal.dto.AccessTokenRecord;
 import com.microsoft.identity.common.internal.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -47,16 +53,52 @@ public final class AuthenticationResult implements IAuthenticationResult {
 
     private final String mTenantId;
     private final AccessTokenRecord mAccessToken;
-    private final IAccount mAccount;
+    private final List<ICacheRecord> mCacheRecords;
+    private volatile IAccount mAccount;
     private final UUID mCorrelationId;
+    private final boolean mIsStale;
+
+    // Derived from the access token once, callers typically read them on every outgoing request.
+    private final String mAuthorizationHeader;
+    private final long mExpiresOnEpochMillis;
+    private final String[] mScopes;
+    private final Set<String> mScopeSet;
 
     AuthenticationResult(@NonNull final List<ICacheRecord> cacheRecords,
                          @Nullable final String correlationId) {
+        this(cacheRecords, correlationId, false);
+    }
+
+    AuthenticationResult(@NonNull final List<ICacheRecord> cacheRecords,
+                         @Nullable final String correlationId,
+                         final boolean isStale) {
         final ICacheRecord mostRecentlyAuthorized = cacheRecords.get(0);
         mAccessToken = mostRecentlyAuthorized.getAccessToken();
         mTenantId = mostRecentlyAuthorized.getAccount().getRealm();
-        mAccount = AccountAdapter.adapt(cacheRecords).get(0);
+        // The account is adapted on first use, see getAccount().
+        mCacheRecords = retainAccountRecords(cacheRecords);
         mCorrelationId = sanitizeCorrelationId(correlationId);
+        mIsStale = isStale;
+
+        if (null == mAccessToken) {
+            // Not expected for a successful result, but never fail construction over it.
+            mAuthorizationHeader = "";
+            mExpiresOnEpochMillis = 0;
+            mScopes = new String[0];
+        } else {
+            mAuthorizationHeader = mAccessToken.getAccessTokenType()
+                    + TokenAuthenticationScheme.SCHEME_DELIMITER
+                    + mAccessToken.getSecret();
+            // TODO how should this work for PoP?
+            // Middleware will assume 5 min expiry for PoP tokens
+            // Client (MSAL) will not be aware of configured value
+            mExpiresOnEpochMillis = parseExpiresOn(mAccessToken.getExpiresOn());
+            mScopes = splitScopes(mAccessToken.getTarget());
+        }
+
+        final Set<String> scopeSet = new LinkedHashSet<>(mScopes.length);
+        Collections.addAll(scopeSet, mScopes);
+        mScopeSet = Collections.unmodifiableSet(scopeSet);
     }
 
     @Override
@@ -68,11 +110,7 @@ public final class AuthenticationResult implements IAuthenticationResult {
     @NonNull
     @Override
     public String getAuthorizationHeader() {
-        final String scheme = mAccessToken.getAccessTokenType();
-
-        return scheme
-                + TokenAuthenticationScheme.SCHEME_DELIMITER
-                + mAccessToken.getSecret();
+        return mAuthorizationHeader;
     }
 
     @NonNull
@@ -84,20 +122,16 @@ public final class AuthenticationResult implements IAuthenticationResult {
     @Override
     @NonNull
     public Date getExpiresOn() {
-        // TODO how should this work for PoP?
-        // Middleware will assume 5 min expiry for PoP tokens
-        // Client (MSAL) will not be aware of configured value
-        final Date expiresOn;
-
-        expiresOn = new Date(
-                TimeUnit.SECONDS.toMillis(
-                        Long.parseLong(
-                                mAccessToken.getExpiresOn()
-                        )
-                )
-        );
+        return new Date(mExpiresOnEpochMillis);
+    }
 
-        return expiresOn;
+    /**
+     * Same as {@link #getExpiresOn()}, without allocating a {@link Date}.
+     *
+     * @return The expiration time of the access token, in milliseconds since the epoch.
+     */
+    public long getExpiresOnEpochMillis() {
+        return mExpiresOnEpochMillis;
     }
 
     @Override
@@ -109,13 +143,32 @@ public final class AuthenticationResult implements IAuthenticationResult {
     @Override
     @NonNull
     public IAccount getAccount() {
-        return mAccount;
+        IAccount account = mAccount;
+
+        if (null == account) {
+            // Benign race: concurrent callers get the same canonical instance from the cache.
+            account = AccountIdentityCache.getInstance().get(mCacheRecords);
+            mAccount = account;
+        }
+
+        return account;
     }
 
     @Override
     @NonNull
     public String[] getScope() {
-        return mAccessToken.getTarget().split("\\s");
+        // Copied, the array is mutable.
+        return mScopes.clone();
+    }
+
+    /**
+     * Same as {@link #getScope()}, as an unmodifiable set computed once per result.
+     *
+     * @return The scopes returned from the service.
+     */
+    @NonNull
+    public Set<String> getScopeSet() {
+        return mScopeSet;
     }
 
     @Nullable
@@ -124,6 +177,84 @@ public final class AuthenticationResult implements IAuthenticationResult {
         return mCorrelationId;
     }
 
+    /**
+     * Gets whether the access token has already expired and was returned from the cache because
+     * it could not be refreshed while offline. See the offline_grace_period configuration.
+     * <p>
+     * Results delivered by MSAL are instances of this class, so callers may check
+     * {@code result instanceof AuthenticationResult && ((AuthenticationResult) result).isStale()}.
+     *
+     * @return True if the access token is past its expiration time.
+     */
+    public boolean isStale() {
+        return mIsStale;
+    }
+
+    /**
+     * Copies the parts of the cache records needed to adapt the account, so that the result does not
+     * keep the refresh tokens or other credentials of the records alive.
+     */
+    @VisibleForTesting
+    @NonNull
+    static List<ICacheRecord> retainAccountRecords(@NonNull final List<ICacheRecord> cacheRecords) {
+        final List<ICacheRecord> accountRecords = new ArrayList<>(cacheRecords.size());
+
+        for (final ICacheRecord cacheRecord : cacheRecords) {
+            final CacheRecord accountRecord = new CacheRecord();
+            accountRecord.setAccount(cacheRecord.getAccount());
+            accountRecord.setIdToken(cacheRecord.getIdToken());
+            accountRecord.setV1IdToken(cacheRecord.getV1IdToken());
+            accountRecords.add(accountRecord);
+        }
+
+        return accountRecords;
+    }
+
+    /**
+     * @return The expiration time in milliseconds, or 0 if it is missing or not a number.
+     */
+    private static long parseExpiresOn(@Nullable final String expiresOn) {
+        final String methodName = ":parseExpiresOn";
+
+        if (TextUtils.isEmpty(expiresOn)) {
+            return 0;
+        }
+
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(expiresOn));
+        } catch (final NumberFormatException e) {
+            Logger.warn(TAG + methodName, "Access token expiration is not a number, treating it as expired.");
+            return 0;
+        }
+    }
+
+    /**
+     * Splits a space-delimited target on whitespace, without compiling a regular expression.
+     */
+    @NonNull
+    private static String[] splitScopes(@Nullable final String target) {
+        if (TextUtils.isEmpty(target)) {
+            return new String[0];
+        }
+
+        final List<String> scopes = new ArrayList<>();
+        final int length = target.length();
+        int start = -1;
+
+        for (int i = 0; i <= length; i++) {
+            final boolean isDelimiter = i == length || Character.isWhitespace(target.charAt(i));
+
+            if (isDelimiter && start >= 0) {
+                scopes.add(target.substring(start, i));
+                start = -1;
+            } else if (!isDelimiter && start < 0) {
+                start = i;
+            }
+        }
+
+        return scopes.toArray(new String[scopes.size()]);
+    }
+
     @Nullable
     private UUID sanitizeCorrelationId(@Nullable final String correlationId) {
         final String methodName = "sanitizeCorrelationId";
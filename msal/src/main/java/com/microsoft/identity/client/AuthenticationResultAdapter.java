@@ -25,15 +25,12 @@ package com.microsoft.identity.client;
 import androidx.annotation.NonNull;
 
 import com.microsoft.identity.client.exception.MsalDeclinedScopeException;
+import com.microsoft.identity.client.internal.ScopeSet;
 import com.microsoft.identity.common.internal.logging.Logger;
 import com.microsoft.identity.common.internal.result.ILocalAuthenticationResult;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
 
 class AuthenticationResultAdapter {
 
@@ -84,29 +81,12 @@ class AuthenticationResultAdapter {
 
     static List<String> getDeclinedScopes(@NonNull final List<String> grantedScopes,
                                           @NonNull final List<String> requestedScopes) {
-        final Set<String> grantedScopesSet = new HashSet<>();
-
-        // Add each granted scope to the Set
-        for (final String grantedScope : grantedScopes) {
-            grantedScopesSet.add(grantedScope.toLowerCase(Locale.ROOT));
-        }
-
-        final Set<String> requestedScopesSet = new HashSet<>();
-
-        // Add each requested scope to the Set
-        for (final String requestedScope : requestedScopes) {
-            requestedScopesSet.add(requestedScope.toLowerCase(Locale.ROOT));
-        }
-
-        final List<String> declinedScopes = new ArrayList<>();
-
-        // Iterate over the requested scopes, determining which were declined
-        for (final String requestedScope : requestedScopesSet) {
-            if (!grantedScopesSet.contains(requestedScope)) {
-                declinedScopes.add(requestedScope);
-            }
-        }
+        return getDeclinedScopes(ScopeSet.of(grantedScopes), ScopeSet.of(requestedScopes));
+    }
 
-        return declinedScopes;
+    static List<String> getDeclinedScopes(@NonNull final ScopeSet grantedScopes,
+                                          @NonNull final ScopeSet requestedScopes) {
+        // Both sets are case-folded, so this is a plain comparison.
+        return requestedScopes.difference(grantedScopes);
     }
 }
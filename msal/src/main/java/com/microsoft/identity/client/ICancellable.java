@@ -0,0 +1,45 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client;
+
+/**
+ * Handle to an asynchronous operation which may be cancelled by the caller, e.g. when the screen
+ * which started it is torn down.
+ * <p>
+ * Once cancelled, no callback of the operation is invoked. Work which has not yet started is
+ * skipped. Work already handed to a command is not stopped: the command runs to completion and
+ * the tokens it acquires are saved to the cache, only its result is not delivered. See the
+ * documentation of each operation for what cancelling stops.
+ */
+public interface ICancellable {
+
+    /**
+     * Cancels the operation. Has no effect if the operation has already completed or been cancelled.
+     */
+    void cancel();
+
+    /**
+     * @return True if {@link #cancel()} has been called.
+     */
+    boolean isCancelled();
+}
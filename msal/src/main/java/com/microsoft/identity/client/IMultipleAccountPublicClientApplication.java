@@ -28,10 +28,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 
+import com.microsoft.identity.client.exception.MsalClientException;
 import com.microsoft.identity.client.exception.MsalException;
 import com.microsoft.identity.common.internal.controllers.TaskCompletedCallbackWithError;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An interface that contains list of operations that are available when MSAL is in 'multiple account' mode.
@@ -46,8 +48,9 @@ public interface IMultipleAccountPublicClientApplication extends IPublicClientAp
      * Asynchronously returns a List of {@link IAccount} objects for which this application has RefreshTokens.
      *
      * @param callback The callback to notify once this action has finished.
+     * @return A handle which may be used to cancel the operation.
      */
-    void getAccounts(@NonNull final LoadAccountsCallback callback);
+    ICancellable getAccounts(@NonNull final LoadAccountsCallback callback);
 
     /**
      * Returns a List of {@link IAccount} objects for which this application has RefreshTokens.
@@ -55,6 +58,18 @@ public interface IMultipleAccountPublicClientApplication extends IPublicClientAp
     @WorkerThread
     List<IAccount> getAccounts() throws InterruptedException, MsalException;
 
+    /**
+     * Returns a List of {@link IAccount} objects for which this application has RefreshTokens,
+     * waiting at most the supplied timeout.
+     *
+     * @param timeout The maximum time to wait; 0 waits indefinitely, like {@link #getAccounts()}.
+     * @param unit    The unit of the timeout.
+     * @throws MsalClientException with {@link MsalClientException#REQUEST_TIMEOUT} if the accounts
+     *                             were not loaded in time.
+     */
+    @WorkerThread
+    List<IAccount> getAccounts(final long timeout, @NonNull final TimeUnit unit) throws InterruptedException, MsalException;
+
     /**
      * Retrieve the IAccount object matching the identifier.
      * The identifier could be homeAccountIdentifier, localAccountIdentifier or username.
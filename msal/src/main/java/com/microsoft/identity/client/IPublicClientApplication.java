@@ -28,6 +28,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 
+import com.microsoft.identity.client.exception.MsalClientException;
 import com.microsoft.identity.client.exception.MsalException;
 import com.microsoft.identity.common.internal.controllers.TaskCompletedCallbackWithError;
 
@@ -72,8 +73,28 @@ public interface IPublicClientApplication {
      * or it fails the refresh, exception will be sent back via callback.
      *
      * @param acquireTokenSilentParameters
+     * @return A handle which may be used to cancel the request.
      */
-    void acquireTokenSilentAsync(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters);
+    ICancellable acquireTokenSilentAsync(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters);
+
+    /**
+     * Answers a claims challenge returned by a resource: forces a refresh of the token requested by
+     * the original parameters, with the claims of the challenge, and sends the result to their callback.
+     * <p>
+     * Identical challenges raised concurrently, e.g. by a burst of calls rejected with the same
+     * 401 response, share a single refresh, and its result answers identical challenges arriving
+     * within a few seconds. A shared refresh runs with the deadline of the request which started it.
+     *
+     * @param acquireTokenSilentParameters The parameters of the request whose token was rejected.
+     * @param wwwAuthenticateHeaderValue   The WWW-Authenticate header of the resource response. If it
+     *                                     carries no claims, or none which can be decoded, the token is
+     *                                     refreshed with the claims of the original parameters. A
+     *                                     header which cannot be parsed at all is reported to the
+     *                                     callback as an {@link MsalClientException}.
+     * @return A handle which may be used to stop waiting for the result.
+     */
+    ICancellable acquireTokenForClaimsChallengeAsync(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+                                                     @NonNull final String wwwAuthenticateHeaderValue);
 
     /**
      * Perform acquire token silent call. If there is a valid access token in the cache, the sdk will return the access token; If
@@ -85,13 +106,35 @@ public interface IPublicClientApplication {
     @WorkerThread
     IAuthenticationResult acquireTokenSilent(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters) throws InterruptedException, MsalException;
 
+    /**
+     * Returns a valid access token from the cache without making any network or broker request.
+     * Unlike {@link #acquireTokenSilent(AcquireTokenSilentParameters)}, this may be called from the main thread.
+     * Results handed out recently are served from memory. Otherwise, on a worker thread the local token cache
+     * is read; on the main thread null is returned, and the token cache is read in the background so that a
+     * later call can be answered from memory, if the command result cache is enabled. Tokens held only by the broker, PoP tokens, and requests with
+     * claims or force refresh are never answered.
+     *
+     * @param acquireTokenSilentParameters The parameters of the request. The callback is ignored.
+     * @return A result whose token does not expire within the next 5 minutes, or null.
+     */
+    @Nullable
+    IAuthenticationResult peekCachedToken(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters);
+
     /**
      * Perform the Device Code Flow (DCF) protocol to allow a device without input capability to authenticate and get a new access token.
      * Currently, flow is only supported in local MSAL. No Broker support.
+     * When scheduled device code polling is enabled in the configuration, the flow requests tokens from the
+     * token endpoint directly instead of running as a command: it never goes through the broker and emits
+     * no command telemetry.
+     * <p>
+     * Cancelling the returned handle stops the callbacks. Only the scheduled flow also stops polling and
+     * does not save the tokens; otherwise the command keeps polling until the user signs in or the
+     * device code expires, and the tokens are saved to the cache.
      * @param scopes the desired access scopes
      * @param callback callback object used to communicate with the API throughout the protocol
+     * @return A handle which may be used to cancel the flow.
      */
-    void acquireTokenWithDeviceCode(@NonNull String[] scopes, @NonNull final DeviceCodeFlowCallback callback);
+    ICancellable acquireTokenWithDeviceCode(@NonNull String[] scopes, @NonNull final DeviceCodeFlowCallback callback);
 
     /**
      * Returns the PublicClientConfiguration for this instance of PublicClientApplication.
@@ -171,6 +214,22 @@ public interface IPublicClientApplication {
         void onError(final MsalException exception);
     }
 
+    /**
+     * Optional listener for applications created from a cached device mode
+     * (see the "device_mode_cache_ttl" configuration). The device mode is revalidated in the
+     * background after the application has been created; if the application's creation listener
+     * also implements this interface, it is notified should the device mode have changed.
+     * The application already created keeps its mode, and should be recreated.
+     */
+    interface DeviceModeChangedListener {
+        /**
+         * Called if the revalidated device mode differs from the one the application was created with.
+         *
+         * @param isSharedDevice True if the device is now in shared mode.
+         */
+        void onDeviceModeChanged(final boolean isSharedDevice);
+    }
+
     /**
      * Callback object used in Device Code Flow.
      * This callback provides the following methods for communicating with the protocol.
@@ -28,8 +28,11 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 
+import com.microsoft.identity.client.exception.MsalClientException;
 import com.microsoft.identity.client.exception.MsalException;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * An interface that contains list of operations that are available when MSAL is in 'single account' mode.
  * - In this mode, one account can be signed-in to the app.
@@ -62,6 +65,18 @@ public interface ISingleAccountPublicClientApplication extends IPublicClientAppl
     @WorkerThread
     ICurrentAccountResult getCurrentAccount() throws InterruptedException, MsalException;
 
+    /**
+     * Gets the current account, waiting at most the supplied timeout.
+     *
+     * @param timeout The maximum time to wait; 0 waits indefinitely, like {@link #getCurrentAccount()}.
+     * @param unit    The unit of the timeout.
+     * @return CurrentAccountResult
+     * @throws MsalClientException with {@link MsalClientException#REQUEST_TIMEOUT} if the account
+     *                             was not loaded in time.
+     */
+    @WorkerThread
+    ICurrentAccountResult getCurrentAccount(final long timeout, @NonNull final TimeUnit unit) throws InterruptedException, MsalException;
+
     /**
      * Allows a user to sign in to your application with one of their accounts. This method may only
      * be called once: once a user is signed in, they must first be signed out before another user
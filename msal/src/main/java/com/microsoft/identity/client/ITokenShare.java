@@ -22,10 +22,14 @@
 // THE SOFTWARE.
 package com.microsoft.identity.client;
 
+import androidx.annotation.NonNull;
+
 import com.microsoft.identity.client.exception.MsalClientException;
 import com.microsoft.identity.common.adal.internal.tokensharing.ITokenShareInternal;
 import com.microsoft.identity.common.adal.internal.tokensharing.ITokenShareResultInternal;
 
+import java.util.List;
+
 /**
  * Interface defining necessary methods for TokenShareLibrary (TSL) integration.
  */
@@ -67,4 +71,37 @@ public interface ITokenShare extends ITokenShareInternal {
     @Override
     void saveMsaFamilyRefreshToken(String refreshToken) throws MsalClientException;
 
+    /**
+     * Exports the family refresh token of each account in the cache of this application. Accounts
+     * of the Microsoft account tenant are exported in the
+     * {@link TokenShareResult.TokenShareExportFormat#RAW} format, others in the
+     * {@link TokenShareResult.TokenShareExportFormat#SSO_STATE_SERIALIZER_BLOB} format.
+     * Accounts without a family refresh token are reported as failures.
+     * <p>
+     * The accounts are enumerated and the broker is checked once, but each refresh token is then
+     * looked up and serialized on its own, as by {@link #getMsaFamilyRefreshTokenWithMetadata(String)}
+     * and {@link #getOrgIdFamilyRefreshTokenWithMetadata(String)}. The export is not a snapshot:
+     * tokens written to the cache meanwhile may or may not be included.
+     *
+     * @return The exported refresh tokens and the per-account failures.
+     * @throws MsalClientException If the accounts cannot be read, or the broker is in use.
+     */
+    @NonNull
+    TokenShareBatchResult getEachFamilyRefreshTokenWithMetadata() throws MsalClientException;
+
+    /**
+     * Imports family refresh tokens, e.g. those returned by {@link #getEachFamilyRefreshTokenWithMetadata()}
+     * in another application. Each entry is saved on its own according to its format, as by
+     * {@link #saveMsaFamilyRefreshToken(String)} and {@link #saveOrgIdFamilyRefreshToken(String)}.
+     * The import is not a transaction: an entry failing does not stop the others, and the entries
+     * already saved are kept.
+     *
+     * @param results The refresh tokens to import.
+     * @return The number of refresh tokens imported and the per-entry failures.
+     * @throws MsalClientException If the broker is in use.
+     */
+    @NonNull
+    TokenShareBatchResult saveEachFamilyRefreshToken(@NonNull List<? extends ITokenShareResultInternal> results)
+            throws MsalClientException;
+
 }
@@ -29,10 +29,12 @@ import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.microsoft.identity.client.configuration.CommandResultCacheConfiguration;
 import com.microsoft.identity.client.exception.MsalArgumentException;
 import com.microsoft.identity.client.exception.MsalClientException;
 import com.microsoft.identity.client.exception.MsalException;
 import com.microsoft.identity.client.internal.AsyncResult;
+import com.microsoft.identity.client.internal.CancellableOperation;
 import com.microsoft.identity.client.internal.CommandParametersAdapter;
 import com.microsoft.identity.client.internal.controllers.MSALControllerFactory;
 import com.microsoft.identity.client.internal.controllers.MsalExceptionAdapter;
@@ -49,9 +51,14 @@ import com.microsoft.identity.common.internal.eststelemetry.PublicApiId;
 import com.microsoft.identity.common.internal.migration.TokenMigrationCallback;
 import com.microsoft.identity.common.internal.result.ResultFuture;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import static com.microsoft.identity.client.exception.MsalClientException.REQUEST_TIMEOUT;
 import static com.microsoft.identity.client.exception.MsalClientException.UNKNOWN_ERROR;
 import static com.microsoft.identity.client.internal.MsalUtils.throwOnMainThread;
 import static com.microsoft.identity.client.internal.MsalUtils.validateNonNullArg;
@@ -92,8 +99,8 @@ public class MultipleAccountPublicClientApplication extends PublicClientApplicat
      * @param callback The callback to notify once this action has finished.
      */
     @Override
-    public void getAccounts(@NonNull final LoadAccountsCallback callback) {
-        getAccountsInternal(callback, PublicApiId.MULTIPLE_ACCOUNT_PCA_GET_ACCOUNTS_WITH_CALLBACK);
+    public ICancellable getAccounts(@NonNull final LoadAccountsCallback callback) {
+        return getAccountsInternal(callback, PublicApiId.MULTIPLE_ACCOUNT_PCA_GET_ACCOUNTS_WITH_CALLBACK);
     }
 
 
@@ -102,11 +109,61 @@ public class MultipleAccountPublicClientApplication extends PublicClientApplicat
      *
      * @param callback The callback to notify once this action has finished.
      */
-    private void getAccountsInternal(@NonNull final LoadAccountsCallback callback,
-                                     @NonNull final String publicApiId) {
+    private ICancellable getAccountsInternal(@NonNull final LoadAccountsCallback callerCallback,
+                                             @NonNull final String publicApiId) {
+        final CancellableOperation operation = new CancellableOperation(publicApiId);
+        final boolean isCacheable = isCommandResultCacheable(CommandResultCacheConfiguration.Commands.GET_ACCOUNTS);
+
+        if (isCacheable) {
+            @SuppressWarnings("unchecked")
+            final List<IAccount> cachedAccounts =
+                    mCommandResultCache.get(CommandResultCacheConfiguration.Commands.GET_ACCOUNTS, List.class);
+
+            if (null != cachedAccounts) {
+                new Handler(Looper.getMainLooper()).post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!operation.isCancelled()) {
+                            callerCallback.onTaskCompleted(cachedAccounts);
+                        }
+                    }
+                });
+
+                return operation;
+            }
+        }
+
+        // Results are dropped once the caller has cancelled.
+        final LoadAccountsCallback callback = new LoadAccountsCallback() {
+            @Override
+            public void onTaskCompleted(final List<IAccount> result) {
+                if (isCacheable && null != result) {
+                    mCommandResultCache.put(
+                            CommandResultCacheConfiguration.Commands.GET_ACCOUNTS,
+                            Collections.unmodifiableList(new ArrayList<>(result))
+                    );
+                }
+
+                if (!operation.isCancelled()) {
+                    callerCallback.onTaskCompleted(result);
+                }
+            }
+
+            @Override
+            public void onError(final MsalException exception) {
+                if (!operation.isCancelled()) {
+                    callerCallback.onError(exception);
+                }
+            }
+        };
+
         TokenMigrationCallback migrationCallback = new TokenMigrationCallback() {
             @Override
             public void onMigrationFinished(int numberOfAccountsMigrated) {
+                if (operation.isCancelled()) {
+                    return;
+                }
+
                 final Handler handler;
 
                 if (null != Looper.myLooper() && Looper.getMainLooper() != Looper.myLooper()) {
@@ -128,6 +185,7 @@ public class MultipleAccountPublicClientApplication extends PublicClientApplicat
                             publicApiId
                     );
 
+                    awaitInitialization();
                     CommandDispatcher.submitSilent(loadAccountCommand);
                 } catch (final MsalClientException e) {
                     handler.post(new Runnable() {
@@ -141,16 +199,23 @@ public class MultipleAccountPublicClientApplication extends PublicClientApplicat
         };
 
         performMigration(migrationCallback);
+
+        return operation;
     }
 
     @Override
     public List<IAccount> getAccounts() throws InterruptedException, MsalException {
+        return getAccounts(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<IAccount> getAccounts(final long timeout, @NonNull final TimeUnit unit) throws InterruptedException, MsalException {
 
         throwOnMainThread("getAccounts");
 
         final ResultFuture<AsyncResult<List<IAccount>>> future = new ResultFuture<>();
 
-        getAccountsInternal(new LoadAccountsCallback() {
+        final ICancellable operation = getAccountsInternal(new LoadAccountsCallback() {
             @Override
             public void onTaskCompleted(List<IAccount> result) {
                 future.setResult(new AsyncResult<List<IAccount>>(result, null));
@@ -163,13 +228,22 @@ public class MultipleAccountPublicClientApplication extends PublicClientApplicat
         }, PublicApiId.MULTIPLE_ACCOUNT_PCA_GET_ACCOUNTS);
 
         try {
-            final AsyncResult<List<IAccount>> result = future.get();
+            final AsyncResult<List<IAccount>> result = timeout > 0
+                    ? future.get(timeout, unit)
+                    : future.get();
 
             if (result.getSuccess()) {
                 return result.getResult();
             } else {
                 throw result.getException();
             }
+        } catch (final TimeoutException e) {
+            operation.cancel();
+            throw new MsalClientException(
+                    REQUEST_TIMEOUT,
+                    "Accounts were not loaded within " + unit.toMillis(timeout) + "ms.",
+                    e
+            );
         } catch (final ExecutionException e) {
             // Shouldn't be thrown.
             throw new MsalClientException(
@@ -287,6 +361,7 @@ public class MultipleAccountPublicClientApplication extends PublicClientApplicat
                             publicApiId
                     );
 
+                    awaitInitialization();
                     CommandDispatcher.submitSilent(loadAccountCommand);
                 } catch (final MsalClientException e) {
                     com.microsoft.identity.common.internal.logging.Logger.error(
@@ -392,6 +467,7 @@ public class MultipleAccountPublicClientApplication extends PublicClientApplicat
 
                         @Override
                         public void onTaskCompleted(Boolean success) {
+                            invalidateCachedResults(multiTenantAccount.getHomeAccountId());
                             callback.onRemoved();
                         }
 
@@ -403,6 +479,7 @@ public class MultipleAccountPublicClientApplication extends PublicClientApplicat
                     publicApiId
             );
 
+            awaitInitialization();
             CommandDispatcher.submitSilent(removeAccountCommand);
 
         } catch (final MsalClientException e) {
@@ -33,11 +33,15 @@ import android.util.Pair;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 import androidx.fragment.app.Fragment;
 
+import com.microsoft.identity.client.claims.AuthenticationChallenge;
 import com.microsoft.identity.client.claims.ClaimsRequest;
+import com.microsoft.identity.client.claims.WWWAuthenticateHeader;
 import com.microsoft.identity.client.configuration.AccountMode;
+import com.microsoft.identity.client.configuration.CommandResultCacheConfiguration;
 import com.microsoft.identity.client.configuration.HttpConfiguration;
 import com.microsoft.identity.client.configuration.LoggerConfiguration;
 import com.microsoft.identity.client.exception.MsalArgumentException;
@@ -45,13 +49,34 @@ import com.microsoft.identity.client.exception.MsalClientException;
 import com.microsoft.identity.client.exception.MsalDeclinedScopeException;
 import com.microsoft.identity.client.exception.MsalException;
 import com.microsoft.identity.client.exception.MsalServiceException;
+import com.microsoft.identity.client.exception.MsalUiRequiredException;
 import com.microsoft.identity.client.helper.BrokerHelperActivity;
 import com.microsoft.identity.client.internal.AsyncResult;
+import com.microsoft.identity.client.internal.AuthorityPreconnector;
+import com.microsoft.identity.client.internal.CachingSilentAuthenticationCallback;
+import com.microsoft.identity.client.internal.CancellableOperation;
+import com.microsoft.identity.client.internal.CancellableSilentAuthenticationCallback;
+import com.microsoft.identity.client.internal.CircuitBreakerSilentAuthenticationCallback;
+import com.microsoft.identity.client.internal.ClaimsChallengeCoalescer;
 import com.microsoft.identity.client.internal.CommandParametersAdapter;
+import com.microsoft.identity.client.internal.CommandResultCache;
+import com.microsoft.identity.client.internal.ConnectivityRefreshQueue;
+import com.microsoft.identity.client.internal.Deadline;
+import com.microsoft.identity.client.internal.DeadlineSilentAuthenticationCallback;
+import com.microsoft.identity.client.internal.ForwardingSilentAuthenticationCallback;
+import com.microsoft.identity.client.internal.DeviceModeCache;
+import com.microsoft.identity.client.internal.NegativeResultCache;
+import com.microsoft.identity.client.internal.NegativeResultSilentAuthenticationCallback;
+import com.microsoft.identity.client.internal.PopKeyHandleCache;
+import com.microsoft.identity.client.internal.OfflineGraceSilentAuthenticationCallback;
+import com.microsoft.identity.client.internal.ScheduledDeviceCodeFlow;
+import com.microsoft.identity.client.internal.ScopeSet;
+import com.microsoft.identity.client.internal.SharedResourceRegistry;
+import com.microsoft.identity.client.internal.StartupTrace;
 import com.microsoft.identity.client.internal.controllers.MSALControllerFactory;
 import com.microsoft.identity.client.internal.controllers.MsalExceptionAdapter;
+import com.microsoft.identity.client.internal.net.CircuitBreakers;
 import com.microsoft.identity.common.adal.internal.cache.IStorageHelper;
-import com.microsoft.identity.common.adal.internal.cache.StorageHelper;
 import com.microsoft.identity.common.adal.internal.tokensharing.ITokenShareResultInternal;
 import com.microsoft.identity.common.adal.internal.tokensharing.TokenShareUtility;
 import com.microsoft.identity.common.exception.BaseException;
@@ -59,8 +84,10 @@ import com.microsoft.identity.common.exception.ClientException;
 import com.microsoft.identity.common.exception.ErrorStrings;
 import com.microsoft.identity.common.exception.ServiceException;
 import com.microsoft.identity.common.internal.authorities.Authority;
+import com.microsoft.identity.common.internal.authorities.AzureActiveDirectoryAudience;
 import com.microsoft.identity.common.internal.authorities.AzureActiveDirectoryAuthority;
 import com.microsoft.identity.common.internal.authorities.AzureActiveDirectoryB2CAuthority;
+import com.microsoft.identity.common.internal.authscheme.BearerAuthenticationSchemeInternal;
 import com.microsoft.identity.common.internal.cache.ICacheRecord;
 import com.microsoft.identity.common.internal.cache.IShareSingleSignOnState;
 import com.microsoft.identity.common.internal.cache.ISharedPreferencesFileManager;
@@ -101,12 +128,18 @@ import com.microsoft.identity.msal.BuildConfig;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.microsoft.identity.client.PublicClientApplicationConfigurationFactory.initializeConfiguration;
 import static com.microsoft.identity.client.exception.MsalClientException.UNKNOWN_ERROR;
@@ -195,8 +228,37 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
     private static final String TAG = PublicClientApplication.class.getSimpleName();
     private static final String INTERNET_PERMISSION = "android.permission.INTERNET";
     private static final String ACCESS_NETWORK_STATE_PERMISSION = "android.permission.ACCESS_NETWORK_STATE";
+
+    /**
+     * Cached tokens expiring sooner than this are not served from the command result cache.
+     */
+    private static final long COMMAND_RESULT_EXPIRY_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final String COMMAND_RESULT_KEY_DELIMITER = "|";
+
+    /**
+     * Delivers timeout errors for requests with a deadline, and times device code flow polls.
+     */
+    private static final ScheduledExecutorService sTimeoutScheduler = Executors.newSingleThreadScheduledExecutor();
+
     private static final ExecutorService sBackgroundExecutor = Executors.newCachedThreadPool();
 
+    /**
+     * Silent requests which recently failed because user interaction is required.
+     */
+    static final NegativeResultCache sNegativeResultCache = new NegativeResultCache();
+
+    /**
+     * Claims challenges being answered, so that identical ones share a forced refresh.
+     */
+    private static final ClaimsChallengeCoalescer sClaimsChallengeCoalescer = new ClaimsChallengeCoalescer();
+
+    /**
+     * Keeps connections to the configured authority hosts warm, created by the first application
+     * which enables pre-connect.
+     */
+    private static AuthorityPreconnector sAuthorityPreconnector;
+
     static class NONNULL_CONSTANTS {
         static final String CONTEXT = "context";
         static final String LISTENER = "listener";
@@ -225,6 +287,22 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
     protected PublicClientApplicationConfiguration mPublicClientConfiguration;
     protected TokenShareUtility mTokenShareUtility;
 
+    /**
+     * Recent results of eligible commands, or null if the cache is disabled.
+     */
+    @Nullable
+    protected CommandResultCache mCommandResultCache;
+
+    /**
+     * Times initialization, and tracks the deferred phases which must finish before the first request.
+     */
+    private final StartupTrace mStartupTrace = new StartupTrace(TAG);
+
+    /**
+     * Refreshes of tokens served within the offline grace period, waiting for connectivity.
+     */
+    private ConnectivityRefreshQueue mOfflineRefreshQueue;
+
     //region PCA factory methods
 
     /**
@@ -894,6 +972,30 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
             config.setRedirectUri(redirectUri);
         }
 
+        final String methodName = ":create";
+
+        final DeviceModeCache deviceModeCache = DeviceModeCache.create(
+                config.getAppContext(),
+                config.getDeviceModeCacheTtl()
+        );
+        final Boolean cachedIsSharedDevice = null == deviceModeCache
+                ? null
+                : deviceModeCache.getIfFresh(config.getClientId());
+
+        if (null != cachedIsSharedDevice) {
+            com.microsoft.identity.common.internal.logging.Logger.info(
+                    TAG + methodName,
+                    "Creating application from cached device mode, revalidating in background."
+            );
+
+            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    onDeviceModeResolved(config, cachedIsSharedDevice, listener);
+                }
+            });
+        }
+
         final CommandParameters params = CommandParametersAdapter.createCommandParameters(config, config.getOAuth2TokenCache());
 
         final BaseController controller;
@@ -903,7 +1005,14 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                     config.getDefaultAuthority(),
                     config);
         } catch (MsalClientException e) {
-            listener.onError(e);
+            if (null != cachedIsSharedDevice) {
+                com.microsoft.identity.common.internal.logging.Logger.warn(
+                        TAG + methodName,
+                        "Unable to revalidate cached device mode: " + e.getErrorCode()
+                );
+            } else {
+                listener.onError(e);
+            }
             return;
         }
 
@@ -913,21 +1022,27 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                 new CommandCallback<Boolean, BaseException>() {
                     @Override
                     public void onError(BaseException error) {
+                        if (null != cachedIsSharedDevice) {
+                            com.microsoft.identity.common.internal.logging.Logger.warn(
+                                    TAG + methodName,
+                                    "Unable to revalidate cached device mode: " + error.getErrorCode()
+                            );
+                            return;
+                        }
+
                         listener.onError(MsalExceptionAdapter.msalExceptionFromBaseException(error));
                     }
 
                     @Override
                     public void onTaskCompleted(Boolean isSharedDevice) {
-                        config.setIsSharedDevice(isSharedDevice);
+                        if (null != deviceModeCache) {
+                            deviceModeCache.put(config.getClientId(), isSharedDevice);
+                        }
 
-                        try {
-                            if (config.getAccountMode() == AccountMode.SINGLE || isSharedDevice) {
-                                listener.onCreated(new SingleAccountPublicClientApplication(config));
-                            } else {
-                                listener.onCreated(new MultipleAccountPublicClientApplication(config));
-                            }
-                        } catch (final MsalClientException e) {
-                            listener.onError(e);
+                        if (null == cachedIsSharedDevice) {
+                            onDeviceModeResolved(config, isSharedDevice, listener);
+                        } else if (cachedIsSharedDevice.booleanValue() != isSharedDevice) {
+                            onDeviceModeChanged(isSharedDevice, listener);
                         }
                     }
 
@@ -939,9 +1054,70 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                 null
         );
 
+        awaitInitialization();
         CommandDispatcher.submitSilent(command);
     }
 
+    private static void onDeviceModeResolved(@NonNull final PublicClientApplicationConfiguration config,
+                                             final boolean isSharedDevice,
+                                             @NonNull final ApplicationCreatedListener listener) {
+        config.setIsSharedDevice(isSharedDevice);
+
+        try {
+            if (config.getAccountMode() == AccountMode.SINGLE || isSharedDevice) {
+                listener.onCreated(new SingleAccountPublicClientApplication(config));
+            } else {
+                listener.onCreated(new MultipleAccountPublicClientApplication(config));
+            }
+        } catch (final MsalClientException e) {
+            listener.onError(e);
+        }
+    }
+
+    private static void onDeviceModeChanged(final boolean isSharedDevice,
+                                            @NonNull final ApplicationCreatedListener listener) {
+        final String methodName = ":onDeviceModeChanged";
+
+        // The application already created keeps the mode it was created with: only a new
+        // application, created by the listener, picks up the revalidated mode.
+        if (listener instanceof DeviceModeChangedListener) {
+            ((DeviceModeChangedListener) listener).onDeviceModeChanged(isSharedDevice);
+        } else {
+            com.microsoft.identity.common.internal.logging.Logger.warn(
+                    TAG + methodName,
+                    "Device mode changed since the application was created. "
+                            + "The application should be recreated."
+            );
+        }
+    }
+
+    /**
+     * Wraps the account-mode specific creation listeners so that a {@link DeviceModeChangedListener}
+     * implemented by the caller's listener is still reachable.
+     */
+    private static abstract class DeviceModeForwardingListener
+            implements ApplicationCreatedListener, DeviceModeChangedListener {
+
+        private final Object mDelegate;
+
+        DeviceModeForwardingListener(@NonNull final Object delegate) {
+            mDelegate = delegate;
+        }
+
+        @Override
+        public void onDeviceModeChanged(final boolean isSharedDevice) {
+            if (mDelegate instanceof DeviceModeChangedListener) {
+                ((DeviceModeChangedListener) mDelegate).onDeviceModeChanged(isSharedDevice);
+            } else {
+                com.microsoft.identity.common.internal.logging.Logger.warn(
+                        TAG + ":onDeviceModeChanged",
+                        "Device mode changed since the application was created. "
+                                + "The application should be recreated."
+                );
+            }
+        }
+    }
+
     private static void createMultipleAccountPublicClientApplication(
             @NonNull final PublicClientApplicationConfiguration configuration,
             @NonNull final IMultipleAccountApplicationCreatedListener listener) {
@@ -949,7 +1125,7 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                 null, // client id
                 null, // authority
                 null, // redirect uri
-                new ApplicationCreatedListener() {
+                new DeviceModeForwardingListener(listener) {
                     @Override
                     public void onCreated(@NonNull final IPublicClientApplication application) {
                         if (application instanceof IMultipleAccountPublicClientApplication) {
@@ -990,7 +1166,7 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                 null, // client id
                 null, // authority
                 null, // redirect uri
-                new ApplicationCreatedListener() {
+                new DeviceModeForwardingListener(listener) {
                     @Override
                     public void onCreated(final IPublicClientApplication application) {
                         if (application instanceof ISingleAccountPublicClientApplication) {
@@ -1025,31 +1201,158 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
 
     protected PublicClientApplication(@NonNull final PublicClientApplicationConfiguration configFile) throws MsalClientException {
         mPublicClientConfiguration = configFile;
+        mCommandResultCache = createCommandResultCache(configFile.getCommandResultCacheConfiguration());
         initializeApplication();
     }
 
+    @Nullable
+    private static CommandResultCache createCommandResultCache(@Nullable final CommandResultCacheConfiguration configuration) {
+        if (null == configuration
+                || configuration.getMaxSize() <= 0
+                || configuration.getTtl() <= 0
+                || configuration.getEligibleCommands().isEmpty()) {
+            return null;
+        }
+
+        return new CommandResultCache(
+                configuration.getMaxSize(),
+                TimeUnit.SECONDS.toMillis(configuration.getTtl())
+        );
+    }
+
+    /**
+     * @param command A command, see {@link CommandResultCacheConfiguration.Commands}.
+     * @return True if results of the command are cached.
+     */
+    boolean isCommandResultCacheable(@NonNull final String command) {
+        return null != mCommandResultCache
+                && mPublicClientConfiguration.getCommandResultCacheConfiguration().isEligible(command);
+    }
+
+    /**
+     * Forgets everything cached about an account, e.g. because it was removed.
+     *
+     * @param homeAccountId The home account id of the account.
+     */
+    void invalidateCachedResults(@Nullable final String homeAccountId) {
+        sNegativeResultCache.invalidate(homeAccountId);
+        sClaimsChallengeCoalescer.clear();
+        AccountIdentityCache.getInstance().clear();
+
+        if (null != mCommandResultCache) {
+            mCommandResultCache.remove(CommandResultCacheConfiguration.Commands.GET_ACCOUNTS);
+        }
+
+        removeCachedSilentResults(homeAccountId);
+    }
+
+    /**
+     * Removes the silent results of an account from the command result cache.
+     *
+     * @param homeAccountId The home account id of the account.
+     */
+    private void removeCachedSilentResults(@Nullable final String homeAccountId) {
+        if (null != mCommandResultCache && !TextUtils.isEmpty(homeAccountId)) {
+            mCommandResultCache.removeByPrefix(
+                    CommandResultCacheConfiguration.Commands.ACQUIRE_TOKEN_SILENT
+                            + COMMAND_RESULT_KEY_DELIMITER + mPublicClientConfiguration.getClientId()
+                            + COMMAND_RESULT_KEY_DELIMITER + homeAccountId.toLowerCase(Locale.ROOT)
+                            + COMMAND_RESULT_KEY_DELIMITER
+            );
+        }
+    }
+
+    /**
+     * Gets the hit, miss, eviction and expiration counters of the command result cache, and its size.
+     *
+     * @return A point-in-time copy of the counters keyed by name, empty if the cache is disabled.
+     */
+    public Map<String, Long> getCommandResultCacheStatistics() {
+        if (null == mCommandResultCache) {
+            return new HashMap<>();
+        }
+
+        return mCommandResultCache.getStatistics();
+    }
+
     private void initializeApplication() throws MsalClientException {
         final String methodName = ":initializeApplication";
 
         final Context context = mPublicClientConfiguration.getAppContext();
-        setupTelemetry(context, mPublicClientConfiguration);
+        final StartupTrace trace = mStartupTrace;
+
+        // Telemetry and the HTTP cache are not needed to hand out the application, and do not
+        // depend upon one another - run them in parallel, off of the critical path. The first
+        // request waits for them, see awaitInitialization().
+        trace.runRequiredPhaseAsync(sBackgroundExecutor, "setupTelemetry", new Runnable() {
+            @Override
+            public void run() {
+                setupTelemetry(context, mPublicClientConfiguration);
+            }
+        });
+
+        trace.runRequiredPhaseAsync(sBackgroundExecutor, "initializeHttpCache", new Runnable() {
+            @Override
+            public void run() {
+                final File cacheDir = context.getCacheDir();
+                SharedResourceRegistry.runOnce(
+                        SharedResourceRegistry.HTTP_CACHE_PREFIX + cacheDir.getAbsolutePath(),
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                HttpCache.initialize(cacheDir);
+                            }
+                        }
+                );
+            }
+        });
 
+        long phaseStart = trace.beginPhase();
         AzureActiveDirectory.setEnvironment(mPublicClientConfiguration.getEnvironment());
         Authority.addKnownAuthorities(mPublicClientConfiguration.getAuthorities());
+        trace.endPhase("addKnownAuthorities", phaseStart);
 
+        phaseStart = trace.beginPhase();
         initializeHttpSettings(mPublicClientConfiguration.getHttpConfiguration());
         initializeLoggerSettings(mPublicClientConfiguration.getLoggerConfiguration());
+        trace.endPhase("initializeHttpAndLoggerSettings", phaseStart);
 
-        initializeTokenSharingLibrary();
+        // The token sharing library is initialized lazily, on first use of an ITokenShare API.
 
+        // Manifest and permission validation must remain synchronous: a misconfigured app should
+        // fail PCA creation.
+        phaseStart = trace.beginPhase();
         mPublicClientConfiguration.checkIntentFilterAddedToAppManifestForBrokerFlow();
+        trace.endPhase("checkIntentFilterAddedToAppManifestForBrokerFlow", phaseStart);
 
         // Since network request is sent from the sdk, if calling app doesn't declare the internet
         // permission in the manifest, we cannot make the network call.
+        phaseStart = trace.beginPhase();
         checkInternetPermission();
+        trace.endPhase("checkInternetPermission", phaseStart);
+
+        if (mPublicClientConfiguration.isAuthorityPreconnectEnabled()) {
+            trace.runPhaseAsync(sBackgroundExecutor, "preconnectAuthorities", new Runnable() {
+                @Override
+                public void run() {
+                    final AuthorityPreconnector preconnector = getAuthorityPreconnector(context);
+                    preconnector.addAuthorities(mPublicClientConfiguration.getAuthorities());
+                    preconnector.registerNetworkChangeReceiver();
+                    preconnector.preconnect(false);
+                }
+            });
+        }
 
-        // Init HTTP cache
-        HttpCache.initialize(context.getCacheDir());
+        if (mPublicClientConfiguration.isPopKeyPregenerationEnabled()) {
+            trace.runPhaseAsync(sBackgroundExecutor, "pregeneratePopKey", new Runnable() {
+                @Override
+                public void run() {
+                    pregeneratePopKey(context);
+                }
+            });
+        }
+
+        trace.completeCriticalPath();
 
         com.microsoft.identity.common.internal.logging.Logger.info(
                 TAG + methodName,
@@ -1057,6 +1360,46 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         );
     }
 
+    /**
+     * Blocks until telemetry and the HTTP cache are set up, so that no command is dispatched before
+     * them. Returns immediately once they are.
+     */
+    void awaitInitialization() {
+        mStartupTrace.awaitRequiredPhases();
+    }
+
+    /**
+     * Generates the PoP key if it does not exist yet, at background priority so as not to compete
+     * with the UI thread. Keys held by the broker are generated there instead.
+     */
+    private void pregeneratePopKey(@NonNull final Context context) {
+        final String methodName = ":pregeneratePopKey";
+        final int threadId = android.os.Process.myTid();
+        final int priority = android.os.Process.getThreadPriority(threadId);
+
+        // Pool threads are reused: lower the priority for this phase only.
+        android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+
+        try {
+            PopKeyHandleCache.pregenerate(
+                    context,
+                    MSALControllerFactory.brokerEligible(
+                            context,
+                            mPublicClientConfiguration.getDefaultAuthority(),
+                            mPublicClientConfiguration
+                    )
+            );
+        } catch (final MsalClientException e) {
+            // The key will be generated by the first PoP request instead.
+            com.microsoft.identity.common.internal.logging.Logger.warn(
+                    TAG + methodName,
+                    "Failed to check broker eligibility, not pre-generating the PoP key: " + e.getMessage()
+            );
+        } finally {
+            android.os.Process.setThreadPriority(threadId, priority);
+        }
+    }
+
     private void initializeLoggerSettings(@Nullable final LoggerConfiguration loggerConfig) {
         if (null != loggerConfig) {
             final com.microsoft.identity.client.Logger.LogLevel configLogLevel = loggerConfig.getLogLevel();
@@ -1098,14 +1441,48 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         if (connectTimeout >= 0) {
             HttpRequest.CONNECT_TIMEOUT = connectTimeout;
         }
+
+        CircuitBreakers.configure(
+                null == httpConfiguration.getCircuitBreakerFailureThreshold()
+                        ? CircuitBreakers.DEFAULT_FAILURE_THRESHOLD
+                        : httpConfiguration.getCircuitBreakerFailureThreshold(),
+                null == httpConfiguration.getCircuitBreakerOpenDuration()
+                        ? CircuitBreakers.DEFAULT_OPEN_DURATION_MILLIS
+                        : httpConfiguration.getCircuitBreakerOpenDuration()
+        );
+    }
+
+    private synchronized TokenShareUtility getTokenShareUtility() {
+        if (null == mTokenShareUtility) {
+            initializeTokenSharingLibrary();
+        }
+
+        return mTokenShareUtility;
     }
 
     private void initializeTokenSharingLibrary() {
-        if (mPublicClientConfiguration.getOAuth2TokenCache() instanceof MsalOAuth2TokenCache) {
-            mTokenShareUtility = new TokenShareUtility(
-                    mPublicClientConfiguration.getClientId(),
-                    mPublicClientConfiguration.getRedirectUri(),
-                    (MsalOAuth2TokenCache) mPublicClientConfiguration.getOAuth2TokenCache()
+        final OAuth2TokenCache tokenCache = mPublicClientConfiguration.getOAuth2TokenCache();
+
+        if (tokenCache instanceof MsalOAuth2TokenCache) {
+            // One utility per token cache instance, client and redirect URI.
+            final String key = SharedResourceRegistry.TOKEN_SHARE_UTILITY_PREFIX
+                    + mPublicClientConfiguration.getClientId()
+                    + "|" + mPublicClientConfiguration.getRedirectUri();
+
+            mTokenShareUtility = SharedResourceRegistry.get(
+                    tokenCache,
+                    key,
+                    new SharedResourceRegistry.ResourceFactory<TokenShareUtility>() {
+                        @NonNull
+                        @Override
+                        public TokenShareUtility create() {
+                            return new TokenShareUtility(
+                                    mPublicClientConfiguration.getClientId(),
+                                    mPublicClientConfiguration.getRedirectUri(),
+                                    (MsalOAuth2TokenCache) tokenCache
+                            );
+                        }
+                    }
             );
         } else {
             throw new IllegalStateException("TSL support mandates use of the MsalOAuth2TokenCache");
@@ -1126,10 +1503,24 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
             );
         }
 
-        new com.microsoft.identity.common.internal.telemetry.Telemetry.Builder()
-                .withContext(context)
-                .defaultConfiguration(developerConfig.getTelemetryConfiguration())
-                .build();
+        // Telemetry is a process-wide singleton; the first application to be created configures it.
+        final boolean configured = SharedResourceRegistry.runOnce(SharedResourceRegistry.TELEMETRY, new Runnable() {
+            @Override
+            public void run() {
+                new com.microsoft.identity.common.internal.telemetry.Telemetry.Builder()
+                        .withContext(context)
+                        .defaultConfiguration(developerConfig.getTelemetryConfiguration())
+                        .build();
+            }
+        });
+
+        if (!configured) {
+            com.microsoft.identity.common.internal.logging.Logger.warn(
+                    TAG,
+                    "Telemetry was configured by an earlier application in this process. "
+                            + "The telemetry configuration of this application is ignored."
+            );
+        }
     }
 
     @Override
@@ -1138,7 +1529,7 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         validateBrokerNotInUse();
 
         try {
-            final ITokenShareResultInternal resultInternal = mTokenShareUtility.getOrgIdFamilyRefreshTokenWithMetadata(identifier);
+            final ITokenShareResultInternal resultInternal = getTokenShareUtility().getOrgIdFamilyRefreshTokenWithMetadata(identifier);
             return new TokenShareResult(resultInternal);
         } catch (final Exception e) {
             throw new MsalClientException(
@@ -1160,7 +1551,8 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         validateBrokerNotInUse();
 
         try {
-            mTokenShareUtility.saveOrgIdFamilyRefreshToken(ssoStateSerializerBlob);
+            getTokenShareUtility().saveOrgIdFamilyRefreshToken(ssoStateSerializerBlob);
+            onFamilyRefreshTokenImported();
         } catch (final Exception e) {
             throw new MsalClientException(
                     TOKEN_SHARING_DESERIALIZATION_ERROR,
@@ -1176,7 +1568,7 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         validateBrokerNotInUse();
 
         try {
-            final ITokenShareResultInternal resultInternal = mTokenShareUtility.getMsaFamilyRefreshTokenWithMetadata(identifier);
+            final ITokenShareResultInternal resultInternal = getTokenShareUtility().getMsaFamilyRefreshTokenWithMetadata(identifier);
             return new TokenShareResult(resultInternal);
         } catch (final Exception e) {
             throw new MsalClientException(
@@ -1198,7 +1590,8 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         validateBrokerNotInUse();
 
         try {
-            mTokenShareUtility.saveMsaFamilyRefreshToken(refreshToken);
+            getTokenShareUtility().saveMsaFamilyRefreshToken(refreshToken);
+            onFamilyRefreshTokenImported();
         } catch (final Exception e) {
             throw new MsalClientException(
                     TOKEN_SHARING_MSA_PERSISTENCE_ERROR,
@@ -1208,6 +1601,175 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         }
     }
 
+    @Override
+    @NonNull
+    public TokenShareBatchResult getEachFamilyRefreshTokenWithMetadata() throws MsalClientException {
+        final String methodName = ":getEachFamilyRefreshTokenWithMetadata";
+        validateBrokerNotInUse();
+
+        final List<AccountRecord> accountRecords;
+
+        try {
+            accountRecords = ((MsalOAuth2TokenCache) mPublicClientConfiguration.getOAuth2TokenCache()).getAccounts(
+                    null, // all environments
+                    mPublicClientConfiguration.getClientId()
+            );
+        } catch (final Exception e) {
+            throw new MsalClientException(
+                    TOKEN_CACHE_ITEM_NOT_FOUND,
+                    TSM_MSG_FAILED_TO_RETRIEVE,
+                    e
+            );
+        }
+
+        final TokenShareBatchResult batchResult = getEachFamilyRefreshTokenWithMetadata(
+                getTokenShareUtility(),
+                accountRecords
+        );
+
+        com.microsoft.identity.common.internal.logging.Logger.info(
+                TAG + methodName,
+                "Exported [" + batchResult.getSuccessCount() + "] family refresh tokens, ["
+                        + batchResult.getFailures().size() + "] accounts failed."
+        );
+
+        return batchResult;
+    }
+
+    /**
+     * Exports the family refresh token of each account, one {@link TokenShareUtility} lookup per
+     * account.
+     */
+    @VisibleForTesting
+    @NonNull
+    static TokenShareBatchResult getEachFamilyRefreshTokenWithMetadata(@NonNull final TokenShareUtility tokenShareUtility,
+                                                                       @Nullable final List<AccountRecord> accountRecords) {
+        final TokenShareBatchResult batchResult = new TokenShareBatchResult();
+
+        for (final AccountRecord accountRecord : getHomeAccountRecords(accountRecords)) {
+            final String identifier = accountRecord.getLocalAccountId();
+
+            try {
+                final ITokenShareResultInternal resultInternal =
+                        AzureActiveDirectoryAudience.MSA_MEGA_TENANT_ID.equalsIgnoreCase(accountRecord.getRealm())
+                                ? tokenShareUtility.getMsaFamilyRefreshTokenWithMetadata(identifier)
+                                : tokenShareUtility.getOrgIdFamilyRefreshTokenWithMetadata(identifier);
+                batchResult.addResult(new TokenShareResult(resultInternal));
+            } catch (final Exception e) {
+                batchResult.addFailure(
+                        identifier,
+                        new MsalClientException(
+                                TOKEN_CACHE_ITEM_NOT_FOUND,
+                                TSM_MSG_FAILED_TO_RETRIEVE,
+                                e
+                        )
+                );
+            }
+        }
+
+        return batchResult;
+    }
+
+    /**
+     * The family refresh token is shared by the tenant profiles of an account, so only one record
+     * per account is exported: the one of its home tenant, if cached.
+     */
+    private static List<AccountRecord> getHomeAccountRecords(@Nullable final List<AccountRecord> accountRecords) {
+        if (null == accountRecords) {
+            return new ArrayList<>();
+        }
+
+        final Map<String, AccountRecord> homeAccountRecords = new LinkedHashMap<>();
+
+        for (final AccountRecord accountRecord : accountRecords) {
+            final String homeAccountId = accountRecord.getHomeAccountId();
+
+            if (TextUtils.isEmpty(homeAccountId) || TextUtils.isEmpty(accountRecord.getLocalAccountId())) {
+                continue;
+            }
+
+            if (!homeAccountRecords.containsKey(homeAccountId)
+                    || homeAccountId.startsWith(accountRecord.getLocalAccountId())) {
+                homeAccountRecords.put(homeAccountId, accountRecord);
+            }
+        }
+
+        return new ArrayList<>(homeAccountRecords.values());
+    }
+
+    @Override
+    @NonNull
+    public TokenShareBatchResult saveEachFamilyRefreshToken(@NonNull final List<? extends ITokenShareResultInternal> results)
+            throws MsalClientException {
+        final String methodName = ":saveEachFamilyRefreshToken";
+        validateNonNullArgument(results, "results");
+        validateBrokerNotInUse();
+
+        final TokenShareBatchResult batchResult = saveEachFamilyRefreshToken(getTokenShareUtility(), results);
+
+        com.microsoft.identity.common.internal.logging.Logger.info(
+                TAG + methodName,
+                "Imported [" + batchResult.getSuccessCount() + "] family refresh tokens, ["
+                        + batchResult.getFailures().size() + "] entries failed."
+        );
+
+        return batchResult;
+    }
+
+    /**
+     * Imports each entry according to its format, one {@link TokenShareUtility} save per entry.
+     */
+    @VisibleForTesting
+    @NonNull
+    static TokenShareBatchResult saveEachFamilyRefreshToken(@NonNull final TokenShareUtility tokenShareUtility,
+                                                            @NonNull final List<? extends ITokenShareResultInternal> results) {
+        final TokenShareBatchResult batchResult = new TokenShareBatchResult();
+
+        for (int i = 0; i < results.size(); i++) {
+            final ITokenShareResultInternal result = results.get(i);
+            final boolean msa = null != result
+                    && TokenShareResult.TokenShareExportFormat.RAW.equals(result.getFormat());
+
+            try {
+                if (null == result || TextUtils.isEmpty(result.getRefreshToken())) {
+                    throw new IllegalArgumentException("The entry carries no refresh token.");
+                }
+
+                if (msa) {
+                    tokenShareUtility.saveMsaFamilyRefreshToken(result.getRefreshToken());
+                } else {
+                    tokenShareUtility.saveOrgIdFamilyRefreshToken(result.getRefreshToken());
+                }
+
+                batchResult.addSuccess();
+            } catch (final Exception e) {
+                batchResult.addFailure(
+                        String.valueOf(i),
+                        new MsalClientException(
+                                msa ? TOKEN_SHARING_MSA_PERSISTENCE_ERROR : TOKEN_SHARING_DESERIALIZATION_ERROR,
+                                TSL_MSG_FAILED_TO_SAVE,
+                                e
+                        )
+                );
+            }
+        }
+
+        if (batchResult.getSuccessCount() > 0) {
+            onFamilyRefreshTokenImported();
+        }
+
+        return batchResult;
+    }
+
+    /**
+     * An imported family refresh token may satisfy requests which previously required user
+     * interaction. The account it belongs to is not known here, so every remembered failure is
+     * forgotten.
+     */
+    private static void onFamilyRefreshTokenImported() {
+        sNegativeResultCache.clear();
+    }
+
     private void validateBrokerNotInUse() throws MsalClientException {
         if (MSALControllerFactory.brokerEligible(
                 mPublicClientConfiguration.getAppContext(),
@@ -1243,6 +1805,55 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         return BuildConfig.VERSION_NAME;
     }
 
+    /**
+     * Gets counters describing the per-authority circuit breaker of silent token requests in this
+     * process: circuits opened and requests short-circuited.
+     *
+     * @return A point-in-time copy of the counters, keyed by name.
+     */
+    public static Map<String, Long> getHttpResilienceMetrics() {
+        return CircuitBreakers.getMetrics().snapshot();
+    }
+
+    /**
+     * Gets counters describing connections opened ahead of time to the configured authority
+     * hosts: hosts kept warm, pre-connects, failures, and the cumulative time the pre-connects
+     * took.
+     *
+     * @return A point-in-time copy of the counters, keyed by name; empty if no application enabled
+     * authority_preconnect_enabled.
+     */
+    public static Map<String, Long> getPreconnectMetrics() {
+        synchronized (PublicClientApplication.class) {
+            if (null == sAuthorityPreconnector) {
+                return Collections.emptyMap();
+            }
+
+            return sAuthorityPreconnector.getMetrics();
+        }
+    }
+
+    /**
+     * Stops keeping the configured authority hosts warm: connections are no longer opened again
+     * when the device reconnects to a network. Applications created afterwards with
+     * authority_preconnect_enabled start it again.
+     */
+    public static void stopAuthorityPreconnect() {
+        synchronized (PublicClientApplication.class) {
+            if (null != sAuthorityPreconnector) {
+                sAuthorityPreconnector.unregisterNetworkChangeReceiver();
+            }
+        }
+    }
+
+    private static synchronized AuthorityPreconnector getAuthorityPreconnector(@NonNull final Context context) {
+        if (null == sAuthorityPreconnector) {
+            sAuthorityPreconnector = new AuthorityPreconnector(context, sBackgroundExecutor);
+        }
+
+        return sAuthorityPreconnector;
+    }
+
     /**
      * Presents an activity that includes the package name, signature, redirect URI and manifest entry required for your application
      *
@@ -1389,6 +2000,7 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                             publicApiId
                     );
 
+                    awaitInitialization();
                     CommandDispatcher.beginInteractive(command);
                 } catch (final Exception exception) {
                     // convert exception to BaseException
@@ -1429,15 +2041,232 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
     }
 
     @Override
-    public void acquireTokenSilentAsync(
+    public ICancellable acquireTokenSilentAsync(
             @NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters) {
-        acquireTokenSilentAsyncInternal(acquireTokenSilentParameters, PublicApiId.PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
+        return acquireTokenSilentAsyncInternal(acquireTokenSilentParameters, PublicApiId.PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
+    }
+
+    @Override
+    public ICancellable acquireTokenForClaimsChallengeAsync(
+            @NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+            @NonNull final String wwwAuthenticateHeaderValue) {
+        final String methodName = ":acquireTokenForClaimsChallengeAsync";
+        final SilentAuthenticationCallback callerCallback =
+                ForwardingSilentAuthenticationCallback.unwrap(acquireTokenSilentParameters.getCallback());
+        validateNonNullArgument(callerCallback, NONNULL_CONSTANTS.CALLBACK);
+
+        final ClaimsRequest challengedClaims;
+
+        try {
+            challengedClaims = getChallengedClaims(wwwAuthenticateHeaderValue);
+        } catch (final RuntimeException e) {
+            // The header comes from the resource server: report a malformed one through the callback.
+            com.microsoft.identity.common.internal.logging.Logger.warn(
+                    TAG + methodName,
+                    "Unable to parse the WWW-Authenticate header: " + e.getMessage()
+            );
+
+            final CancellableOperation operation =
+                    new CancellableOperation(PublicApiId.PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
+            final MsalClientException exception = new MsalClientException(
+                    MsalClientException.INVALID_PARAMETER,
+                    "Unable to parse the WWW-Authenticate header.",
+                    e
+            );
+
+            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!operation.isCancelled()) {
+                        callerCallback.onError(exception);
+                    }
+                }
+            });
+
+            return operation;
+        }
+
+        final AcquireTokenSilentParameters refreshParameters = buildClaimsChallengeParameters(
+                acquireTokenSilentParameters,
+                challengedClaims
+        );
+        final String homeAccountId = refreshParameters.getAccount() instanceof MultiTenantAccount
+                ? ((MultiTenantAccount) refreshParameters.getAccount()).getHomeAccountId()
+                : null;
+        final String silentRequestKey = getSilentRequestKey(refreshParameters, homeAccountId);
+
+        if (null == silentRequestKey) {
+            // The request cannot be keyed, so it is not shared; validation reports what is missing.
+            refreshParameters.setCallback(callerCallback);
+            return acquireTokenSilentAsyncInternal(refreshParameters, PublicApiId.PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
+        }
+
+        final ClaimsChallengeCoalescer.Ticket ticket = sClaimsChallengeCoalescer.submit(
+                silentRequestKey + COMMAND_RESULT_KEY_DELIMITER + getAuthenticationSchemeKey(refreshParameters),
+                callerCallback
+        );
+        final IAuthenticationResult reusedResult = ticket.getReusedResult();
+
+        if (null != reusedResult) {
+            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!ticket.isCancelled()) {
+                        callerCallback.onSuccess(reusedResult);
+                    }
+                }
+            });
+        } else if (ticket.isLeader()) {
+            com.microsoft.identity.common.internal.logging.Logger.info(
+                    TAG + methodName,
+                    "Refreshing the token for a claims challenge."
+            );
+            refreshParameters.setCallback(ticket.getCallback());
+            ticket.setOperation(
+                    acquireTokenSilentAsyncInternal(refreshParameters, PublicApiId.PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS)
+            );
+        }
+
+        return ticket;
+    }
+
+    /**
+     * @param wwwAuthenticateHeaderValue The WWW-Authenticate header of a resource response.
+     * @return The claims request of the first challenge carrying one, or null if there is none.
+     */
+    @Nullable
+    private static ClaimsRequest getChallengedClaims(@Nullable final String wwwAuthenticateHeaderValue) {
+        for (final AuthenticationChallenge challenge : WWWAuthenticateHeader.parse(wwwAuthenticateHeaderValue)) {
+            final ClaimsRequest claimsRequest = challenge.getClaimsRequest();
+
+            if (null != claimsRequest) {
+                return claimsRequest;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Copies the parameters of the original request into a forced refresh. The challenged claims
+     * replace those of the original request; without any, the original claims are kept.
+     */
+    private static AcquireTokenSilentParameters buildClaimsChallengeParameters(
+            @NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+            @Nullable final ClaimsRequest challengedClaims) {
+        final AcquireTokenSilentParameters.Builder builder = new AcquireTokenSilentParameters.Builder()
+                .forAccount(acquireTokenSilentParameters.getAccount())
+                .fromAuthority(acquireTokenSilentParameters.getAuthority())
+                .withClaims(null != challengedClaims ? challengedClaims : acquireTokenSilentParameters.getClaimsRequest())
+                .forceRefresh(true)
+                .withTimeout(acquireTokenSilentParameters.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+
+        if (null != acquireTokenSilentParameters.getScopes() && !acquireTokenSilentParameters.getScopes().isEmpty()) {
+            builder.withScopes(acquireTokenSilentParameters.getScopes());
+        }
+
+        if (null != acquireTokenSilentParameters.getAuthenticationScheme()) {
+            builder.withAuthenticationScheme(acquireTokenSilentParameters.getAuthenticationScheme());
+        }
+
+        if (null != acquireTokenSilentParameters.getCorrelationId()) {
+            builder.withCorrelationId(UUID.fromString(acquireTokenSilentParameters.getCorrelationId()));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * PoP tokens are signed for one request, so only challenges raised for the same request share one.
+     */
+    private static String getAuthenticationSchemeKey(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters) {
+        final AuthenticationScheme scheme = acquireTokenSilentParameters.getAuthenticationScheme();
+
+        if (scheme instanceof PoPAuthenticationScheme) {
+            final PoPAuthenticationScheme popScheme = (PoPAuthenticationScheme) scheme;
+            return popScheme.getName()
+                    + COMMAND_RESULT_KEY_DELIMITER + popScheme.getHttpMethod()
+                    + COMMAND_RESULT_KEY_DELIMITER + popScheme.getUrl()
+                    + COMMAND_RESULT_KEY_DELIMITER + popScheme.getNonce();
+        }
+
+        return null == scheme ? "" : scheme.getName();
     }
 
-    void acquireTokenSilentAsyncInternal(
+    ICancellable acquireTokenSilentAsyncInternal(
             @NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
             @NonNull final String publicApiId) {
-        sBackgroundExecutor.submit(new Runnable() {
+        final CancellableOperation operation = new CancellableOperation(publicApiId);
+        final DeadlineSilentAuthenticationCallback deadlineCallback;
+        final String homeAccountId = acquireTokenSilentParameters.getAccount() instanceof MultiTenantAccount
+                ? ((MultiTenantAccount) acquireTokenSilentParameters.getAccount()).getHomeAccountId()
+                : null;
+        final String silentRequestKey = getSilentRequestKey(acquireTokenSilentParameters, homeAccountId);
+        final String commandResultKey = isCommandResultCacheable(CommandResultCacheConfiguration.Commands.ACQUIRE_TOKEN_SILENT)
+                ? getCommandResultKey(acquireTokenSilentParameters, silentRequestKey)
+                : null;
+        final SilentAuthenticationCallback resultCallback;
+
+        // Strip decorators left by a previous submission of the same parameters.
+        final SilentAuthenticationCallback callerCallback =
+                ForwardingSilentAuthenticationCallback.unwrap(acquireTokenSilentParameters.getCallback());
+
+        if (null != callerCallback) {
+            // Cancellation sits closest to the caller, so that nothing - not even the timeout -
+            // reaches a cancelled request's callback.
+            final SilentAuthenticationCallback cancellableCallback =
+                    new CancellableSilentAuthenticationCallback(callerCallback, operation);
+
+            if (acquireTokenSilentParameters.getTimeoutMillis() > 0) {
+                deadlineCallback = new DeadlineSilentAuthenticationCallback(
+                        cancellableCallback,
+                        Deadline.after(acquireTokenSilentParameters.getTimeoutMillis(), TimeUnit.MILLISECONDS)
+                );
+                deadlineCallback.schedule(sTimeoutScheduler);
+                resultCallback = deadlineCallback;
+            } else {
+                deadlineCallback = null;
+                resultCallback = cancellableCallback;
+            }
+
+            // Network failures are answered from the cache within the offline grace period.
+            final SilentAuthenticationCallback graceCallback = isOfflineGraceApplicable(acquireTokenSilentParameters)
+                    ? new OfflineGraceSilentAuthenticationCallback(
+                    resultCallback,
+                    sBackgroundExecutor,
+                    new OfflineGraceSilentAuthenticationCallback.StaleResultSource() {
+                        @Override
+                        public IAuthenticationResult getStaleResult() {
+                            return getOfflineGraceResult(acquireTokenSilentParameters, silentRequestKey);
+                        }
+                    })
+                    : resultCallback;
+
+            // The caches and the circuit breaker observe every outcome,
+            // even those the caller no longer wants.
+            final SilentAuthenticationCallback observedCallback = new NegativeResultSilentAuthenticationCallback(
+                    new CircuitBreakerSilentAuthenticationCallback(
+                            graceCallback,
+                            acquireTokenSilentParameters,
+                            CircuitBreakers.get()
+                    ),
+                    sNegativeResultCache,
+                    silentRequestKey,
+                    homeAccountId,
+                    TimeUnit.SECONDS.toMillis(mPublicClientConfiguration.getNegativeResultCacheTtl())
+            );
+
+            acquireTokenSilentParameters.setCallback(
+                    null == commandResultKey
+                            ? observedCallback
+                            : new CachingSilentAuthenticationCallback(observedCallback, mCommandResultCache, commandResultKey)
+            );
+        } else {
+            deadlineCallback = null;
+            resultCallback = null;
+        }
+
+        operation.setFuture(sBackgroundExecutor.submit(new Runnable() {
             @Override
             public void run() {
                 final CommandCallback callback = getCommandCallback(
@@ -1446,8 +2275,66 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                 );
 
                 try {
+                    if (null != deadlineCallback && !deadlineCallback.checkDeadline("validation")) {
+                        return;
+                    }
+
                     validateAcquireTokenSilentParameters(acquireTokenSilentParameters);
 
+                    if (null != commandResultKey && null != resultCallback) {
+                        final IAuthenticationResult cachedResult =
+                                mCommandResultCache.get(commandResultKey, IAuthenticationResult.class);
+
+                        if (isServableFromCache(cachedResult)) {
+                            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    resultCallback.onSuccess(cachedResult);
+                                }
+                            });
+                            return;
+                        }
+                    }
+
+                    final MsalUiRequiredException cachedFailure = sNegativeResultCache.get(silentRequestKey);
+
+                    if (null != cachedFailure) {
+                        com.microsoft.identity.common.internal.logging.Logger.info(
+                                TAG + ":acquireTokenSilentAsyncInternal",
+                                "The same request recently required user interaction, failing without a network request."
+                        );
+
+                        new Handler(Looper.getMainLooper()).post(new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onError(cachedFailure);
+                            }
+                        });
+                        return;
+                    }
+
+                    // Offline, an expired token cannot be refreshed - do not try.
+                    if (null != resultCallback
+                            && isOfflineGraceApplicable(acquireTokenSilentParameters)
+                            && !ConnectivityRefreshQueue.isNetworkAvailable(mPublicClientConfiguration.getAppContext())) {
+                        final AuthenticationResult staleResult =
+                                getOfflineGraceResult(acquireTokenSilentParameters, silentRequestKey);
+
+                        if (null != staleResult && staleResult.isStale()) {
+                            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    resultCallback.onSuccess(staleResult);
+                                }
+                            });
+                            return;
+                        }
+                    }
+
+                    if (null != deadlineCallback && !deadlineCallback.checkDeadline("account lookup")) {
+                        return;
+                    }
+
                     acquireTokenSilentParameters.setAccountRecord(
                             selectAccountRecordForTokenRequest(
                                     mPublicClientConfiguration,
@@ -1462,6 +2349,26 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                                     acquireTokenSilentParameters
                             );
 
+                    if (null != deadlineCallback && !deadlineCallback.checkDeadline("dispatch")) {
+                        return;
+                    }
+
+                    if (operation.isCancelled()) {
+                        return;
+                    }
+
+                    final String authorityHost =
+                            CircuitBreakerSilentAuthenticationCallback.getAuthorityHost(acquireTokenSilentParameters);
+
+                    if (null != authorityHost
+                            && CircuitBreakerSilentAuthenticationCallback.requiresNetwork(acquireTokenSilentParameters)
+                            && !CircuitBreakers.get().allowRequest(authorityHost)) {
+                        throw new ClientException(
+                                MsalClientException.AUTHORITY_CIRCUIT_OPEN,
+                                "Recent requests to " + authorityHost + " failed, request not sent."
+                        );
+                    }
+
 
                     final SilentTokenCommand silentTokenCommand = new SilentTokenCommand(
                             params,
@@ -1474,6 +2381,7 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                             publicApiId
                     );
 
+                    awaitInitialization();
                     CommandDispatcher.submitSilent(silentTokenCommand);
                 } catch (final Exception exception) {
                     // convert exception to BaseException
@@ -1488,9 +2396,56 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                     });
                 }
             }
-        });
+        }));
+
+        return operation;
+    }
+
+
+    /**
+     * Builds the key of a silent request's result in the {@link CommandResultCache}. Results are
+     * cached per authentication scheme; PoP results are signed for a single request and never reused.
+     *
+     * @param silentRequestKey The key of the request, see {@link #getSilentRequestKey}.
+     * @return The key, or null if the result of the request may not be cached.
+     */
+    @Nullable
+    static String getCommandResultKey(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+                                      @Nullable final String silentRequestKey) {
+        if (null == silentRequestKey
+                || acquireTokenSilentParameters.getForceRefresh()
+                || acquireTokenSilentParameters.getAuthenticationScheme() instanceof PoPAuthenticationScheme) {
+            return null;
+        }
+
+        return CommandResultCacheConfiguration.Commands.ACQUIRE_TOKEN_SILENT
+                + COMMAND_RESULT_KEY_DELIMITER + silentRequestKey
+                + COMMAND_RESULT_KEY_DELIMITER + getAuthenticationSchemeKey(acquireTokenSilentParameters);
     }
 
+    /**
+     * Builds the key of a silent request in the {@link NegativeResultCache} and the
+     * {@link CommandResultCache}.
+     */
+    @Nullable
+    private String getSilentRequestKey(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+                                        @Nullable final String homeAccountId) {
+        String authority = acquireTokenSilentParameters.getAuthority();
+
+        if (TextUtils.isEmpty(authority) && null != mPublicClientConfiguration.getDefaultAuthority()) {
+            authority = mPublicClientConfiguration.getDefaultAuthority().getAuthorityUri().toString();
+        }
+
+        return NegativeResultCache.createKey(
+                mPublicClientConfiguration.getClientId(),
+                homeAccountId,
+                authority,
+                acquireTokenSilentParameters.getScopes(),
+                acquireTokenSilentParameters.getClaimsRequest() == null
+                        ? null
+                        : ClaimsRequest.getJsonStringFromClaimsRequest(acquireTokenSilentParameters.getClaimsRequest())
+        );
+    }
 
     private AccountRecord selectAccountRecordForTokenRequest(
             @NonNull final PublicClientApplicationConfiguration pcaConfig,
@@ -1623,6 +2578,294 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         return acquireTokenSilentInternal(acquireTokenSilentParameters, PublicApiId.PCA_ACQUIRE_TOKEN_SILENT_WITH_PARAMETERS);
     }
 
+    @Override
+    @Nullable
+    public IAuthenticationResult peekCachedToken(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters) {
+        final String methodName = ":peekCachedToken";
+
+        if (!(acquireTokenSilentParameters.getAccount() instanceof MultiTenantAccount)
+                || null == acquireTokenSilentParameters.getScopes()
+                || acquireTokenSilentParameters.getScopes().isEmpty()
+                || acquireTokenSilentParameters.getForceRefresh()
+                || null != acquireTokenSilentParameters.getClaimsRequest()
+                || acquireTokenSilentParameters.getAuthenticationScheme() instanceof PoPAuthenticationScheme) {
+            // Claims have to be evaluated by the server, and PoP tokens have to be signed for each
+            // request: neither can be answered from the cache alone.
+            return null;
+        }
+
+        final MultiTenantAccount multiTenantAccount = (MultiTenantAccount) acquireTokenSilentParameters.getAccount();
+        final String silentRequestKey = getSilentRequestKey(acquireTokenSilentParameters, multiTenantAccount.getHomeAccountId());
+        final String commandResultKey = isCommandResultCacheable(CommandResultCacheConfiguration.Commands.ACQUIRE_TOKEN_SILENT)
+                ? getCommandResultKey(acquireTokenSilentParameters, silentRequestKey)
+                : null;
+
+        // Warm path: a result handed out recently, in memory.
+        if (null != commandResultKey) {
+            final IAuthenticationResult cachedResult = mCommandResultCache.get(commandResultKey, IAuthenticationResult.class);
+
+            if (isServableFromCache(cachedResult)) {
+                return cachedResult;
+            }
+        }
+
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            // Reading the token cache means disk reads and decryption, never on the main thread.
+            // Warm the in-memory cache instead, so that a later call is answered from it.
+            if (null != commandResultKey) {
+                sBackgroundExecutor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        loadPeekResult(acquireTokenSilentParameters, multiTenantAccount, commandResultKey);
+                    }
+                });
+            }
+
+            com.microsoft.identity.common.internal.logging.Logger.verbose(
+                    TAG + methodName,
+                    "No token in memory, the token cache is not read on the main thread."
+            );
+            return null;
+        }
+
+        return loadPeekResult(acquireTokenSilentParameters, multiTenantAccount, commandResultKey);
+    }
+
+    /**
+     * Cold path of {@link #peekCachedToken}: builds the result from the token cache on disk, and
+     * keeps it in memory for later calls. Tokens held by the broker are not visible here.
+     */
+    @Nullable
+    @WorkerThread
+    private IAuthenticationResult loadPeekResult(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+                                                 @NonNull final MultiTenantAccount multiTenantAccount,
+                                                 @Nullable final String commandResultKey) {
+        final ICacheRecord cacheRecord = loadCachedRecord(acquireTokenSilentParameters, multiTenantAccount);
+
+        if (null == cacheRecord) {
+            return null;
+        }
+
+        final IAuthenticationResult result = new AuthenticationResult(
+                Collections.singletonList(cacheRecord),
+                acquireTokenSilentParameters.getCorrelationId()
+        );
+
+        if (!isServableFromCache(result)) {
+            return null;
+        }
+
+        if (null != commandResultKey) {
+            mCommandResultCache.put(commandResultKey, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the access token for a request from the local token cache, whether it has expired or not.
+     *
+     * @return The cache record, or null if the cache holds no token for every requested scope.
+     */
+    @Nullable
+    private ICacheRecord loadCachedRecord(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+                                          @NonNull final MultiTenantAccount multiTenantAccount) {
+        final String methodName = ":loadCachedRecord";
+
+        try {
+            final AccountRecord accountRecord = AccountAdapter.getAccountInternal(
+                    mPublicClientConfiguration.getClientId(),
+                    mPublicClientConfiguration.getOAuth2TokenCache(),
+                    multiTenantAccount.getHomeAccountId(),
+                    getPeekRealm(acquireTokenSilentParameters, multiTenantAccount)
+            );
+
+            if (null == accountRecord) {
+                return null;
+            }
+
+            final ICacheRecord cacheRecord = ((MsalOAuth2TokenCache) mPublicClientConfiguration.getOAuth2TokenCache()).load(
+                    mPublicClientConfiguration.getClientId(),
+                    TextUtils.join(" ", acquireTokenSilentParameters.getScopes()),
+                    accountRecord,
+                    new BearerAuthenticationSchemeInternal()
+            );
+
+            if (null == cacheRecord
+                    || null == cacheRecord.getAccessToken()
+                    || null == cacheRecord.getAccessToken().getTarget()) {
+                return null;
+            }
+
+            final List<String> declinedScopes = AuthenticationResultAdapter.getDeclinedScopes(
+                    ScopeSet.parse(cacheRecord.getAccessToken().getTarget()),
+                    ScopeSet.of(acquireTokenSilentParameters.getScopes())
+            );
+
+            return declinedScopes.isEmpty() ? cacheRecord : null;
+        } catch (final RuntimeException e) {
+            // Never let a cache-only lookup fail the caller - report a miss instead.
+            com.microsoft.identity.common.internal.logging.Logger.warn(
+                    TAG + methodName,
+                    "Unable to read the token cache: " + e.getMessage()
+            );
+            return null;
+        }
+    }
+
+    /**
+     * @return True if the offline grace period is enabled and can apply to the request.
+     */
+    private boolean isOfflineGraceApplicable(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters) {
+        return mPublicClientConfiguration.getOfflineGracePeriod() > 0
+                && acquireTokenSilentParameters.getAccount() instanceof MultiTenantAccount
+                && null != acquireTokenSilentParameters.getScopes()
+                && !acquireTokenSilentParameters.getScopes().isEmpty()
+                && !(acquireTokenSilentParameters.getAuthenticationScheme() instanceof PoPAuthenticationScheme);
+    }
+
+    /**
+     * Gets the cached token for a request which could not reach the network. A token which expired
+     * less than the offline grace period ago is returned flagged as stale, and a refresh is queued
+     * for when connectivity returns.
+     *
+     * @return The cached result, or null if there is none within the grace period.
+     */
+    @Nullable
+    @WorkerThread
+    private AuthenticationResult getOfflineGraceResult(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+                                                       @Nullable final String silentRequestKey) {
+        final String methodName = ":getOfflineGraceResult";
+        final MultiTenantAccount multiTenantAccount = (MultiTenantAccount) acquireTokenSilentParameters.getAccount();
+        final ICacheRecord cacheRecord = loadCachedRecord(acquireTokenSilentParameters, multiTenantAccount);
+
+        if (null == cacheRecord) {
+            return null;
+        }
+
+        final AuthenticationResult result = new AuthenticationResult(
+                Collections.singletonList(cacheRecord),
+                acquireTokenSilentParameters.getCorrelationId()
+        );
+        final long now = System.currentTimeMillis();
+        final long expiresOn = result.getExpiresOnEpochMillis();
+
+        if (expiresOn > now) {
+            return result;
+        }
+
+        if (expiresOn + TimeUnit.SECONDS.toMillis(mPublicClientConfiguration.getOfflineGracePeriod()) <= now) {
+            return null;
+        }
+
+        com.microsoft.identity.common.internal.logging.Logger.warn(
+                TAG + methodName,
+                "Network unavailable, returning a token which expired "
+                        + TimeUnit.MILLISECONDS.toSeconds(now - expiresOn) + " seconds ago."
+        );
+
+        if (null != silentRequestKey) {
+            getOfflineRefreshQueue().enqueue(
+                    silentRequestKey,
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            refreshAfterReconnect(acquireTokenSilentParameters);
+                        }
+                    }
+            );
+        }
+
+        return new AuthenticationResult(
+                Collections.singletonList(cacheRecord),
+                acquireTokenSilentParameters.getCorrelationId(),
+                true
+        );
+    }
+
+    private synchronized ConnectivityRefreshQueue getOfflineRefreshQueue() {
+        if (null == mOfflineRefreshQueue) {
+            mOfflineRefreshQueue = new ConnectivityRefreshQueue(
+                    mPublicClientConfiguration.getAppContext(),
+                    sBackgroundExecutor
+            );
+        }
+
+        return mOfflineRefreshQueue;
+    }
+
+    /**
+     * Refreshes the token served stale for a request, now that connectivity has returned.
+     */
+    private void refreshAfterReconnect(@NonNull final AcquireTokenSilentParameters staleParameters) {
+        final String methodName = ":refreshAfterReconnect";
+        final AcquireTokenSilentParameters.Builder builder = new AcquireTokenSilentParameters.Builder()
+                .forAccount(staleParameters.getAccount())
+                .withScopes(staleParameters.getScopes())
+                .withClaims(staleParameters.getClaimsRequest())
+                .withCallback(new SilentAuthenticationCallback() {
+                    @Override
+                    public void onSuccess(final IAuthenticationResult authenticationResult) {
+                        com.microsoft.identity.common.internal.logging.Logger.info(
+                                TAG + methodName,
+                                "Refreshed a token served during the offline grace period."
+                        );
+                    }
+
+                    @Override
+                    public void onError(final MsalException exception) {
+                        com.microsoft.identity.common.internal.logging.Logger.warn(
+                                TAG + methodName,
+                                "Unable to refresh a token served during the offline grace period: "
+                                        + exception.getErrorCode()
+                        );
+                    }
+                });
+
+        if (!TextUtils.isEmpty(staleParameters.getAuthority())) {
+            builder.fromAuthority(staleParameters.getAuthority());
+        }
+
+        acquireTokenSilentAsyncInternal(builder.build(), PublicApiId.PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
+    }
+
+    /**
+     * Gets the tenant whose token {@link #peekCachedToken} should return: the tenant of the
+     * request's authority if it names one, the account's own tenant otherwise.
+     */
+    @Nullable
+    private String getPeekRealm(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+                                @NonNull final MultiTenantAccount multiTenantAccount) {
+        if (!TextUtils.isEmpty(acquireTokenSilentParameters.getAuthority())) {
+            final Authority authority = Authority.getAuthorityFromAuthorityUrl(acquireTokenSilentParameters.getAuthority());
+
+            if (authority instanceof AzureActiveDirectoryAuthority) {
+                final String tenantId = ((AzureActiveDirectoryAuthority) authority).getAudience().getTenantId();
+
+                if (isUuid(tenantId)) {
+                    return tenantId;
+                }
+            }
+        }
+
+        return multiTenantAccount.getTenantId();
+    }
+
+    /**
+     * @return True if the result holds a token which does not expire soon.
+     */
+    private static boolean isServableFromCache(@Nullable final IAuthenticationResult result) {
+        if (null == result) {
+            return false;
+        }
+
+        final long expiresOn = result instanceof AuthenticationResult
+                ? ((AuthenticationResult) result).getExpiresOnEpochMillis()
+                : result.getExpiresOn().getTime();
+
+        return expiresOn > System.currentTimeMillis() + COMMAND_RESULT_EXPIRY_MARGIN_MILLIS;
+    }
+
     IAuthenticationResult acquireTokenSilentInternal(
             @NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
             @NonNull final String publicApiId)
@@ -1666,7 +2909,7 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         }
     }
 
-    public void acquireTokenWithDeviceCode(@Nullable String[] scopes, @NonNull final DeviceCodeFlowCallback callback) {
+    public ICancellable acquireTokenWithDeviceCode(@Nullable String[] scopes, @NonNull final DeviceCodeFlowCallback callback) {
         // Create a DeviceCodeFlowCommandParameters object that takes in the desired scopes and the callback object
         // Use CommandParametersAdapter
         final DeviceCodeFlowCommandParameters commandParameters = CommandParametersAdapter
@@ -1675,8 +2918,25 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
                         mPublicClientConfiguration.getOAuth2TokenCache(),
                         scopes);
 
+        awaitInitialization();
+
+        if (mPublicClientConfiguration.isScheduledDeviceCodePollingEnabled()) {
+            // Polls are timed by the shared scheduler, no thread is held while the user signs in.
+            final ScheduledDeviceCodeFlow flow = new ScheduledDeviceCodeFlow(
+                    commandParameters,
+                    sTimeoutScheduler,
+                    sBackgroundExecutor
+            );
+            flow.start(getDeviceCodeFlowCommandCallback(callback, flow));
+            return flow;
+        }
+
+        // The command cannot be stopped once submitted: cancelling the operation only drops its
+        // callbacks, the command keeps polling and saves the tokens.
+        final CancellableOperation operation = new CancellableOperation(PublicApiId.DEVICE_CODE_FLOW_WITH_CALLBACK);
+
         // Create a CommandCallback object from the DeviceCodeFlowCallback object
-        final DeviceCodeFlowCommandCallback deviceCodeFlowCommandCallback = getDeviceCodeFlowCommandCallback(callback);
+        final DeviceCodeFlowCommandCallback deviceCodeFlowCommandCallback = getDeviceCodeFlowCommandCallback(callback, operation);
 
         // Create a DeviceCodeFlowCommand object
         // Pass the command parameters, default controller, and command callback
@@ -1689,6 +2949,8 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         );
 
         CommandDispatcher.submitSilent(deviceCodeFlowCommand);
+
+        return operation;
     }
 
     private void checkInternetPermission() {
@@ -1762,15 +3024,24 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
         };
     }
 
-    private DeviceCodeFlowCommandCallback getDeviceCodeFlowCommandCallback(@NonNull final DeviceCodeFlowCallback callback) {
+    private DeviceCodeFlowCommandCallback getDeviceCodeFlowCommandCallback(@NonNull final DeviceCodeFlowCallback callback,
+                                                                           @NonNull final ICancellable operation) {
         return new DeviceCodeFlowCommandCallback<LocalAuthenticationResult, BaseException>() {
             @Override
             public void onUserCodeReceived(@NonNull String vUri, @NonNull String userCode, @NonNull String message) {
+                if (operation.isCancelled()) {
+                    return;
+                }
+
                 callback.onUserCodeReceived(vUri, userCode, message);
             }
 
             @Override
             public void onTaskCompleted(LocalAuthenticationResult tokenResult) {
+                if (operation.isCancelled()) {
+                    return;
+                }
+
                 // Convert tokenResult to an AuthenticationResult object
                 final IAuthenticationResult convertedResult = AuthenticationResultAdapter.adapt(
                         tokenResult);
@@ -1783,6 +3054,10 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
 
             @Override
             public void onError(BaseException error) {
+                if (operation.isCancelled()) {
+                    return;
+                }
+
                 final MsalException msalException;
 
                 if (error instanceof ServiceException) {
@@ -1805,8 +3080,8 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
 
             @Override
             public void onCancel() {
-                // Do nothing
-                // No current plans for allowing cancellation of DCF
+                // Cancellation is requested by the caller through the returned ICancellable, which
+                // suppresses every further callback.
             }
         };
     }
@@ -1822,6 +3097,24 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
             throw new IllegalStateException(NONNULL_CONSTANTS.CALLBACK + NONNULL_CONSTANTS.NULL_ERROR_SUFFIX);
         }
 
+        // A token was issued for the account, requests which required interaction may succeed now.
+        final ICacheRecord cacheRecord = localAuthenticationResult.getCacheRecordWithTenantProfileData();
+
+        if (null != cacheRecord && null != cacheRecord.getAccount()) {
+            final String homeAccountId = cacheRecord.getAccount().getHomeAccountId();
+            sNegativeResultCache.invalidate(homeAccountId);
+
+            // The token supersedes the results cached for the account. Forced refreshes, claims
+            // and interactive requests do not cache their result, so they must not leave the old one
+            // behind; a cacheable silent request caches its result once this returns.
+            removeCachedSilentResults(homeAccountId);
+        }
+
+        // An interactive request may have added an account.
+        if (requestParameters instanceof AcquireTokenParameters && null != mCommandResultCache) {
+            mCommandResultCache.remove(CommandResultCacheConfiguration.Commands.GET_ACCOUNTS);
+        }
+
         // Check if any of the requested scopes are declined by the server, if yes throw a MsalDeclinedScope exception
         final List<String> declinedScopes = AuthenticationResultAdapter.getDeclinedScopes(
                 Arrays.asList(localAuthenticationResult.getScope()),
@@ -1843,7 +3136,8 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
     }
 
     private OAuth2TokenCache<?, ?, ?> getOAuth2TokenCache() {
-        return MsalOAuth2TokenCache.create(mPublicClientConfiguration.getAppContext());
+        // Shared between every application in the process, see SharedResourceRegistry.
+        return mPublicClientConfiguration.getOAuth2TokenCache();
     }
 
     protected class AccountMatcher {
@@ -2012,7 +3306,7 @@ public class PublicClientApplication implements IPublicClientApplication, IToken
             callback.onMigrationFinished(0);
         } else {
             // Create the SharedPreferencesFileManager for the legacy accounts/credentials
-            final IStorageHelper storageHelper = new StorageHelper(mPublicClientConfiguration.getAppContext());
+            final IStorageHelper storageHelper = SharedResourceRegistry.getStorageHelper(mPublicClientConfiguration.getAppContext());
             final ISharedPreferencesFileManager sharedPreferencesFileManager =
                     new SharedPreferencesFileManager(
                             mPublicClientConfiguration.getAppContext(),
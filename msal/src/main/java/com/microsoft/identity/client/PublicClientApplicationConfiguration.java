@@ -34,6 +34,7 @@ import androidx.annotation.VisibleForTesting;
 
 import com.google.gson.annotations.SerializedName;
 import com.microsoft.identity.client.configuration.AccountMode;
+import com.microsoft.identity.client.configuration.CommandResultCacheConfiguration;
 import com.microsoft.identity.client.configuration.HttpConfiguration;
 import com.microsoft.identity.client.configuration.LoggerConfiguration;
 import com.microsoft.identity.client.exception.MsalClientException;
@@ -58,10 +59,17 @@ import javax.crypto.SecretKey;
 
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.ACCOUNT_MODE;
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.AUTHORITIES;
+import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.AUTHORITY_PRECONNECT_ENABLED;
+import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.SCHEDULED_DEVICE_CODE_POLLING_ENABLED;
+import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.POP_KEY_PREGENERATION_ENABLED;
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.AUTHORIZATION_USER_AGENT;
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.BROWSER_SAFE_LIST;
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.CLIENT_CAPABILITIES;
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.CLIENT_ID;
+import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.COMMAND_RESULT_CACHE;
+import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.DEVICE_MODE_CACHE_TTL;
+import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.NEGATIVE_RESULT_CACHE_TTL;
+import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.OFFLINE_GRACE_PERIOD;
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.ENVIRONMENT;
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.HTTP;
 import static com.microsoft.identity.client.PublicClientApplicationConfiguration.SerializedNames.LOGGING;
@@ -97,6 +105,13 @@ public class PublicClientApplicationConfiguration {
         static final String WEB_VIEW_ZOOM_CONTROLS_ENABLED = "web_view_zoom_controls_enabled";
         static final String WEB_VIEW_ZOOM_ENABLED = "web_view_zoom_enabled";
         static final String POWER_OPT_CHECK_FOR_NETWORK_REQUEST_ENABLED = "power_opt_check_for_network_req_enabled";
+        static final String DEVICE_MODE_CACHE_TTL = "device_mode_cache_ttl";
+        static final String NEGATIVE_RESULT_CACHE_TTL = "negative_result_cache_ttl";
+        static final String COMMAND_RESULT_CACHE = "command_result_cache";
+        static final String OFFLINE_GRACE_PERIOD = "offline_grace_period";
+        static final String AUTHORITY_PRECONNECT_ENABLED = "authority_preconnect_enabled";
+        static final String SCHEDULED_DEVICE_CODE_POLLING_ENABLED = "scheduled_device_code_polling_enabled";
+        static final String POP_KEY_PREGENERATION_ENABLED = "pop_key_pregeneration_enabled";
 
     }
 
@@ -151,6 +166,27 @@ public class PublicClientApplicationConfiguration {
     @SerializedName(POWER_OPT_CHECK_FOR_NETWORK_REQUEST_ENABLED)
     private Boolean powerOptCheckEnabled;
 
+    @SerializedName(DEVICE_MODE_CACHE_TTL)
+    private Long mDeviceModeCacheTtl;
+
+    @SerializedName(NEGATIVE_RESULT_CACHE_TTL)
+    private Long mNegativeResultCacheTtl;
+
+    @SerializedName(COMMAND_RESULT_CACHE)
+    private CommandResultCacheConfiguration mCommandResultCacheConfiguration;
+
+    @SerializedName(OFFLINE_GRACE_PERIOD)
+    private Long mOfflineGracePeriod;
+
+    @SerializedName(AUTHORITY_PRECONNECT_ENABLED)
+    private Boolean mAuthorityPreconnectEnabled;
+
+    @SerializedName(SCHEDULED_DEVICE_CODE_POLLING_ENABLED)
+    private Boolean mScheduledDeviceCodePollingEnabled;
+
+    @SerializedName(POP_KEY_PREGENERATION_ENABLED)
+    private Boolean mPopKeyPregenerationEnabled;
+
     transient private OAuth2TokenCache mOAuth2TokenCache;
 
     transient private Context mAppContext;
@@ -364,6 +400,83 @@ public class PublicClientApplicationConfiguration {
         this.powerOptCheckEnabled = powerOptCheckEnabled;
     }
 
+    /**
+     * Gets the number of seconds for which a previously retrieved device mode may be used to create
+     * the application without waiting for the broker. A value of 0 disables the cache.
+     *
+     * @return The device mode cache time-to-live, in seconds.
+     */
+    public long getDeviceModeCacheTtl() {
+        return mDeviceModeCacheTtl == null ? 0 : mDeviceModeCacheTtl;
+    }
+
+    /**
+     * Gets the number of seconds for which a silent request that failed because user interaction
+     * is required fails again immediately, unless the account signs in or a family refresh token
+     * is imported in the meantime. The cache is disabled by default (a value of 0).
+     *
+     * @return The negative result cache time-to-live, in seconds.
+     */
+    public long getNegativeResultCacheTtl() {
+        return mNegativeResultCacheTtl == null ? 0 : mNegativeResultCacheTtl;
+    }
+
+    /**
+     * Gets the configuration of the cache of recent command results.
+     *
+     * @return The command result cache configuration, or null if the cache is disabled.
+     */
+    public CommandResultCacheConfiguration getCommandResultCacheConfiguration() {
+        return mCommandResultCacheConfiguration;
+    }
+
+    /**
+     * Gets the number of seconds after its expiration for which a cached access token is still
+     * returned, flagged as stale (see {@link AuthenticationResult#isStale()}), when it cannot be
+     * refreshed because the network is unavailable.
+     * A value of 0 disables the offline grace period.
+     *
+     * @return The offline grace period, in seconds.
+     */
+    public long getOfflineGracePeriod() {
+        return mOfflineGracePeriod == null ? 0 : mOfflineGracePeriod;
+    }
+
+    /**
+     * Gets whether connections to the hosts of the configured authorities should be opened in the
+     * background when the application is created and whenever the device reconnects, so that the
+     * first token request does not pay for DNS, TCP and TLS setup.
+     *
+     * @return True if authority pre-connect is enabled.
+     */
+    public boolean isAuthorityPreconnectEnabled() {
+        return mAuthorityPreconnectEnabled != null && mAuthorityPreconnectEnabled;
+    }
+
+    /**
+     * Gets whether the device code flow polls the token endpoint from a shared scheduler, holding
+     * no thread between polls and supporting cancellation, instead of running as a command on the
+     * silent request pool. The scheduled flow requests tokens directly, bypassing the broker and
+     * command telemetry. Only the scheduled flow stops polling when cancelled; the command keeps
+     * polling and saves the tokens, and cancelling it only drops the callbacks.
+     *
+     * @return True if scheduled device code polling is enabled.
+     */
+    public boolean isScheduledDeviceCodePollingEnabled() {
+        return mScheduledDeviceCodePollingEnabled != null && mScheduledDeviceCodePollingEnabled;
+    }
+
+    /**
+     * Gets whether the PoP key should be generated on a low-priority background thread when the
+     * application is created, if it does not exist yet, so that the first PoP token request does
+     * not pay for key generation. Has no effect when requests go through the broker.
+     *
+     * @return True if PoP key pre-generation is enabled.
+     */
+    public boolean isPopKeyPregenerationEnabled() {
+        return mPopKeyPregenerationEnabled != null && mPopKeyPregenerationEnabled;
+    }
+
     public Authority getDefaultAuthority() {
         if (mAuthorities != null) {
             if (mAuthorities.size() > 1) {
@@ -435,6 +548,13 @@ public class PublicClientApplicationConfiguration {
         this.webViewZoomControlsEnabled = config.webViewZoomControlsEnabled == null || config.webViewZoomControlsEnabled;
         this.webViewZoomEnabled = config.webViewZoomEnabled == null || config.webViewZoomEnabled;
         this.powerOptCheckEnabled = config.powerOptCheckEnabled == null || config.powerOptCheckEnabled;
+        this.mDeviceModeCacheTtl = config.mDeviceModeCacheTtl == null ? this.mDeviceModeCacheTtl : config.mDeviceModeCacheTtl;
+        this.mNegativeResultCacheTtl = config.mNegativeResultCacheTtl == null ? this.mNegativeResultCacheTtl : config.mNegativeResultCacheTtl;
+        this.mCommandResultCacheConfiguration = config.mCommandResultCacheConfiguration == null ? this.mCommandResultCacheConfiguration : config.mCommandResultCacheConfiguration;
+        this.mOfflineGracePeriod = config.mOfflineGracePeriod == null ? this.mOfflineGracePeriod : config.mOfflineGracePeriod;
+        this.mAuthorityPreconnectEnabled = config.mAuthorityPreconnectEnabled == null ? this.mAuthorityPreconnectEnabled : config.mAuthorityPreconnectEnabled;
+        this.mScheduledDeviceCodePollingEnabled = config.mScheduledDeviceCodePollingEnabled == null ? this.mScheduledDeviceCodePollingEnabled : config.mScheduledDeviceCodePollingEnabled;
+        this.mPopKeyPregenerationEnabled = config.mPopKeyPregenerationEnabled == null ? this.mPopKeyPregenerationEnabled : config.mPopKeyPregenerationEnabled;
     }
 
     void validateConfiguration() {
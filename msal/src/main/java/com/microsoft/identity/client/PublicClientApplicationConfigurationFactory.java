@@ -32,12 +32,12 @@ import androidx.annotation.WorkerThread;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.microsoft.identity.client.internal.SharedResourceRegistry;
 import com.microsoft.identity.client.internal.configuration.LogLevelDeserializer;
 import com.microsoft.identity.common.internal.authorities.Authority;
 import com.microsoft.identity.common.internal.authorities.AuthorityDeserializer;
 import com.microsoft.identity.common.internal.authorities.AzureActiveDirectoryAudience;
 import com.microsoft.identity.common.internal.authorities.AzureActiveDirectoryAudienceDeserializer;
-import com.microsoft.identity.common.internal.cache.MsalOAuth2TokenCache;
 import com.microsoft.identity.msal.R;
 
 import java.io.File;
@@ -91,7 +91,7 @@ public class PublicClientApplicationConfigurationFactory {
             config.validateConfiguration();
         }
 
-        config.setOAuth2TokenCache(MsalOAuth2TokenCache.create(context));
+        config.setOAuth2TokenCache(SharedResourceRegistry.getTokenCache(context));
         return config;
     }
 
@@ -0,0 +1,377 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client;
+
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.microsoft.identity.client.exception.MsalClientException;
+import com.microsoft.identity.client.internal.PopKeyHandleCache;
+import com.microsoft.identity.common.exception.ClientException;
+import com.microsoft.identity.common.internal.platform.IDevicePopManager;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mints signed HTTP requests (SHRs) for a PoP access token at a high rate.
+ * <p>
+ * Everything which does not change between requests is computed once: the JWS header and the
+ * constant claims of the source SHR (the access token, the confirmation and any other claim, such
+ * as client_claims), already base64url-encoded, and the loaded signing key. Minting an SHR then
+ * only encodes and signs the per-request claims: timestamp, method, host, path and nonce. The
+ * query (q) and header (h) hashes of the source SHR are request-specific, so they are not carried
+ * over and not signed.
+ * <p>
+ * A key with an explicit alias is signed with directly, one signing operation per batch. The
+ * default key is only reachable through its {@link IDevicePopManager}, which signs one SHR at a
+ * time.
+ * <p>
+ * The key must be held by this application, not the broker.
+ */
+public final class SignedHttpRequestGenerator {
+
+    private static final String POP_SCHEME = "PoP";
+    private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+    private static final String UTF_8 = "UTF-8";
+    private static final int BASE64_URL_FLAGS = Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING;
+
+    private static final String CLAIM_ACCESS_TOKEN = "at";
+    private static final String CLAIM_CONFIRMATION = "cnf";
+    private static final String CLAIM_TIMESTAMP = "ts";
+    private static final String CLAIM_METHOD = "m";
+    private static final String CLAIM_HOST = "u";
+    private static final String CLAIM_PATH = "p";
+    private static final String CLAIM_NONCE = "nonce";
+    private static final String CLAIM_QUERY_HASH = "q";
+    private static final String CLAIM_HEADER_HASH = "h";
+
+    /**
+     * Claims of the source SHR which only held for the request it was minted for.
+     */
+    private static final Set<String> PER_REQUEST_CLAIMS = new HashSet<>(Arrays.asList(
+            CLAIM_TIMESTAMP,
+            CLAIM_METHOD,
+            CLAIM_HOST,
+            CLAIM_PATH,
+            CLAIM_NONCE,
+            CLAIM_QUERY_HASH,
+            CLAIM_HEADER_HASH
+    ));
+
+    private static final char JWS_DELIMITER = '.';
+
+    private final PrivateKey mPrivateKey;
+    private final IDevicePopManager mDevicePopManager;
+
+    // The header and the constant claims, encoded: "<header>.<claims prefix>".
+    private final String mSigningInputPrefix;
+    private final byte[] mSigningInputPrefixBytes;
+
+    /**
+     * A request to mint an SHR for.
+     */
+    public static final class Request {
+
+        private final HttpMethod mMethod;
+        private final URL mUrl;
+        private final String mNonce;
+
+        /**
+         * @param method The HTTP method of the request.
+         * @param url    The URL of the request.
+         * @param nonce  The nonce to sign into the SHR, or null.
+         */
+        public Request(@NonNull final HttpMethod method,
+                       @NonNull final URL url,
+                       @Nullable final String nonce) {
+            mMethod = method;
+            mUrl = url;
+            mNonce = nonce;
+        }
+    }
+
+    /**
+     * @param privateKey       The signing key, or null to sign with the manager.
+     * @param devicePopManager The manager of the signing key, used when privateKey is null.
+     * @param encodedHeader    The base64url-encoded JWS header of the source SHR.
+     * @param claims           The claims of the source SHR.
+     */
+    @VisibleForTesting
+    SignedHttpRequestGenerator(@Nullable final PrivateKey privateKey,
+                               @Nullable final IDevicePopManager devicePopManager,
+                               @NonNull final String encodedHeader,
+                               @NonNull final JsonObject claims) throws MsalClientException {
+        final StringBuilder claimsPrefix = new StringBuilder(256).append('{');
+
+        for (final Map.Entry<String, JsonElement> claim : claims.entrySet()) {
+            if (!PER_REQUEST_CLAIMS.contains(claim.getKey())) {
+                claimsPrefix.append(new JsonPrimitive(claim.getKey()).toString()).append(':')
+                        .append(claim.getValue().toString()).append(',');
+            }
+        }
+
+        // base64 encodes 3 bytes at a time: padding the prefix to a multiple of 3 bytes, with
+        // whitespace JSON ignores, lets each SHR append its own encoded claims to it.
+        byte[] claimsPrefixBytes = getBytes(claimsPrefix.toString());
+
+        while (claimsPrefixBytes.length % 3 != 0) {
+            claimsPrefix.append(' ');
+            claimsPrefixBytes = getBytes(claimsPrefix.toString());
+        }
+
+        mPrivateKey = privateKey;
+        mDevicePopManager = devicePopManager;
+        mSigningInputPrefix = encodedHeader + JWS_DELIMITER + encode(claimsPrefixBytes);
+        mSigningInputPrefixBytes = getBytes(mSigningInputPrefix);
+    }
+
+    /**
+     * Creates a generator for the access token of a PoP result.
+     *
+     * @param result A result obtained with a {@link PoPAuthenticationScheme}, without the broker.
+     * @return The generator.
+     * @throws MsalClientException If the result is not a PoP result, or its key cannot be loaded.
+     */
+    @NonNull
+    public static SignedHttpRequestGenerator fromResult(@NonNull final IAuthenticationResult result)
+            throws MsalClientException {
+        if (!POP_SCHEME.equalsIgnoreCase(result.getAuthenticationScheme())) {
+            throw new MsalClientException(
+                    MsalClientException.INVALID_PARAMETER,
+                    "Signed HTTP requests can only be generated for PoP results."
+            );
+        }
+
+        return fromSignedHttpRequest(result.getAccessToken(), null);
+    }
+
+    /**
+     * Creates a generator for the access token of an SHR minted with a local PoP key.
+     *
+     * @param signedHttpRequest An SHR, e.g. the access token of a PoP result.
+     * @param keyAlias          The alias of the key which signed it, or null for the default key.
+     * @return The generator.
+     * @throws MsalClientException If the SHR cannot be parsed, or its key cannot be loaded.
+     */
+    @NonNull
+    public static SignedHttpRequestGenerator fromSignedHttpRequest(@NonNull final String signedHttpRequest,
+                                                                   @Nullable final String keyAlias)
+            throws MsalClientException {
+        final String[] parts = signedHttpRequest.split("\\.");
+
+        if (parts.length != 3) {
+            throw new MsalClientException(MsalClientException.INVALID_PARAMETER, "Malformed signed HTTP request.");
+        }
+
+        final JsonObject claims;
+
+        try {
+            claims = new JsonParser().parse(new String(Base64.decode(parts[1], Base64.URL_SAFE), UTF_8)).getAsJsonObject();
+        } catch (final IllegalArgumentException | IllegalStateException
+                | JsonParseException | UnsupportedEncodingException e) {
+            throw new MsalClientException(MsalClientException.INVALID_PARAMETER, "Malformed signed HTTP request.", e);
+        }
+
+        if (!claims.has(CLAIM_ACCESS_TOKEN) || !claims.has(CLAIM_CONFIRMATION)) {
+            throw new MsalClientException(
+                    MsalClientException.INVALID_PARAMETER,
+                    "The signed HTTP request carries no access token or confirmation."
+            );
+        }
+
+        try {
+            final PopKeyHandleCache.Handle handle = PopKeyHandleCache.get(keyAlias);
+
+            if (null == handle) {
+                throw new MsalClientException(MsalClientException.UNKNOWN_ERROR, "The PoP key does not exist.");
+            }
+
+            if (null == keyAlias) {
+                return new SignedHttpRequestGenerator(null, handle.getDevicePopManager(), parts[0], claims);
+            }
+
+            return new SignedHttpRequestGenerator(
+                    handle.getPrivateKeyEntry().getPrivateKey(),
+                    null,
+                    parts[0],
+                    claims
+            );
+        } catch (final ClientException e) {
+            throw new MsalClientException(e.getErrorCode(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Mints an SHR for a request, signed with the current time.
+     *
+     * @param method The HTTP method of the request.
+     * @param url    The URL of the request.
+     * @param nonce  The nonce to sign into the SHR, or null.
+     * @return The SHR, to send as "PoP &lt;SHR&gt;" in the Authorization header.
+     */
+    @NonNull
+    public String generate(@NonNull final HttpMethod method,
+                           @NonNull final URL url,
+                           @Nullable final String nonce) throws MsalClientException {
+        return generate(Collections.singletonList(new Request(method, url, nonce))).get(0);
+    }
+
+    /**
+     * Mints the SHRs of many requests at once, signed with the current time. When signing with
+     * the key directly, the signing operation is set up once for the whole batch.
+     *
+     * @param requests The requests.
+     * @return The SHRs, in the order of the requests.
+     */
+    @NonNull
+    public List<String> generate(@NonNull final List<Request> requests) throws MsalClientException {
+        final long timestamp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        final List<String> signedHttpRequests = new ArrayList<>(requests.size());
+
+        try {
+            Signature signature = null;
+
+            if (null != mPrivateKey) {
+                signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+                signature.initSign(mPrivateKey);
+            }
+
+            for (final Request request : requests) {
+                signedHttpRequests.add(mint(signature, request, timestamp));
+            }
+        } catch (final GeneralSecurityException e) {
+            throw new MsalClientException(MsalClientException.UNKNOWN_ERROR, "Failed to sign the request.", e);
+        }
+
+        return signedHttpRequests;
+    }
+
+    @NonNull
+    private String mint(@Nullable final Signature signature,
+                        @NonNull final Request request,
+                        final long timestamp) throws GeneralSecurityException, MsalClientException {
+        final StringBuilder claims = new StringBuilder(128);
+        appendName(claims, CLAIM_TIMESTAMP).append(timestamp).append(',');
+        appendString(claims, CLAIM_METHOD, request.mMethod.name()).append(',');
+        appendString(claims, CLAIM_HOST, request.mUrl.getHost()).append(',');
+        appendString(claims, CLAIM_PATH, request.mUrl.getPath());
+
+        if (null != request.mNonce) {
+            claims.append(',');
+            appendString(claims, CLAIM_NONCE, request.mNonce);
+        }
+
+        final String encodedClaims = encode(getBytes(claims.append('}').toString()));
+        final byte[] signatureBytes;
+
+        if (null == signature) {
+            signatureBytes = signWithManager(mSigningInputPrefix + encodedClaims);
+        } else {
+            // Signing leaves the signature ready for the next request.
+            signature.update(mSigningInputPrefixBytes);
+            signature.update(getBytes(encodedClaims));
+            signatureBytes = signature.sign();
+        }
+
+        return mSigningInputPrefix + encodedClaims + JWS_DELIMITER + encode(signatureBytes);
+    }
+
+    @NonNull
+    private byte[] signWithManager(@NonNull final String signingInput) throws MsalClientException {
+        final String encodedSignature;
+
+        try {
+            encodedSignature = mDevicePopManager.sign(
+                    IDevicePopManager.SigningAlgorithm.SHA_256_WITH_RSA,
+                    signingInput
+            );
+        } catch (final ClientException e) {
+            throw new MsalClientException(e.getErrorCode(), e.getMessage(), e);
+        }
+
+        // Accept either base64 alphabet, the SHR needs the signature base64url-encoded.
+        try {
+            return Base64.decode(encodedSignature.replace('-', '+').replace('_', '/'), Base64.DEFAULT);
+        } catch (final IllegalArgumentException e) {
+            throw new MsalClientException(MsalClientException.UNKNOWN_ERROR, "Failed to sign the request.", e);
+        }
+    }
+
+    private static StringBuilder appendName(@NonNull final StringBuilder json, @NonNull final String name) {
+        return json.append('"').append(name).append("\":");
+    }
+
+    private static StringBuilder appendString(@NonNull final StringBuilder json,
+                                              @NonNull final String name,
+                                              @NonNull final String value) {
+        appendName(json, name).append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+
+        return json.append('"');
+    }
+
+    @NonNull
+    private static String encode(@NonNull final byte[] bytes) {
+        return Base64.encodeToString(bytes, BASE64_URL_FLAGS);
+    }
+
+    @NonNull
+    private static byte[] getBytes(@NonNull final String value) throws MsalClientException {
+        try {
+            return value.getBytes(UTF_8);
+        } catch (final UnsupportedEncodingException e) {
+            throw new MsalClientException(MsalClientException.UNKNOWN_ERROR, e.getMessage(), e);
+        }
+    }
+}
@@ -32,10 +32,11 @@ import androidx.annotation.WorkerThread;
 import com.microsoft.identity.client.exception.MsalClientException;
 import com.microsoft.identity.client.exception.MsalException;
 import com.microsoft.identity.client.internal.AsyncResult;
+import com.microsoft.identity.client.internal.CancellableOperation;
 import com.microsoft.identity.client.internal.CommandParametersAdapter;
+import com.microsoft.identity.client.internal.SharedResourceRegistry;
 import com.microsoft.identity.client.internal.controllers.MSALControllerFactory;
 import com.microsoft.identity.client.internal.controllers.MsalExceptionAdapter;
-import com.microsoft.identity.common.adal.internal.cache.StorageHelper;
 import com.microsoft.identity.common.adal.internal.util.JsonExtensions;
 import com.microsoft.identity.common.adal.internal.util.StringExtensions;
 import com.microsoft.identity.common.exception.BaseException;
@@ -55,7 +56,10 @@ import com.microsoft.identity.common.internal.result.ResultFuture;
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import static com.microsoft.identity.client.exception.MsalClientException.REQUEST_TIMEOUT;
 import static com.microsoft.identity.client.exception.MsalClientException.UNKNOWN_ERROR;
 import static com.microsoft.identity.client.internal.MsalUtils.throwOnMainThread;
 import static com.microsoft.identity.common.internal.eststelemetry.PublicApiId.SINGLE_ACCOUNT_PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS;
@@ -100,7 +104,7 @@ public class SingleAccountPublicClientApplication
         sharedPreferencesFileManager = new SharedPreferencesFileManager(
                 context,
                 SINGLE_ACCOUNT_CREDENTIAL_SHARED_PREFERENCES,
-                new StorageHelper(context)
+                SharedResourceRegistry.getStorageHelper(context)
         );
     }
 
@@ -152,6 +156,7 @@ public class SingleAccountPublicClientApplication
                         publicApiId
                 );
 
+                awaitInitialization();
                 CommandDispatcher.submitSilent(command);
             }
         };
@@ -161,6 +166,11 @@ public class SingleAccountPublicClientApplication
 
     @Override
     public ICurrentAccountResult getCurrentAccount() throws InterruptedException, MsalException {
+        return getCurrentAccount(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ICurrentAccountResult getCurrentAccount(final long timeout, @NonNull final TimeUnit unit) throws InterruptedException, MsalException {
         throwOnMainThread("getCurrentAccount");
 
         final ResultFuture<AsyncResult<CurrentAccountResult>> future = new ResultFuture<>();
@@ -199,13 +209,22 @@ public class SingleAccountPublicClientApplication
         );
 
         try {
-            final AsyncResult<CurrentAccountResult> result = future.get();
+            // A late result still updates the persisted current account.
+            final AsyncResult<CurrentAccountResult> result = timeout > 0
+                    ? future.get(timeout, unit)
+                    : future.get();
 
             if (result.getSuccess()) {
                 return result.getResult();
             } else {
                 throw result.getException();
             }
+        } catch (final TimeoutException e) {
+            throw new MsalClientException(
+                    REQUEST_TIMEOUT,
+                    "The current account was not loaded within " + unit.toMillis(timeout) + "ms.",
+                    e
+            );
         } catch (final ExecutionException e) {
             // Shouldn't be thrown.
             throw new MsalClientException(
@@ -428,6 +447,7 @@ public class SingleAccountPublicClientApplication
                     @Override
                     public void onTaskCompleted(Boolean result) {
                         persistCurrentAccount(null);
+                        invalidateCachedResults(persistedCurrentAccount.getHomeAccountId());
                         callback.onSignOut();
                     }
 
@@ -439,6 +459,7 @@ public class SingleAccountPublicClientApplication
                 publicApiId
         );
 
+        awaitInitialization();
         CommandDispatcher.submitSilent(command);
     }
 
@@ -661,14 +682,14 @@ public class SingleAccountPublicClientApplication
     }
 
     @Override
-    public void acquireTokenSilentAsync(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters) {
+    public ICancellable acquireTokenSilentAsync(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters) {
         final IAccount persistedAccount = getPersistedCurrentAccount();
         if (persistedAccount == null) {
             acquireTokenSilentParameters
                     .getCallback()
                     .onError(new MsalClientException(MsalClientException.NO_CURRENT_ACCOUNT,
                             MsalClientException.NO_CURRENT_ACCOUNT_ERROR_MESSAGE));
-            return;
+            return new CancellableOperation(SINGLE_ACCOUNT_PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
         }
 
         if (!isHomeAccountIdMatching(persistedAccount, acquireTokenSilentParameters.getAccount())) {
@@ -676,15 +697,38 @@ public class SingleAccountPublicClientApplication
                     .getCallback()
                     .onError(new MsalClientException(MsalClientException.CURRENT_ACCOUNT_MISMATCH,
                             MsalClientException.CURRENT_ACCOUNT_MISMATCH_ERROR_MESSAGE));
-            return;
+            return new CancellableOperation(SINGLE_ACCOUNT_PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
         }
 
-        acquireTokenSilentAsyncInternal(
+        return acquireTokenSilentAsyncInternal(
                 acquireTokenSilentParameters,
                 SINGLE_ACCOUNT_PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS
         );
     }
 
+    @Override
+    public ICancellable acquireTokenForClaimsChallengeAsync(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters,
+                                                            @NonNull final String wwwAuthenticateHeaderValue) {
+        final IAccount persistedAccount = getPersistedCurrentAccount();
+        if (persistedAccount == null) {
+            acquireTokenSilentParameters
+                    .getCallback()
+                    .onError(new MsalClientException(MsalClientException.NO_CURRENT_ACCOUNT,
+                            MsalClientException.NO_CURRENT_ACCOUNT_ERROR_MESSAGE));
+            return new CancellableOperation(SINGLE_ACCOUNT_PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
+        }
+
+        if (!isHomeAccountIdMatching(persistedAccount, acquireTokenSilentParameters.getAccount())) {
+            acquireTokenSilentParameters
+                    .getCallback()
+                    .onError(new MsalClientException(MsalClientException.CURRENT_ACCOUNT_MISMATCH,
+                            MsalClientException.CURRENT_ACCOUNT_MISMATCH_ERROR_MESSAGE));
+            return new CancellableOperation(SINGLE_ACCOUNT_PCA_ACQUIRE_TOKEN_SILENT_ASYNC_WITH_PARAMETERS);
+        }
+
+        return super.acquireTokenForClaimsChallengeAsync(acquireTokenSilentParameters, wwwAuthenticateHeaderValue);
+    }
+
     @Override
     public IAuthenticationResult acquireTokenSilent(@NonNull final AcquireTokenSilentParameters acquireTokenSilentParameters) throws InterruptedException, MsalException {
         final IAccount persistedAccount = getPersistedCurrentAccount();
@@ -0,0 +1,94 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client;
+
+import androidx.annotation.NonNull;
+
+import com.microsoft.identity.client.exception.MsalClientException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of exporting or importing the family refresh tokens of several accounts, for
+ * consumption by TSL. Each token is exported or imported on its own, so one failing does not
+ * fail the others: failures are reported per account or entry.
+ */
+public class TokenShareBatchResult {
+
+    private final List<TokenShareResult> mResults = new ArrayList<>();
+    private final Map<String, MsalClientException> mFailures = new LinkedHashMap<>();
+    private int mSuccessCount;
+
+    TokenShareBatchResult() {
+    }
+
+    void addResult(@NonNull final TokenShareResult result) {
+        mResults.add(result);
+        mSuccessCount++;
+    }
+
+    void addSuccess() {
+        mSuccessCount++;
+    }
+
+    void addFailure(@NonNull final String key, @NonNull final MsalClientException exception) {
+        mFailures.put(key, exception);
+    }
+
+    /**
+     * @return The exported refresh tokens with their metadata; empty for an import.
+     */
+    @NonNull
+    public List<TokenShareResult> getResults() {
+        return Collections.unmodifiableList(mResults);
+    }
+
+    /**
+     * @return The number of refresh tokens exported or imported.
+     */
+    public int getSuccessCount() {
+        return mSuccessCount;
+    }
+
+    /**
+     * The failures of the batch. An export keys them by the local account id of the account,
+     * an import by the position of the entry in the imported list.
+     *
+     * @return The failures, in the order they occurred.
+     */
+    @NonNull
+    public Map<String, MsalClientException> getFailures() {
+        return Collections.unmodifiableMap(mFailures);
+    }
+
+    /**
+     * @return True if every refresh token was exported or imported.
+     */
+    public boolean isComplete() {
+        return mFailures.isEmpty();
+    }
+}
@@ -0,0 +1,271 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.claims;
+
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.JsonParseException;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single challenge of a WWW-Authenticate header (RFC 7235 section 4.1): an auth scheme followed by
+ * either a token68 or a list of auth-params, see {@link WWWAuthenticateHeader#parse(String)}.
+ * <p>
+ * A challenge does not copy the header: the scheme, the token68 and every parameter are recorded
+ * as offsets into the header value, and strings are only created when they are read.
+ */
+public final class AuthenticationChallenge {
+
+    /**
+     * The auth-param carrying the claims challenge.
+     */
+    public static final String CLAIMS_PARAMETER = "claims";
+
+    private static final int FIELDS_PER_PARAMETER = 5;
+    private static final int NAME_START = 0;
+    private static final int NAME_END = 1;
+    private static final int VALUE_START = 2;
+    private static final int VALUE_END = 3;
+    private static final int VALUE_ESCAPED = 4;
+
+    private static final char BACKSLASH = '\\';
+
+    private final String mHeader;
+    private int mSchemeStart = -1;
+    private int mSchemeEnd = -1;
+    private int mToken68Start = -1;
+    private int mToken68End = -1;
+    private int[] mParameters = new int[4 * FIELDS_PER_PARAMETER];
+    private int mParameterCount;
+
+    AuthenticationChallenge(@NonNull final String header) {
+        mHeader = header;
+    }
+
+    void setScheme(final int start, final int end) {
+        mSchemeStart = start;
+        mSchemeEnd = end;
+    }
+
+    void setToken68(final int start, final int end) {
+        mToken68Start = start;
+        mToken68End = end;
+    }
+
+    void addParameter(final int nameStart, final int nameEnd,
+                      final int valueStart, final int valueEnd,
+                      final boolean escaped) {
+        final int offset = mParameterCount * FIELDS_PER_PARAMETER;
+
+        if (offset + FIELDS_PER_PARAMETER > mParameters.length) {
+            mParameters = Arrays.copyOf(mParameters, mParameters.length * 2);
+        }
+
+        mParameters[offset + NAME_START] = nameStart;
+        mParameters[offset + NAME_END] = nameEnd;
+        mParameters[offset + VALUE_START] = valueStart;
+        mParameters[offset + VALUE_END] = valueEnd;
+        mParameters[offset + VALUE_ESCAPED] = escaped ? 1 : 0;
+        mParameterCount++;
+    }
+
+    /**
+     * @return The auth scheme, e.g. Bearer, or null if the header held parameters without a scheme.
+     */
+    @Nullable
+    public String getScheme() {
+        return mSchemeStart < 0 ? null : mHeader.substring(mSchemeStart, mSchemeEnd);
+    }
+
+    /**
+     * @param scheme An auth scheme.
+     * @return True if this challenge is for the supplied scheme, compared without regard to case.
+     */
+    public boolean isScheme(@NonNull final String scheme) {
+        return mSchemeStart >= 0
+                && mSchemeEnd - mSchemeStart == scheme.length()
+                && mHeader.regionMatches(true, mSchemeStart, scheme, 0, scheme.length());
+    }
+
+    /**
+     * @return The token68 of the challenge, or null if it carries auth-params instead.
+     */
+    @Nullable
+    public String getToken68() {
+        return mToken68Start < 0 ? null : mHeader.substring(mToken68Start, mToken68End);
+    }
+
+    /**
+     * @return The number of auth-params.
+     */
+    public int getParameterCount() {
+        return mParameterCount;
+    }
+
+    /**
+     * @param index The index of an auth-param, in header order.
+     * @return Its name.
+     */
+    @NonNull
+    public String getParameterName(final int index) {
+        final int offset = checkedOffset(index);
+        return mHeader.substring(mParameters[offset + NAME_START], mParameters[offset + NAME_END]);
+    }
+
+    /**
+     * @param index The index of an auth-param, in header order.
+     * @return Its value, unquoted and unescaped.
+     */
+    @NonNull
+    public String getParameterValue(final int index) {
+        return valueAt(checkedOffset(index));
+    }
+
+    /**
+     * Gets the value of the first auth-param with the supplied name; names are compared without
+     * regard to case.
+     *
+     * @param name The name of the auth-param.
+     * @return Its value, unquoted and unescaped, or null if the challenge does not carry it.
+     */
+    @Nullable
+    public String getParameter(@NonNull final String name) {
+        final int offset = find(name);
+        return offset < 0 ? null : valueAt(offset);
+    }
+
+    /**
+     * @param name The name of an auth-param.
+     * @return True if the challenge carries the auth-param.
+     */
+    public boolean hasParameter(@NonNull final String name) {
+        return find(name) >= 0;
+    }
+
+    /**
+     * @return Every auth-param, by name in header order. Later duplicates are ignored.
+     */
+    @NonNull
+    public Map<String, String> getParameters() {
+        final Map<String, String> parameters = new LinkedHashMap<>();
+
+        for (int i = 0; i < mParameterCount; i++) {
+            final String name = getParameterName(i);
+
+            if (!parameters.containsKey(name)) {
+                parameters.put(name, getParameterValue(i));
+            }
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Gets the claims request carried by the claims auth-param, either as JSON or as base64-encoded
+     * JSON.
+     *
+     * @return The claims request, or null if the challenge carries none or it cannot be decoded,
+     * e.g. because it is not valid base64 or JSON, or not a claims request object.
+     */
+    @Nullable
+    public ClaimsRequest getClaimsRequest() {
+        final String claims = getParameter(CLAIMS_PARAMETER);
+
+        if (claims == null || claims.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return ClaimsRequest.getClaimsRequestFromJsonString(
+                    claims.charAt(0) == '{'
+                            ? claims
+                            : new String(Base64.decode(claims, Base64.DEFAULT), "UTF-8")
+            );
+        } catch (final IllegalArgumentException | IllegalStateException | ClassCastException
+                | JsonParseException | UnsupportedEncodingException e) {
+            // The value comes from the resource server, a malformed one is not a claims request.
+            return null;
+        }
+    }
+
+    private int find(@NonNull final String name) {
+        final int length = name.length();
+
+        for (int i = 0; i < mParameterCount; i++) {
+            final int offset = i * FIELDS_PER_PARAMETER;
+            final int nameStart = mParameters[offset + NAME_START];
+
+            if (mParameters[offset + NAME_END] - nameStart == length
+                    && mHeader.regionMatches(true, nameStart, name, 0, length)) {
+                return offset;
+            }
+        }
+
+        return -1;
+    }
+
+    private int checkedOffset(final int index) {
+        if (index < 0 || index >= mParameterCount) {
+            throw new IndexOutOfBoundsException("Parameter " + index + " of " + mParameterCount);
+        }
+
+        return index * FIELDS_PER_PARAMETER;
+    }
+
+    @NonNull
+    private String valueAt(final int offset) {
+        final int start = mParameters[offset + VALUE_START];
+        final int end = mParameters[offset + VALUE_END];
+
+        if (mParameters[offset + VALUE_ESCAPED] == 0) {
+            return mHeader.substring(start, end);
+        }
+
+        // quoted-pair: a backslash escapes the following character.
+        final StringBuilder value = new StringBuilder(end - start);
+
+        for (int i = start; i < end; i++) {
+            final char c = mHeader.charAt(i);
+
+            if (c == BACKSLASH && i + 1 < end) {
+                value.append(mHeader.charAt(++i));
+            } else {
+                value.append(c);
+            }
+        }
+
+        return value.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticationChallenge{scheme=" + getScheme() + ", parameters=" + mParameterCount + "}";
+    }
+}
@@ -26,9 +26,14 @@ import androidx.annotation.Nullable;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents the claims request parameter as an object
@@ -42,10 +47,40 @@ public class ClaimsRequest {
     public final static String ID_TOKEN = "id_token";
     public final static String ACCESS_TOKEN = "access_token";
 
+    // Gson instances are thread-safe, build them once rather than on every (de)serialization.
+    private static final Gson sSerializerGson = new GsonBuilder()
+            .registerTypeAdapter(ClaimsRequest.class, new ClaimsRequestSerializer())
+            .registerTypeAdapter(RequestedClaimAdditionalInformation.class, new RequestClaimAdditionalInformationSerializer())
+            //If you omit this... you won't be requesting an claims that don't have additional info specified
+            .serializeNulls()
+            .create();
+
+    private static final Gson sDeserializerGson = new GsonBuilder()
+            .registerTypeAdapter(ClaimsRequest.class, new ClaimsRequestDeserializer())
+            .create();
+
     private List<RequestedClaim> mUserInfoClaimsRequested = new ArrayList<>();
     private List<RequestedClaim> mAccessTokenClaimsRequested = new ArrayList<>();
     private List<RequestedClaim> mIdTokenClaimsRequested = new ArrayList<>();
 
+    /**
+     * The last JSON produced for this request, along with a deep copy of the request it was
+     * produced from. The requested claims are mutable (also through the lists returned by the
+     * getters), so the JSON is only reused while the request still equals that copy. Requests
+     * holding values which cannot be copied are never memoized.
+     */
+    private transient volatile SerializedForm mSerializedForm;
+
+    private static final class SerializedForm {
+        final ClaimsRequest mSnapshot;
+        final String mJson;
+
+        SerializedForm(final ClaimsRequest snapshot, final String json) {
+            mSnapshot = snapshot;
+            mJson = json;
+        }
+    }
+
     //CHECKSTYLE:OFF
     // This method is generated. Checkstyle and/or PMD has been disabled.
     // This method *must* be regenerated if the class' structural definition changes through the
@@ -130,37 +165,160 @@ public class ClaimsRequest {
     }
 
     private static String serializeClaimsRequest(@Nullable final ClaimsRequest claimsRequest) {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
+        if (claimsRequest == null) {
+            return null;
+        }
 
-        final ClaimsRequestSerializer claimsRequestSerializer = new ClaimsRequestSerializer();
-        final RequestClaimAdditionalInformationSerializer informationSerializer =
-                new RequestClaimAdditionalInformationSerializer();
+        final SerializedForm serializedForm = claimsRequest.mSerializedForm;
 
-        gsonBuilder.registerTypeAdapter(ClaimsRequest.class, claimsRequestSerializer);
-        gsonBuilder.registerTypeAdapter(RequestedClaimAdditionalInformation.class, informationSerializer);
-        //If you omit this... you won't be requesting an claims that don't have additional info specified
-        gsonBuilder.serializeNulls();
+        if (serializedForm != null && claimsRequest.equals(serializedForm.mSnapshot)) {
+            return serializedForm.mJson;
+        }
 
-        final Gson claimsRequestGson = gsonBuilder.create();
+        final String claimsRequestJson = sSerializerGson.toJson(claimsRequest);
 
-        final String claimsRequestJson = claimsRequest != null ? claimsRequestGson.toJson(claimsRequest) : null;
+        if (claimsRequest.hasOnlyCopyableValues()) {
+            claimsRequest.mSerializedForm = new SerializedForm(claimsRequest.copy(), claimsRequestJson);
+        }
 
         return claimsRequestJson;
-
     }
 
     private static ClaimsRequest deserializeClaimsRequest(@Nullable final String claimsRequestJson) {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
+        return sDeserializerGson.fromJson(claimsRequestJson, ClaimsRequest.class);
+    }
+
+    /**
+     * Returns a deep copy of this claims request. Values of the additional information which are
+     * lists, maps or Gson elements are copied; values of any other type are shared with this
+     * request.
+     *
+     * @return The copy.
+     */
+    public ClaimsRequest copy() {
+        final ClaimsRequest copy = new ClaimsRequest();
+        copyClaims(mUserInfoClaimsRequested, copy.mUserInfoClaimsRequested);
+        copyClaims(mAccessTokenClaimsRequested, copy.mAccessTokenClaimsRequested);
+        copyClaims(mIdTokenClaimsRequested, copy.mIdTokenClaimsRequested);
+        return copy;
+    }
 
-        final ClaimsRequestDeserializer deserializer = new ClaimsRequestDeserializer();
-        gsonBuilder.registerTypeAdapter(ClaimsRequest.class, deserializer);
+    private static void copyClaims(List<RequestedClaim> from, List<RequestedClaim> to) {
+        if (from == null) {
+            return;
+        }
+
+        for (final RequestedClaim claim : from) {
+            RequestedClaimAdditionalInformation information = null;
+
+            if (claim.getAdditionalInformation() != null) {
+                final RequestedClaimAdditionalInformation original = claim.getAdditionalInformation();
+                information = new RequestedClaimAdditionalInformation();
+                information.setEssential(original.getEssential());
+                information.setValue(copyValue(original.getValue()));
+                information.setValues(original.getValues() == null ? null : copyList(original.getValues()));
+            }
+
+            final RequestedClaim copy = new RequestedClaim();
+            copy.setName(claim.getName());
+            copy.setAdditionalInformation(information);
+            to.add(copy);
+        }
+    }
 
-        final Gson claimsRequestGson = gsonBuilder.create();
+    private static List<Object> copyList(List<?> list) {
+        final List<Object> copy = new ArrayList<>(list.size());
 
-        final ClaimsRequest claimsRequest = claimsRequestGson.fromJson(claimsRequestJson, ClaimsRequest.class);
+        for (final Object value : list) {
+            copy.add(copyValue(value));
+        }
 
-        return claimsRequest;
+        return copy;
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof List) {
+            return copyList((List<?>) value);
+        }
+
+        if (value instanceof Map) {
+            final Map<Object, Object> copy = new LinkedHashMap<>();
+
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), copyValue(entry.getValue()));
+            }
+
+            return copy;
+        }
+
+        if (value instanceof JsonElement) {
+            return ((JsonElement) value).deepCopy();
+        }
+
+        return value;
+    }
+
+    /**
+     * @return True if {@link #copy()} shares no mutable value with this request.
+     */
+    private boolean hasOnlyCopyableValues() {
+        return hasOnlyCopyableValues(mUserInfoClaimsRequested)
+                && hasOnlyCopyableValues(mAccessTokenClaimsRequested)
+                && hasOnlyCopyableValues(mIdTokenClaimsRequested);
+    }
+
+    private static boolean hasOnlyCopyableValues(List<RequestedClaim> claims) {
+        if (claims == null) {
+            return true;
+        }
+
+        for (final RequestedClaim claim : claims) {
+            final RequestedClaimAdditionalInformation information = claim.getAdditionalInformation();
+
+            if (information != null
+                    && !(isCopyable(information.getValue()) && isCopyable(information.getValues()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 
+    private static boolean isCopyable(Object value) {
+        if (value instanceof List) {
+            for (final Object item : (List<?>) value) {
+                if (!isCopyable(item)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        if (value instanceof Map) {
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!(entry.getKey() instanceof String) || !isCopyable(entry.getValue())) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        // Immutable values, and Gson elements (which are deep-copied).
+        return value == null
+                || value instanceof String
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Short
+                || value instanceof Byte
+                || value instanceof Double
+                || value instanceof Float
+                || value instanceof BigInteger
+                || value instanceof BigDecimal
+                || value instanceof JsonElement;
     }
 
     /**
@@ -198,6 +356,7 @@ public class ClaimsRequest {
         requestedClaim.setName(name);
         requestedClaim.setAdditionalInformation(additionalInformation);
         claims.add(requestedClaim);
+        mSerializedForm = null;
     }
 
 }
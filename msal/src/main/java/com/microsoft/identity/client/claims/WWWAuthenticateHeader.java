@@ -22,6 +22,12 @@
 //  THE SOFTWARE.
 package com.microsoft.identity.client.claims;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Helper class for pulling any available claims directive out of the WWW-Authenticate header returned
  * by resource servers
@@ -33,6 +39,10 @@ public class WWWAuthenticateHeader {
     static final char DOUBLE_QUOTE = '"';
     static final char SPACE = ' ';
     static final char COMMA = ',';
+    static final char EQUALS = '=';
+    static final char BACKSLASH = '\\';
+    static final char OPEN_BRACE = '{';
+    static final char CLOSE_BRACE = '}';
 
     /**
      * Returns a claims request parameter that corresponds to the contents of the claims directive in a
@@ -99,4 +109,225 @@ public class WWWAuthenticateHeader {
         return true;
     }
 
+    /**
+     * Parses every challenge and auth-param of a WWW-Authenticate header value in a single pass,
+     * following RFC 7235 section 4.1. The challenges keep offsets into the header value rather than
+     * copies of it.
+     * <p>
+     * Parsing is lenient where resource servers are known to deviate from the RFC: values may be
+     * single quoted, JSON may appear unquoted or unescaped inside double quotes, and parameters
+     * that precede any scheme are returned in a challenge without a scheme.
+     *
+     * @param headerValue String content of the www-authenticate header
+     * @return The challenges, in header order; empty if there are none.
+     */
+    @NonNull
+    public static List<AuthenticationChallenge> parse(@Nullable final String headerValue) {
+        final List<AuthenticationChallenge> challenges = new ArrayList<>(1);
+
+        if (headerValue == null) {
+            return challenges;
+        }
+
+        final int length = headerValue.length();
+        AuthenticationChallenge challenge = null;
+
+        // True directly after a scheme, where a token68 may appear instead of auth-params.
+        boolean token68Allowed = false;
+        int i = 0;
+
+        while (i < length) {
+            final char c = headerValue.charAt(i);
+
+            if (c == COMMA) {
+                token68Allowed = false;
+                i++;
+                continue;
+            }
+
+            final int tokenStart = i;
+            final int tokenEnd = skipToken(headerValue, i, length);
+
+            if (tokenEnd == tokenStart) {
+                // Whitespace, or a stray character that cannot start a token.
+                i++;
+                continue;
+            }
+
+            final int next = skipWhitespace(headerValue, tokenEnd, length);
+
+            if (next < length && headerValue.charAt(next) == EQUALS) {
+                int padding = next;
+
+                while (padding < length && headerValue.charAt(padding) == EQUALS) {
+                    padding++;
+                }
+
+                final int following = skipWhitespace(headerValue, padding, length);
+
+                // A lone '=' is read as an empty auth-param so that realm= keeps its meaning.
+                if (token68Allowed
+                        && padding - next > 1
+                        && (following == length || headerValue.charAt(following) == COMMA)) {
+                    challenge.setToken68(tokenStart, padding);
+                    token68Allowed = false;
+                    i = following;
+                    continue;
+                }
+
+                if (challenge == null) {
+                    challenge = new AuthenticationChallenge(headerValue);
+                    challenges.add(challenge);
+                }
+
+                token68Allowed = false;
+                i = parseValue(headerValue, next + 1, length, challenge, tokenStart, tokenEnd);
+                continue;
+            }
+
+            if (token68Allowed) {
+                challenge.setToken68(tokenStart, tokenEnd);
+                token68Allowed = false;
+            } else {
+                challenge = new AuthenticationChallenge(headerValue);
+                challenge.setScheme(tokenStart, tokenEnd);
+                challenges.add(challenge);
+                token68Allowed = true;
+            }
+
+            i = next;
+        }
+
+        return challenges;
+    }
+
+    /**
+     * Reads the value of an auth-param starting at the supplied index and records it on the challenge.
+     *
+     * @return The index following the value.
+     */
+    private static int parseValue(@NonNull final String header,
+                                  final int index,
+                                  final int length,
+                                  @NonNull final AuthenticationChallenge challenge,
+                                  final int nameStart,
+                                  final int nameEnd) {
+        final int start = skipWhitespace(header, index, length);
+
+        if (start == length) {
+            challenge.addParameter(nameStart, nameEnd, start, start, false);
+            return start;
+        }
+
+        final char c = header.charAt(start);
+
+        if (c == DOUBLE_QUOTE || c == SINGLE_QUOTE) {
+            final int valueStart = start + 1;
+            boolean escaped = false;
+            int valueEnd = valueStart;
+
+            while (valueEnd < length) {
+                final char current = header.charAt(valueEnd);
+
+                if (current == BACKSLASH && c == DOUBLE_QUOTE && valueEnd + 1 < length) {
+                    escaped = true;
+                    valueEnd += 2;
+                } else if (current == c) {
+                    break;
+                } else {
+                    valueEnd++;
+                }
+            }
+
+            // Some resource servers put JSON inside the quotes without escaping it.
+            if (!escaped && valueStart < length && header.charAt(valueStart) == OPEN_BRACE) {
+                final int jsonEnd = skipJson(header, valueStart, length);
+
+                if (jsonEnd > valueEnd) {
+                    challenge.addParameter(nameStart, nameEnd, valueStart, jsonEnd, false);
+                    return jsonEnd < length && header.charAt(jsonEnd) == c ? jsonEnd + 1 : jsonEnd;
+                }
+            }
+
+            valueEnd = Math.min(valueEnd, length);
+            challenge.addParameter(nameStart, nameEnd, valueStart, valueEnd, escaped);
+            return valueEnd < length ? valueEnd + 1 : valueEnd;
+        }
+
+        if (c == OPEN_BRACE) {
+            final int jsonEnd = skipJson(header, start, length);
+
+            if (jsonEnd > 0) {
+                challenge.addParameter(nameStart, nameEnd, start, jsonEnd, false);
+                return jsonEnd;
+            }
+        }
+
+        int end = start;
+
+        while (end < length && header.charAt(end) != COMMA && !Character.isWhitespace(header.charAt(end))) {
+            end++;
+        }
+
+        challenge.addParameter(nameStart, nameEnd, start, end, false);
+        return end;
+    }
+
+    /**
+     * @return The index following the token starting at the supplied index.
+     */
+    private static int skipToken(@NonNull final String header, final int index, final int length) {
+        int i = index;
+
+        while (i < length) {
+            final char c = header.charAt(i);
+
+            if (c == COMMA || c == EQUALS || c == DOUBLE_QUOTE || Character.isWhitespace(c)) {
+                break;
+            }
+
+            i++;
+        }
+
+        return i;
+    }
+
+    private static int skipWhitespace(@NonNull final String header, final int index, final int length) {
+        int i = index;
+
+        while (i < length && Character.isWhitespace(header.charAt(i))) {
+            i++;
+        }
+
+        return i;
+    }
+
+    /**
+     * @return The index following the JSON object opening at the supplied index, or -1 if it is not
+     * closed.
+     */
+    private static int skipJson(@NonNull final String header, final int index, final int length) {
+        int depth = 0;
+        boolean inString = false;
+
+        for (int i = index; i < length; i++) {
+            final char c = header.charAt(i);
+
+            if (inString) {
+                if (c == BACKSLASH) {
+                    i++;
+                } else if (c == DOUBLE_QUOTE) {
+                    inString = false;
+                }
+            } else if (c == DOUBLE_QUOTE) {
+                inString = true;
+            } else if (c == OPEN_BRACE) {
+                depth++;
+            } else if (c == CLOSE_BRACE && --depth == 0) {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
 }
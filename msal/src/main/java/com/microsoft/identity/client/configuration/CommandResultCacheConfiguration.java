@@ -0,0 +1,113 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.configuration;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.microsoft.identity.client.configuration.CommandResultCacheConfiguration.SerializedNames.ELIGIBLE_COMMANDS;
+import static com.microsoft.identity.client.configuration.CommandResultCacheConfiguration.SerializedNames.MAX_SIZE;
+import static com.microsoft.identity.client.configuration.CommandResultCacheConfiguration.SerializedNames.TTL;
+
+/**
+ * Configures the cache of recent command results, which serves repeated identical requests
+ * without dispatching them again.
+ */
+public class CommandResultCacheConfiguration {
+
+    /**
+     * Field names used for serialization by Gson.
+     */
+    public static final class SerializedNames {
+        public static final String MAX_SIZE = "max_size";
+        public static final String TTL = "ttl";
+        public static final String ELIGIBLE_COMMANDS = "eligible_commands";
+    }
+
+    /**
+     * Commands whose results may be cached.
+     */
+    public static final class Commands {
+        /**
+         * Silent token requests which are not forced to refresh.
+         */
+        public static final String ACQUIRE_TOKEN_SILENT = "acquire_token_silent";
+
+        /**
+         * Listing the accounts of a multiple account application.
+         */
+        public static final String GET_ACCOUNTS = "get_accounts";
+    }
+
+    @SerializedName(MAX_SIZE)
+    private Integer mMaxSize;
+
+    @SerializedName(TTL)
+    private Long mTtl;
+
+    @SerializedName(ELIGIBLE_COMMANDS)
+    private List<String> mEligibleCommands;
+
+    /**
+     * Gets the maximum number of results kept; the oldest results are evicted first.
+     * A value of 0 disables the cache.
+     *
+     * @return The maximum number of cached results.
+     */
+    public int getMaxSize() {
+        return mMaxSize == null ? 0 : mMaxSize;
+    }
+
+    /**
+     * Gets the number of seconds for which a result is served from the cache.
+     *
+     * @return The time-to-live of cached results, in seconds.
+     */
+    public long getTtl() {
+        return mTtl == null ? 0 : mTtl;
+    }
+
+    /**
+     * Gets the commands whose results may be cached, see {@link Commands}.
+     *
+     * @return The eligible commands.
+     */
+    @NonNull
+    public List<String> getEligibleCommands() {
+        return mEligibleCommands == null
+                ? Collections.<String>emptyList()
+                : Collections.unmodifiableList(mEligibleCommands);
+    }
+
+    /**
+     * @param command A command, see {@link Commands}.
+     * @return True if results of the command may be cached.
+     */
+    public boolean isEligible(@NonNull final String command) {
+        return getMaxSize() > 0 && getTtl() > 0 && getEligibleCommands().contains(command);
+    }
+}
@@ -1,5 +1,7 @@
 package com.microsoft.identity.client.configuration;
 
+import androidx.annotation.Nullable;
+
 import com.google.gson.annotations.SerializedName;
 
 public class HttpConfiguration {
@@ -10,6 +12,12 @@ public class HttpConfiguration {
     @SerializedName("connect_timeout")
     private int mConnectTimeout;
 
+    @SerializedName("circuit_breaker_failure_threshold")
+    private Integer mCircuitBreakerFailureThreshold;
+
+    @SerializedName("circuit_breaker_open_duration")
+    private Long mCircuitBreakerOpenDuration;
+
     /**
      * Get the currently configured read timeout for the public client application
      *
@@ -46,4 +54,45 @@ public class HttpConfiguration {
         this.mConnectTimeout = timeout;
     }
 
+    /**
+     * Gets the number of consecutive failures which open the circuit of an authority, or null for
+     * the default.
+     *
+     * @return Integer
+     */
+    @Nullable
+    public Integer getCircuitBreakerFailureThreshold() {
+        return this.mCircuitBreakerFailureThreshold;
+    }
+
+    /**
+     * Sets the number of consecutive failures which open the circuit of an authority; 0 disables
+     * the circuit breaker.
+     *
+     * @param circuitBreakerFailureThreshold
+     */
+    public void setCircuitBreakerFailureThreshold(@Nullable final Integer circuitBreakerFailureThreshold) {
+        this.mCircuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * Gets how long an open circuit short-circuits requests in milliseconds, or null for the default.
+     *
+     * @return Long
+     */
+    @Nullable
+    public Long getCircuitBreakerOpenDuration() {
+        return this.mCircuitBreakerOpenDuration;
+    }
+
+    /**
+     * Sets how long an open circuit short-circuits requests before a trial request is let through,
+     * in milliseconds.
+     *
+     * @param circuitBreakerOpenDuration
+     */
+    public void setCircuitBreakerOpenDuration(@Nullable final Long circuitBreakerOpenDuration) {
+        this.mCircuitBreakerOpenDuration = circuitBreakerOpenDuration;
+    }
+
 }
@@ -192,6 +192,17 @@ public final class MsalClientException extends MsalException {
      */
     public static final String REDIRECT_URI_VALIDATION_ERROR = "redirect_uri_validation_error";
 
+    /**
+     * The request did not complete within the timeout supplied with its parameters or call.
+     */
+    public static final String REQUEST_TIMEOUT = "request_timeout";
+
+    /**
+     * The request was not sent because the authority is known to be unhealthy; recent requests to
+     * it failed repeatedly. Retry later.
+     */
+    public static final String AUTHORITY_CIRCUIT_OPEN = "authority_circuit_open";
+
     /**
      * Temporary non-exposed error code to indicate that ADFS authority validation fails. ADFS as authority is not supported
      * for preview.
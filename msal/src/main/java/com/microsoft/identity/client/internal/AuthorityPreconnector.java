@@ -0,0 +1,311 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.microsoft.identity.common.internal.authorities.Authority;
+import com.microsoft.identity.common.internal.logging.Logger;
+import com.microsoft.identity.common.internal.net.HttpRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens connections to the hosts of the configured authorities ahead of the first token request,
+ * and again whenever the device reconnects to a network.
+ * <p>
+ * Each host is resolved and probed with a HEAD request whose response is read to completion, so
+ * the TLS connection is left in the platform {@link HttpURLConnection} keep-alive pool. That pool
+ * is shared by every {@link HttpURLConnection} in the process, so token requests issued by MSAL
+ * and by the common library reuse the warm connection. The time each pre-connect took is
+ * reported; it is the DNS, TCP and TLS setup a token request would otherwise have paid for, as long
+ * as it runs before the pooled connection goes idle.
+ */
+public class AuthorityPreconnector {
+
+    private static final String TAG = AuthorityPreconnector.class.getSimpleName();
+
+    public static final String HOSTS = "hosts";
+    public static final String PRECONNECTS = "preconnects";
+    public static final String FAILURES = "failures";
+
+    /**
+     * Cumulative time the successful pre-connects took. Token requests are sent by the common
+     * library, which reports no connection timings, so the time actually saved cannot be measured;
+     * this is the setup cost the first request after each pre-connect no longer pays, provided it
+     * reuses the pooled connection.
+     */
+    public static final String CONNECT_MILLIS = "connect_millis";
+
+    /**
+     * Minimum time between two pre-connects to the same host, unless the network changed.
+     */
+    @VisibleForTesting
+    static final long MIN_PRECONNECT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final String HTTPS = "https";
+
+    private static final String METHOD_HEAD = "HEAD";
+
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Performs a single request to a host.
+     */
+    @VisibleForTesting
+    interface Connector {
+        void resolve(@NonNull String host) throws IOException;
+
+        void probe(@NonNull URL url) throws IOException;
+    }
+
+    private static final Connector DEFAULT_CONNECTOR = new Connector() {
+        @Override
+        public void resolve(@NonNull final String host) throws IOException {
+            InetAddress.getAllByName(host);
+        }
+
+        @Override
+        public void probe(@NonNull final URL url) throws IOException {
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod(METHOD_HEAD);
+            connection.setConnectTimeout(HttpRequest.CONNECT_TIMEOUT);
+            connection.setReadTimeout(HttpRequest.READ_TIMEOUT);
+            connection.setInstanceFollowRedirects(false);
+
+            connection.getResponseCode();
+
+            InputStream responseStream;
+            try {
+                responseStream = connection.getInputStream();
+            } catch (final IOException e) {
+                responseStream = connection.getErrorStream();
+            }
+
+            // Drain and close (never disconnect) so the socket goes back to the pool.
+            if (null != responseStream) {
+                try {
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    while (responseStream.read(buffer) != -1) {
+                        // Discard.
+                    }
+                } finally {
+                    responseStream.close();
+                }
+            }
+        }
+    };
+
+    private final Context mContext;
+    private final ExecutorService mExecutor;
+    private final Connector mConnector;
+    private final Set<String> mHosts = new LinkedHashSet<>();
+    private final Map<String, Long> mLastPreconnectMillis = new ConcurrentHashMap<>();
+
+    private final AtomicLong mPreconnects = new AtomicLong();
+    private final AtomicLong mFailures = new AtomicLong();
+    private final AtomicLong mConnectMillis = new AtomicLong();
+
+    private BroadcastReceiver mReceiver;
+
+    public AuthorityPreconnector(@NonNull final Context context,
+                                 @NonNull final ExecutorService executor) {
+        this(context, executor, DEFAULT_CONNECTOR);
+    }
+
+    @VisibleForTesting
+    AuthorityPreconnector(@NonNull final Context context,
+                          @NonNull final ExecutorService executor,
+                          @NonNull final Connector connector) {
+        mContext = context.getApplicationContext();
+        mExecutor = executor;
+        mConnector = connector;
+    }
+
+    /**
+     * Adds the hosts of the supplied authorities to the set of hosts kept warm.
+     *
+     * @param authorities The configured authorities.
+     */
+    public void addAuthorities(@NonNull final List<Authority> authorities) {
+        final String methodName = ":addAuthorities";
+
+        for (final Authority authority : authorities) {
+            try {
+                addHost(authority.getAuthorityURL());
+            } catch (final Exception e) {
+                Logger.warn(TAG + methodName, "Unable to get the host of an authority.");
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void addHost(@Nullable final URL url) {
+        if (null != url && HTTPS.equalsIgnoreCase(url.getProtocol()) && null != url.getHost()
+                && !url.getHost().isEmpty()) {
+            synchronized (mHosts) {
+                mHosts.add(url.getHost().toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    /**
+     * @return The hosts kept warm.
+     */
+    @NonNull
+    public List<String> getHosts() {
+        synchronized (mHosts) {
+            return new ArrayList<>(mHosts);
+        }
+    }
+
+    /**
+     * Pre-connects to every host which was not pre-connected within the last minute. Failures are
+     * logged and otherwise ignored: the first request will simply connect on its own.
+     *
+     * @param force True to pre-connect regardless of when the host was last pre-connected, e.g.
+     *              because the network changed.
+     */
+    @WorkerThread
+    public void preconnect(final boolean force) {
+        for (final String host : getHosts()) {
+            preconnect(host, force);
+        }
+    }
+
+    private void preconnect(@NonNull final String host, final boolean force) {
+        final String methodName = ":preconnect";
+        final long now = System.currentTimeMillis();
+        final Long last = mLastPreconnectMillis.get(host);
+
+        if (!force && null != last && now - last < MIN_PRECONNECT_INTERVAL_MILLIS) {
+            Logger.verbose(TAG + methodName, "Host was pre-connected recently, skipping.");
+            return;
+        }
+
+        mLastPreconnectMillis.put(host, now);
+        mPreconnects.incrementAndGet();
+
+        try {
+            final URL url = new URL(HTTPS, host, "/");
+
+            final long start = System.nanoTime();
+            mConnector.resolve(host);
+            mConnector.probe(url);
+            final long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            mConnectMillis.addAndGet(connectMillis);
+
+            Logger.verbose(TAG + methodName, "Pre-connected in " + connectMillis + " ms.");
+        } catch (final Exception e) {
+            mFailures.incrementAndGet();
+            mLastPreconnectMillis.remove(host);
+            Logger.warn(TAG + methodName, "Pre-connect failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pre-connects again, on the executor, every time the device connects to a network. Calling
+     * this more than once has no further effect.
+     */
+    @SuppressWarnings("deprecation")
+    public synchronized void registerNetworkChangeReceiver() {
+        if (null != mReceiver) {
+            return;
+        }
+
+        mReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(final Context context, final Intent intent) {
+                // The sticky broadcast delivered on registration is not a change.
+                if (isInitialStickyBroadcast() || !ConnectivityRefreshQueue.isNetworkAvailable(context)) {
+                    return;
+                }
+
+                mExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        preconnect(true);
+                    }
+                });
+            }
+        };
+
+        mContext.registerReceiver(mReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+    }
+
+    /**
+     * Stops pre-connecting on network changes, see {@link #registerNetworkChangeReceiver()}.
+     */
+    public synchronized void unregisterNetworkChangeReceiver() {
+        if (null == mReceiver) {
+            return;
+        }
+
+        try {
+            mContext.unregisterReceiver(mReceiver);
+        } catch (final IllegalArgumentException e) {
+            // Not registered, nothing to do.
+        }
+
+        mReceiver = null;
+    }
+
+    /**
+     * @return A point-in-time copy of the pre-connect counters, keyed by counter name. Times are
+     * cumulative, in milliseconds.
+     */
+    @NonNull
+    public Map<String, Long> getMetrics() {
+        final Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put(HOSTS, (long) getHosts().size());
+        snapshot.put(PRECONNECTS, mPreconnects.get());
+        snapshot.put(FAILURES, mFailures.get());
+        snapshot.put(CONNECT_MILLIS, mConnectMillis.get());
+        return snapshot;
+    }
+}
@@ -0,0 +1,85 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.microsoft.identity.client.ICancellable;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Default {@link ICancellable}: records the cancellation and cancels (interrupting) the background
+ * task of the operation, if one has been attached. A command already submitted to the
+ * CommandDispatcher is not stopped; the callbacks of the operation check {@link #isCancelled()}
+ * so that its result is dropped.
+ */
+public class CancellableOperation implements ICancellable {
+
+    private static final String TAG = CancellableOperation.class.getSimpleName();
+
+    private final String mName;
+    private final AtomicBoolean mCancelled = new AtomicBoolean(false);
+    private volatile Future<?> mFuture;
+
+    public CancellableOperation(@NonNull final String name) {
+        mName = name;
+    }
+
+    /**
+     * Attaches the background task running the operation.
+     *
+     * @param future The Future of the background task.
+     */
+    public void setFuture(@Nullable final Future<?> future) {
+        mFuture = future;
+
+        if (null != future && mCancelled.get()) {
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        final String methodName = ":cancel";
+
+        if (!mCancelled.compareAndSet(false, true)) {
+            return;
+        }
+
+        Logger.info(TAG + methodName, "Operation [" + mName + "] cancelled by the caller.");
+
+        final Future<?> future = mFuture;
+        if (null != future) {
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return mCancelled.get();
+    }
+}
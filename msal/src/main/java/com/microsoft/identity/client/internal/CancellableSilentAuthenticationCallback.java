@@ -0,0 +1,58 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.ICancellable;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalException;
+
+/**
+ * Drops the result of a silent request once the caller has cancelled it.
+ */
+public class CancellableSilentAuthenticationCallback extends ForwardingSilentAuthenticationCallback {
+
+    private final ICancellable mOperation;
+
+    public CancellableSilentAuthenticationCallback(@NonNull final SilentAuthenticationCallback delegate,
+                                                   @NonNull final ICancellable operation) {
+        super(delegate);
+        mOperation = operation;
+    }
+
+    @Override
+    public void onSuccess(final IAuthenticationResult authenticationResult) {
+        if (!mOperation.isCancelled()) {
+            mDelegate.onSuccess(authenticationResult);
+        }
+    }
+
+    @Override
+    public void onError(final MsalException exception) {
+        if (!mOperation.isCancelled()) {
+            mDelegate.onError(exception);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.microsoft.identity.client.AcquireTokenSilentParameters;
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalClientException;
+import com.microsoft.identity.client.exception.MsalException;
+import com.microsoft.identity.client.exception.MsalServiceException;
+import com.microsoft.identity.client.exception.MsalUiRequiredException;
+import com.microsoft.identity.client.internal.net.CircuitBreaker;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Feeds the outcome of a silent request into the per-authority {@link CircuitBreaker}.
+ * <p>
+ * Server errors (5xx, 429) and client I/O errors count as failures. Since a silent request may be
+ * served from the cache, only requests which had to reach the network (see {@link #requiresNetwork})
+ * count as successes; a {@link MsalUiRequiredException} is a success too, as the authority answered.
+ * Any other outcome releases the circuit's trial slot without deciding on the authority's health.
+ */
+public class CircuitBreakerSilentAuthenticationCallback extends ForwardingSilentAuthenticationCallback {
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final AcquireTokenSilentParameters mParameters;
+    private final CircuitBreaker mCircuitBreaker;
+
+    public CircuitBreakerSilentAuthenticationCallback(@NonNull final SilentAuthenticationCallback delegate,
+                                                      @NonNull final AcquireTokenSilentParameters parameters,
+                                                      @NonNull final CircuitBreaker circuitBreaker) {
+        super(delegate);
+        mParameters = parameters;
+        mCircuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @param parameters The parameters of a silent request.
+     * @return True if the request cannot be served from the cache.
+     */
+    public static boolean requiresNetwork(@NonNull final AcquireTokenSilentParameters parameters) {
+        return parameters.getForceRefresh() || null != parameters.getClaimsRequest();
+    }
+
+    /**
+     * @param parameters The parameters of a silent request.
+     * @return The host of the request's authority, or null if it cannot be determined.
+     */
+    @Nullable
+    public static String getAuthorityHost(@NonNull final AcquireTokenSilentParameters parameters) {
+        if (TextUtils.isEmpty(parameters.getAuthority())) {
+            return null;
+        }
+
+        try {
+            return new URL(parameters.getAuthority()).getHost();
+        } catch (final MalformedURLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void onSuccess(final IAuthenticationResult authenticationResult) {
+        final String host = getAuthorityHost(mParameters);
+
+        if (null != host && requiresNetwork(mParameters)) {
+            mCircuitBreaker.recordSuccess(host);
+        }
+
+        mDelegate.onSuccess(authenticationResult);
+    }
+
+    @Override
+    public void onError(final MsalException exception) {
+        final String host = getAuthorityHost(mParameters);
+
+        if (null != host) {
+            recordError(host, exception);
+        }
+
+        mDelegate.onError(exception);
+    }
+
+    private void recordError(@NonNull final String host, @NonNull final MsalException exception) {
+        final int statusCode = exception instanceof MsalServiceException
+                ? ((MsalServiceException) exception).getHttpStatusCode()
+                : 0;
+
+        if (statusCode >= 500
+                || statusCode == HTTP_TOO_MANY_REQUESTS
+                || MsalClientException.IO_ERROR.equals(exception.getErrorCode())) {
+            mCircuitBreaker.recordFailure(host);
+        } else if (statusCode > 0
+                || (exception instanceof MsalUiRequiredException && requiresNetwork(mParameters))) {
+            // The authority answered, it is healthy.
+            mCircuitBreaker.recordSuccess(host);
+        } else if (requiresNetwork(mParameters)
+                && !MsalClientException.AUTHORITY_CIRCUIT_OPEN.equals(exception.getErrorCode())) {
+            // Cancelled, timed out on the client or failed before reaching the authority.
+            mCircuitBreaker.releaseTrial(host);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.microsoft.identity.client.AuthenticationResult;
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.ICancellable;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalException;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses identical claims challenges into a single forced refresh.
+ * <p>
+ * The first caller to submit a challenge leads: it issues the request, passing
+ * {@link Ticket#getCallback()} as its callback. Callers submitting the same challenge while the
+ * request is in flight are answered with its outcome, and a successful result is reused for
+ * challenges arriving shortly after it, since those were most likely raised by requests sent
+ * before the new token existed.
+ */
+public class ClaimsChallengeCoalescer {
+
+    private static final String TAG = ClaimsChallengeCoalescer.class.getSimpleName();
+
+    /**
+     * How long a successful result answers further identical challenges.
+     */
+    public static final long DEFAULT_RESULT_REUSE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Above this many remembered challenges, those which can no longer be reused are dropped.
+     */
+    private static final int PURGE_THRESHOLD = 64;
+
+    private final long mResultReuseNanos;
+    private final Map<String, Challenge> mChallenges = new HashMap<>();
+
+    public ClaimsChallengeCoalescer() {
+        this(DEFAULT_RESULT_REUSE_MILLIS);
+    }
+
+    @VisibleForTesting
+    ClaimsChallengeCoalescer(final long resultReuseMillis) {
+        mResultReuseNanos = TimeUnit.MILLISECONDS.toNanos(resultReuseMillis);
+    }
+
+    /**
+     * The share of a caller in a challenge.
+     */
+    public final class Ticket implements ICancellable {
+
+        private final Challenge mChallenge;
+        private final SilentAuthenticationCallback mCallback;
+        private final boolean mLeader;
+        private final IAuthenticationResult mReusedResult;
+        private volatile boolean mCancelled;
+
+        private Ticket(@NonNull final Challenge challenge,
+                       @Nullable final SilentAuthenticationCallback callback,
+                       final boolean leader,
+                       @Nullable final IAuthenticationResult reusedResult) {
+            mChallenge = challenge;
+            mCallback = callback;
+            mLeader = leader;
+            mReusedResult = reusedResult;
+        }
+
+        /**
+         * @return True if the caller has to issue the request, see {@link #getCallback()}.
+         */
+        public boolean isLeader() {
+            return mLeader;
+        }
+
+        /**
+         * @return The callback the leader passes to its request; it answers every caller of the
+         * challenge.
+         */
+        @NonNull
+        public SilentAuthenticationCallback getCallback() {
+            return mChallenge;
+        }
+
+        /**
+         * Attaches the request issued by the leader, so that it is cancelled once no caller waits
+         * for it any more.
+         *
+         * @param operation The request.
+         */
+        public void setOperation(@NonNull final ICancellable operation) {
+            mChallenge.setOperation(operation);
+        }
+
+        /**
+         * @return The recent result answering the challenge, or null if the caller waits for a
+         * request instead.
+         */
+        @Nullable
+        public IAuthenticationResult getReusedResult() {
+            return mReusedResult;
+        }
+
+        @Override
+        public void cancel() {
+            mCancelled = true;
+
+            if (null != mCallback) {
+                mChallenge.detach(mCallback);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return mCancelled;
+        }
+    }
+
+    private final class Challenge implements SilentAuthenticationCallback {
+
+        private final String mKey;
+        private final List<SilentAuthenticationCallback> mWaiters = new ArrayList<>();
+        private ICancellable mOperation;
+        private IAuthenticationResult mResult;
+        private long mCompletedAtNanos;
+        private boolean mCompleted;
+
+        private Challenge(@NonNull final String key) {
+            mKey = key;
+        }
+
+        private boolean isReusable(final long nowNanos) {
+            return mCompleted
+                    && null != mResult
+                    && nowNanos - mCompletedAtNanos <= mResultReuseNanos
+                    && !(mResult instanceof AuthenticationResult && ((AuthenticationResult) mResult).isStale());
+        }
+
+        private void setOperation(@NonNull final ICancellable operation) {
+            final boolean abandoned;
+
+            synchronized (ClaimsChallengeCoalescer.this) {
+                mOperation = operation;
+                abandoned = !mCompleted && mWaiters.isEmpty();
+            }
+
+            if (abandoned) {
+                operation.cancel();
+            }
+        }
+
+        private void detach(@NonNull final SilentAuthenticationCallback callback) {
+            final ICancellable abandonedOperation;
+
+            synchronized (ClaimsChallengeCoalescer.this) {
+                if (!mWaiters.remove(callback) || mCompleted || !mWaiters.isEmpty()) {
+                    return;
+                }
+
+                // Nobody waits for the refresh any more.
+                mChallenges.remove(mKey);
+                abandonedOperation = mOperation;
+            }
+
+            if (null != abandonedOperation) {
+                abandonedOperation.cancel();
+            }
+        }
+
+        private List<SilentAuthenticationCallback> complete(@Nullable final IAuthenticationResult result) {
+            synchronized (ClaimsChallengeCoalescer.this) {
+                mCompleted = true;
+                mResult = result;
+                mCompletedAtNanos = System.nanoTime();
+
+                if (null == result && mChallenges.get(mKey) == this) {
+                    // Failures are not reused: the next challenge tries again.
+                    mChallenges.remove(mKey);
+                }
+
+                final List<SilentAuthenticationCallback> waiters = new ArrayList<>(mWaiters);
+                mWaiters.clear();
+                return waiters;
+            }
+        }
+
+        @Override
+        public void onSuccess(final IAuthenticationResult authenticationResult) {
+            final List<SilentAuthenticationCallback> waiters = complete(authenticationResult);
+
+            Logger.verbose(
+                    TAG + ":onSuccess",
+                    "Claims challenge answered, notifying [" + waiters.size() + "] callers."
+            );
+
+            for (final SilentAuthenticationCallback waiter : waiters) {
+                waiter.onSuccess(authenticationResult);
+            }
+        }
+
+        @Override
+        public void onError(final MsalException exception) {
+            final List<SilentAuthenticationCallback> waiters = complete(null);
+
+            for (final SilentAuthenticationCallback waiter : waiters) {
+                waiter.onError(exception);
+            }
+        }
+    }
+
+    /**
+     * Submits a challenge.
+     *
+     * @param key      The key of the challenge, covering the request and the challenged claims.
+     * @param callback The callback of the caller.
+     * @return The share of the caller: it either leads, waits for the leader, or is answered by
+     * {@link Ticket#getReusedResult()}.
+     */
+    @NonNull
+    public synchronized Ticket submit(@NonNull final String key,
+                                      @NonNull final SilentAuthenticationCallback callback) {
+        final String methodName = ":submit";
+        Challenge challenge = mChallenges.get(key);
+
+        if (null != challenge) {
+            if (!challenge.mCompleted) {
+                Logger.info(TAG + methodName, "The same claims challenge is being answered, waiting for it.");
+                challenge.mWaiters.add(callback);
+                return new Ticket(challenge, callback, false, null);
+            }
+
+            if (challenge.isReusable(System.nanoTime())) {
+                Logger.info(TAG + methodName, "The same claims challenge was just answered, reusing the result.");
+                return new Ticket(challenge, null, false, challenge.mResult);
+            }
+        }
+
+        if (mChallenges.size() >= PURGE_THRESHOLD) {
+            purge(System.nanoTime());
+        }
+
+        challenge = new Challenge(key);
+        challenge.mWaiters.add(callback);
+        mChallenges.put(key, challenge);
+        return new Ticket(challenge, callback, true, null);
+    }
+
+    private void purge(final long nowNanos) {
+        final Iterator<Challenge> iterator = mChallenges.values().iterator();
+
+        while (iterator.hasNext()) {
+            final Challenge challenge = iterator.next();
+
+            if (challenge.mCompleted && !challenge.isReusable(nowNanos)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Forgets every challenge, e.g. when accounts are removed. Requests in flight still answer
+     * their callers.
+     */
+    public synchronized void clear() {
+        mChallenges.clear();
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return mChallenges.size();
+    }
+}
@@ -260,9 +260,16 @@ public class CommandParametersAdapter {
         return authority;
     }
 
+    /**
+     * Returns a claims request holding the supplied claims along with the client capabilities
+     * claim. The supplied claims request is not modified.
+     *
+     * @param cr                 The requested claims, may be null.
+     * @param clientCapabilities The comma-separated client capabilities, may be null.
+     * @return The merged claims request.
+     */
     public static ClaimsRequest addClientCapabilitiesToClaimsRequest(ClaimsRequest cr, String clientCapabilities) {
-
-        final ClaimsRequest mergedClaimsRequest = (cr == null) ? new ClaimsRequest() : cr;
+        final ClaimsRequest mergedClaimsRequest = (cr == null) ? new ClaimsRequest() : cr.copy();
 
         if (clientCapabilities != null) {
             //Add client capabilities to existing claims request
@@ -0,0 +1,251 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A concurrent, size-bounded cache of recent command results.
+ * <p>
+ * Results expire after a fixed time-to-live. When the cache is full the oldest result is evicted.
+ * Lookups and insertions never block each other.
+ */
+public class CommandResultCache {
+
+    /**
+     * Source of monotonic time, replaceable in tests.
+     */
+    @VisibleForTesting
+    public interface Ticker {
+        long nanoTime();
+    }
+
+    private static final Ticker SYSTEM_TICKER = new Ticker() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    public static final String STAT_HITS = "hits";
+    public static final String STAT_MISSES = "misses";
+    public static final String STAT_EVICTIONS = "evictions";
+    public static final String STAT_EXPIRATIONS = "expirations";
+    public static final String STAT_SIZE = "size";
+
+    private static final class Item {
+
+        private final String mKey;
+        private final Object mValue;
+        private final long mExpiresAtNanos;
+
+        private Item(@NonNull final String key, @NonNull final Object value, final long expiresAtNanos) {
+            mKey = key;
+            mValue = value;
+            mExpiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final ConcurrentMap<String, Item> mItems = new ConcurrentHashMap<>();
+
+    /**
+     * Items in insertion order; may contain items which were since replaced or removed.
+     */
+    private final Queue<Item> mInsertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mInsertionOrderSize = new AtomicInteger();
+
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mEvictions = new AtomicLong();
+    private final AtomicLong mExpirations = new AtomicLong();
+
+    private final int mMaxSize;
+    private final long mTtlNanos;
+    private final Ticker mTicker;
+
+    /**
+     * @param maxSize   The maximum number of results kept.
+     * @param ttlMillis How long a result is served, in milliseconds.
+     */
+    public CommandResultCache(final int maxSize, final long ttlMillis) {
+        this(maxSize, ttlMillis, SYSTEM_TICKER);
+    }
+
+    @VisibleForTesting
+    public CommandResultCache(final int maxSize, final long ttlMillis, @NonNull final Ticker ticker) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive.");
+        }
+
+        mMaxSize = maxSize;
+        mTtlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        mTicker = ticker;
+    }
+
+    /**
+     * @param key  The key of the command.
+     * @param type The expected type of the result.
+     * @return The cached result, or null if there is none, it has expired or it is of another type.
+     */
+    @Nullable
+    public <T> T get(@NonNull final String key, @NonNull final Class<T> type) {
+        final Item item = mItems.get(key);
+
+        if (null == item) {
+            mMisses.incrementAndGet();
+            return null;
+        }
+
+        if (item.mExpiresAtNanos - mTicker.nanoTime() <= 0) {
+            if (mItems.remove(key, item)) {
+                mExpirations.incrementAndGet();
+            }
+
+            mMisses.incrementAndGet();
+            return null;
+        }
+
+        if (!type.isInstance(item.mValue)) {
+            mMisses.incrementAndGet();
+            return null;
+        }
+
+        mHits.incrementAndGet();
+        return type.cast(item.mValue);
+    }
+
+    /**
+     * Caches the result of a command, replacing any previous result for the same key.
+     *
+     * @param key   The key of the command.
+     * @param value The result.
+     */
+    public void put(@NonNull final String key, @NonNull final Object value) {
+        final Item item = new Item(key, value, mTicker.nanoTime() + mTtlNanos);
+
+        mItems.put(key, item);
+        mInsertionOrder.add(item);
+
+        if (mInsertionOrderSize.incrementAndGet() > 2 * mMaxSize) {
+            compactInsertionOrder();
+        }
+
+        while (mItems.size() > mMaxSize) {
+            final Item eldest = mInsertionOrder.poll();
+
+            if (null == eldest) {
+                break;
+            }
+
+            mInsertionOrderSize.decrementAndGet();
+
+            if (mItems.remove(eldest.mKey, eldest)) {
+                mEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes the result cached for a key.
+     *
+     * @param key The key of the command.
+     */
+    public void remove(@NonNull final String key) {
+        mItems.remove(key);
+    }
+
+    /**
+     * Removes every result whose key starts with the given prefix.
+     *
+     * @param keyPrefix The prefix.
+     */
+    public void removeByPrefix(@NonNull final String keyPrefix) {
+        final Iterator<String> iterator = mItems.keySet().iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(keyPrefix)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached result. Statistics are kept.
+     */
+    public void clear() {
+        mItems.clear();
+        mInsertionOrder.clear();
+        mInsertionOrderSize.set(0);
+    }
+
+    /**
+     * @return The number of cached results, including expired ones not yet removed.
+     */
+    public int size() {
+        return mItems.size();
+    }
+
+    /**
+     * @return A point-in-time copy of the hit, miss, eviction and expiration counters and the size.
+     */
+    @NonNull
+    public Map<String, Long> getStatistics() {
+        final Map<String, Long> statistics = new HashMap<>();
+        statistics.put(STAT_HITS, mHits.get());
+        statistics.put(STAT_MISSES, mMisses.get());
+        statistics.put(STAT_EVICTIONS, mEvictions.get());
+        statistics.put(STAT_EXPIRATIONS, mExpirations.get());
+        statistics.put(STAT_SIZE, (long) mItems.size());
+        return statistics;
+    }
+
+    /**
+     * Drops items which were replaced or removed from the insertion order, so that keys which are
+     * cached over and over do not grow it.
+     */
+    private void compactInsertionOrder() {
+        final Iterator<Item> iterator = mInsertionOrder.iterator();
+
+        while (iterator.hasNext()) {
+            final Item item = iterator.next();
+
+            if (mItems.get(item.mKey) != item) {
+                iterator.remove();
+                mInsertionOrderSize.decrementAndGet();
+            }
+        }
+    }
+}
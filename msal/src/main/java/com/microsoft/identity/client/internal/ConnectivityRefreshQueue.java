@@ -0,0 +1,148 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Holds token refreshes which could not be performed while the device was offline, and runs them
+ * once connectivity returns.
+ * <p>
+ * Refreshes are de-duplicated by key. A connectivity receiver is registered only while refreshes
+ * are pending.
+ */
+public class ConnectivityRefreshQueue {
+
+    private static final String TAG = ConnectivityRefreshQueue.class.getSimpleName();
+
+    private final Context mContext;
+    private final ExecutorService mExecutor;
+    private final Map<String, Runnable> mPendingRefreshes = new LinkedHashMap<>();
+    private BroadcastReceiver mReceiver;
+
+    public ConnectivityRefreshQueue(@NonNull final Context context,
+                                    @NonNull final ExecutorService executor) {
+        mContext = context.getApplicationContext();
+        mExecutor = executor;
+    }
+
+    /**
+     * @param context A context.
+     * @return True if the device currently has a connected network.
+     */
+    @SuppressWarnings("deprecation")
+    public static boolean isNetworkAvailable(@NonNull final Context context) {
+        final ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        if (null == connectivityManager) {
+            // Cannot tell, assume we are online and let the request find out.
+            return true;
+        }
+
+        final NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+        return null != networkInfo && networkInfo.isConnected();
+    }
+
+    /**
+     * Queues a refresh to run when connectivity returns. A refresh already queued under the same
+     * key is replaced.
+     *
+     * @param key     Identifies the refreshed token.
+     * @param refresh The refresh.
+     */
+    @SuppressWarnings("deprecation")
+    public synchronized void enqueue(@NonNull final String key, @NonNull final Runnable refresh) {
+        mPendingRefreshes.put(key, refresh);
+
+        if (null == mReceiver) {
+            mReceiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(final Context context, final Intent intent) {
+                    // The sticky broadcast delivered on registration is not a change.
+                    if (!isInitialStickyBroadcast() && isNetworkAvailable(context)) {
+                        drain();
+                    }
+                }
+            };
+
+            mContext.registerReceiver(mReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        }
+    }
+
+    /**
+     * @return The number of refreshes waiting for connectivity.
+     */
+    @VisibleForTesting
+    public synchronized int size() {
+        return mPendingRefreshes.size();
+    }
+
+    /**
+     * Runs every pending refresh and stops listening for connectivity changes.
+     */
+    @VisibleForTesting
+    void drain() {
+        final List<Runnable> refreshes;
+
+        synchronized (this) {
+            refreshes = new ArrayList<>(mPendingRefreshes.values());
+            mPendingRefreshes.clear();
+
+            if (null != mReceiver) {
+                try {
+                    mContext.unregisterReceiver(mReceiver);
+                } catch (final IllegalArgumentException e) {
+                    // Not registered, nothing to do.
+                }
+
+                mReceiver = null;
+            }
+        }
+
+        Logger.info(
+                TAG + ":drain",
+                "Connectivity restored, running " + refreshes.size() + " queued refresh(es)."
+        );
+
+        for (final Runnable refresh : refreshes) {
+            mExecutor.execute(refresh);
+        }
+    }
+}
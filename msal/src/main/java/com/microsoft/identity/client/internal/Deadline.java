@@ -0,0 +1,72 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a request must have completed.
+ */
+public final class Deadline {
+
+    private final long mTimeoutMillis;
+    private final long mExpiresAtNanos;
+
+    private Deadline(final long timeoutMillis) {
+        mTimeoutMillis = timeoutMillis;
+        mExpiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Creates a deadline the supplied duration from now.
+     *
+     * @param timeout The duration.
+     * @param unit    The unit of the duration.
+     * @return The deadline.
+     */
+    public static Deadline after(final long timeout, final TimeUnit unit) {
+        return new Deadline(unit.toMillis(timeout));
+    }
+
+    /**
+     * @return The budget this deadline was created with, in milliseconds.
+     */
+    public long getTimeoutMillis() {
+        return mTimeoutMillis;
+    }
+
+    /**
+     * @return The remaining budget in milliseconds, never negative.
+     */
+    public long getRemainingMillis() {
+        final long remainingNanos = mExpiresAtNanos - System.nanoTime();
+        return remainingNanos <= 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(remainingNanos);
+    }
+
+    /**
+     * @return True if no budget remains.
+     */
+    public boolean isExpired() {
+        return mExpiresAtNanos - System.nanoTime() <= 0;
+    }
+}
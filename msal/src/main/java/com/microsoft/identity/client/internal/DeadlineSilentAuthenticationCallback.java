@@ -0,0 +1,148 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalClientException;
+import com.microsoft.identity.client.exception.MsalException;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.microsoft.identity.client.exception.MsalClientException.REQUEST_TIMEOUT;
+
+/**
+ * Wraps a {@link SilentAuthenticationCallback} so that exactly one result is delivered: either the
+ * result of the request, or a {@link MsalClientException#REQUEST_TIMEOUT} error once the request's
+ * {@link Deadline} has passed, whichever comes first.
+ */
+public class DeadlineSilentAuthenticationCallback extends ForwardingSilentAuthenticationCallback {
+
+    private static final String TAG = DeadlineSilentAuthenticationCallback.class.getSimpleName();
+
+    private final Deadline mDeadline;
+    private final AtomicBoolean mDelivered = new AtomicBoolean(false);
+    private volatile ScheduledFuture<?> mTimeoutFuture;
+
+    public DeadlineSilentAuthenticationCallback(@NonNull final SilentAuthenticationCallback delegate,
+                                                @NonNull final Deadline deadline) {
+        super(delegate);
+        mDeadline = deadline;
+    }
+
+    /**
+     * Schedules delivery of the timeout error once the deadline passes.
+     *
+     * @param scheduler The scheduler to use.
+     */
+    public void schedule(@NonNull final ScheduledExecutorService scheduler) {
+        mTimeoutFuture = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                onTimeout("request");
+            }
+        }, mDeadline.getRemainingMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks the deadline before starting the supplied stage of the request. If it has passed, the
+     * timeout error is delivered immediately.
+     *
+     * @param stage The name of the stage about to start.
+     * @return True if the stage may proceed.
+     */
+    public boolean checkDeadline(@NonNull final String stage) {
+        if (mDeadline.isExpired()) {
+            onTimeout(stage);
+            return false;
+        }
+
+        return !mDelivered.get();
+    }
+
+    @NonNull
+    public Deadline getDeadline() {
+        return mDeadline;
+    }
+
+    @Override
+    public void onSuccess(final IAuthenticationResult authenticationResult) {
+        if (deliver()) {
+            mDelegate.onSuccess(authenticationResult);
+        }
+    }
+
+    @Override
+    public void onError(final MsalException exception) {
+        if (deliver()) {
+            mDelegate.onError(exception);
+        }
+    }
+
+    private void onTimeout(@NonNull final String stage) {
+        final String methodName = ":onTimeout";
+
+        if (!deliver()) {
+            return;
+        }
+
+        Logger.warn(
+                TAG + methodName,
+                "Request exceeded its " + mDeadline.getTimeoutMillis() + "ms budget before " + stage + " completed."
+        );
+
+        final MsalClientException timeoutException = new MsalClientException(
+                REQUEST_TIMEOUT,
+                "The request did not complete within " + mDeadline.getTimeoutMillis() + "ms."
+        );
+
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                mDelegate.onError(timeoutException);
+            }
+        });
+    }
+
+    private boolean deliver() {
+        if (!mDelivered.compareAndSet(false, true)) {
+            return false;
+        }
+
+        final ScheduledFuture<?> timeoutFuture = mTimeoutFuture;
+        if (null != timeoutFuture) {
+            timeoutFuture.cancel(false);
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,304 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.microsoft.identity.client.ICancellable;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls the token endpoint for the result of a device code flow (RFC 8628) without holding a
+ * thread while waiting for the user.
+ * <p>
+ * Each poll is timed by a shared scheduler and run on a shared executor; between polls the session
+ * is only a pending scheduled task, so any number of sessions may run concurrently. The polling
+ * interval is the one returned by the server, increased by five seconds every time the server
+ * answers slow_down. A poll failing with an {@link IOException} is retried at the current interval,
+ * up to {@link #MAX_CONSECUTIVE_IO_ERRORS} times in a row. Polling stops once the device code
+ * expires, the server returns a result or an error, or the session is cancelled.
+ *
+ * @param <T> The type of the result.
+ */
+public class DeviceCodePollingSession<T> implements ICancellable {
+
+    private static final String TAG = DeviceCodePollingSession.class.getSimpleName();
+
+    /**
+     * Added to the polling interval on every slow_down response, see RFC 8628 section 3.5.
+     */
+    static final long SLOW_DOWN_INCREMENT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Number of consecutive polls failing with an {@link IOException} after which the session fails.
+     */
+    static final int MAX_CONSECUTIVE_IO_ERRORS = 3;
+
+    /**
+     * The outcome of a single poll.
+     *
+     * @param <T> The type of the result.
+     */
+    public static final class Poll<T> {
+
+        enum Status {
+            PENDING,
+            SLOW_DOWN,
+            COMPLETE,
+            FAILED
+        }
+
+        private final Status mStatus;
+        private final T mResult;
+        private final Exception mError;
+
+        private Poll(@NonNull final Status status,
+                     @Nullable final T result,
+                     @Nullable final Exception error) {
+            mStatus = status;
+            mResult = result;
+            mError = error;
+        }
+
+        /**
+         * @return A poll answered with authorization_pending.
+         */
+        public static <T> Poll<T> pending() {
+            return new Poll<>(Status.PENDING, null, null);
+        }
+
+        /**
+         * @return A poll answered with slow_down.
+         */
+        public static <T> Poll<T> slowDown() {
+            return new Poll<>(Status.SLOW_DOWN, null, null);
+        }
+
+        /**
+         * @param result The result of the flow.
+         * @return A poll which obtained the result.
+         */
+        public static <T> Poll<T> complete(@NonNull final T result) {
+            return new Poll<>(Status.COMPLETE, result, null);
+        }
+
+        /**
+         * @param error The error ending the flow.
+         * @return A poll answered with an error which ends the flow.
+         */
+        public static <T> Poll<T> failed(@NonNull final Exception error) {
+            return new Poll<>(Status.FAILED, null, error);
+        }
+    }
+
+    /**
+     * Performs a single token request.
+     *
+     * @param <T> The type of the result.
+     */
+    public interface Poller<T> {
+        @NonNull
+        Poll<T> poll() throws Exception;
+    }
+
+    /**
+     * Receives the outcome of the session. Not invoked once the session is cancelled.
+     *
+     * @param <T> The type of the result.
+     */
+    public interface Listener<T> {
+        void onComplete(@NonNull T result);
+
+        void onError(@NonNull Exception error);
+
+        /**
+         * Invoked when the device code expires before the user completes the flow.
+         */
+        void onExpired();
+    }
+
+    private final ScheduledExecutorService mScheduler;
+    private final ExecutorService mExecutor;
+    private final Poller<T> mPoller;
+    private final Listener<T> mListener;
+    private final long mSlowDownIncrementMillis;
+    private final AtomicBoolean mDone = new AtomicBoolean(false);
+    private final AtomicInteger mConsecutiveIoErrors = new AtomicInteger();
+
+    private volatile long mIntervalMillis;
+    private volatile long mExpiresAtMillis;
+    private volatile ScheduledFuture<?> mScheduledPoll;
+
+    public DeviceCodePollingSession(@NonNull final ScheduledExecutorService scheduler,
+                                    @NonNull final ExecutorService executor,
+                                    @NonNull final Poller<T> poller,
+                                    @NonNull final Listener<T> listener) {
+        this(scheduler, executor, poller, listener, SLOW_DOWN_INCREMENT_MILLIS);
+    }
+
+    @VisibleForTesting
+    DeviceCodePollingSession(@NonNull final ScheduledExecutorService scheduler,
+                             @NonNull final ExecutorService executor,
+                             @NonNull final Poller<T> poller,
+                             @NonNull final Listener<T> listener,
+                             final long slowDownIncrementMillis) {
+        mScheduler = scheduler;
+        mExecutor = executor;
+        mPoller = poller;
+        mListener = listener;
+        mSlowDownIncrementMillis = slowDownIncrementMillis;
+    }
+
+    /**
+     * Schedules the first poll.
+     *
+     * @param intervalMillis  The polling interval returned with the device code.
+     * @param expiresInMillis The lifetime of the device code.
+     */
+    public void start(final long intervalMillis, final long expiresInMillis) {
+        mIntervalMillis = intervalMillis;
+        mExpiresAtMillis = System.currentTimeMillis() + expiresInMillis;
+        scheduleNextPoll();
+    }
+
+    /**
+     * @return The current polling interval, in milliseconds.
+     */
+    public long getIntervalMillis() {
+        return mIntervalMillis;
+    }
+
+    @Override
+    public void cancel() {
+        final String methodName = ":cancel";
+
+        if (!mDone.compareAndSet(false, true)) {
+            return;
+        }
+
+        Logger.info(TAG + methodName, "Device code flow cancelled by the caller.");
+
+        final ScheduledFuture<?> scheduledPoll = mScheduledPoll;
+        if (null != scheduledPoll) {
+            scheduledPoll.cancel(false);
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return mDone.get();
+    }
+
+    private void scheduleNextPoll() {
+        if (mDone.get()) {
+            return;
+        }
+
+        try {
+            mScheduledPoll = mScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    mExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            poll();
+                        }
+                    });
+                }
+            }, mIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            fail(e);
+        }
+    }
+
+    private void poll() {
+        final String methodName = ":poll";
+
+        if (mDone.get()) {
+            return;
+        }
+
+        if (System.currentTimeMillis() >= mExpiresAtMillis) {
+            if (mDone.compareAndSet(false, true)) {
+                Logger.warn(TAG + methodName, "Device code expired before the user signed in.");
+                mListener.onExpired();
+            }
+            return;
+        }
+
+        final Poll<T> poll;
+        try {
+            poll = mPoller.poll();
+        } catch (final IOException e) {
+            if (mConsecutiveIoErrors.incrementAndGet() < MAX_CONSECUTIVE_IO_ERRORS) {
+                Logger.warn(TAG + methodName, "Poll failed, retrying: " + e.getMessage());
+                scheduleNextPoll();
+            } else {
+                fail(e);
+            }
+            return;
+        } catch (final Exception e) {
+            fail(e);
+            return;
+        }
+
+        mConsecutiveIoErrors.set(0);
+
+        switch (poll.mStatus) {
+            case SLOW_DOWN:
+                mIntervalMillis += mSlowDownIncrementMillis;
+                Logger.info(TAG + methodName, "Server asked to slow down, polling every " + mIntervalMillis + " ms.");
+                scheduleNextPoll();
+                break;
+            case PENDING:
+                scheduleNextPoll();
+                break;
+            case COMPLETE:
+                if (mDone.compareAndSet(false, true)) {
+                    mListener.onComplete(poll.mResult);
+                }
+                break;
+            case FAILED:
+            default:
+                fail(poll.mError);
+                break;
+        }
+    }
+
+    private void fail(@NonNull final Exception error) {
+        if (mDone.compareAndSet(false, true)) {
+            mListener.onError(error);
+        }
+    }
+}
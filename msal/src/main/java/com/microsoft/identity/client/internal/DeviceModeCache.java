@@ -0,0 +1,135 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.microsoft.identity.common.internal.cache.ISharedPreferencesFileManager;
+import com.microsoft.identity.common.internal.cache.SharedPreferencesFileManager;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the last device mode (shared or non-shared) reported by the default controller so that
+ * subsequent PublicClientApplication creation does not need to wait for a broker round-trip.
+ */
+public class DeviceModeCache {
+
+    private static final String TAG = DeviceModeCache.class.getSimpleName();
+
+    private static final String DEVICE_MODE_SHARED_PREFERENCES =
+            "com.microsoft.identity.client.device_mode_cache";
+
+    private static final String KEY_IS_SHARED_DEVICE = ".is_shared_device";
+
+    private static final String KEY_LAST_VALIDATED = ".last_validated";
+
+    private final ISharedPreferencesFileManager mSharedPreferencesFileManager;
+    private final long mTtlSeconds;
+
+    private DeviceModeCache(@NonNull final Context context, final long ttlSeconds) {
+        mSharedPreferencesFileManager = new SharedPreferencesFileManager(
+                context,
+                DEVICE_MODE_SHARED_PREFERENCES
+        );
+        mTtlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Opens the device mode cache, unless it is disabled.
+     *
+     * @param context    The application context.
+     * @param ttlSeconds The maximum age of a cached value, in seconds. 0 disables the cache.
+     * @return The cache, or null if it is disabled.
+     */
+    @Nullable
+    public static DeviceModeCache create(@NonNull final Context context, final long ttlSeconds) {
+        if (ttlSeconds <= 0) {
+            return null;
+        }
+
+        return new DeviceModeCache(context, ttlSeconds);
+    }
+
+    /**
+     * Gets the cached device mode for the supplied client id, if one was validated within the
+     * time-to-live of this cache.
+     *
+     * @param clientId The client id of the application.
+     * @return True if the device is in shared mode, false if it is not, or null if there is no
+     * fresh value.
+     */
+    @Nullable
+    public Boolean getIfFresh(@NonNull final String clientId) {
+        final String methodName = ":getIfFresh";
+
+        final String isSharedDevice = mSharedPreferencesFileManager.getString(clientId + KEY_IS_SHARED_DEVICE);
+        final String lastValidated = mSharedPreferencesFileManager.getString(clientId + KEY_LAST_VALIDATED);
+
+        if (null == isSharedDevice || null == lastValidated) {
+            return null;
+        }
+
+        final long ageMillis;
+        try {
+            ageMillis = System.currentTimeMillis() - Long.parseLong(lastValidated);
+        } catch (final NumberFormatException e) {
+            Logger.warn(TAG + methodName, "Malformed device mode cache entry, ignoring.");
+            return null;
+        }
+
+        if (ageMillis < 0 || ageMillis > TimeUnit.SECONDS.toMillis(mTtlSeconds)) {
+            Logger.verbose(TAG + methodName, "Cached device mode has expired.");
+            return null;
+        }
+
+        return Boolean.valueOf(isSharedDevice);
+    }
+
+    /**
+     * Records the device mode most recently reported for the supplied client id.
+     *
+     * @param clientId       The client id of the application.
+     * @param isSharedDevice True if the device is in shared mode.
+     */
+    public void put(@NonNull final String clientId, final boolean isSharedDevice) {
+        put(clientId, isSharedDevice, System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    void put(@NonNull final String clientId, final boolean isSharedDevice, final long validatedMillis) {
+        mSharedPreferencesFileManager.putString(
+                clientId + KEY_IS_SHARED_DEVICE,
+                String.valueOf(isSharedDevice)
+        );
+        mSharedPreferencesFileManager.putString(
+                clientId + KEY_LAST_VALIDATED,
+                String.valueOf(validatedMillis)
+        );
+    }
+}
@@ -0,0 +1,56 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+
+/**
+ * Base class of the internal decorators MSAL applies to a caller's
+ * {@link SilentAuthenticationCallback}.
+ */
+public abstract class ForwardingSilentAuthenticationCallback implements SilentAuthenticationCallback {
+
+    protected final SilentAuthenticationCallback mDelegate;
+
+    protected ForwardingSilentAuthenticationCallback(@NonNull final SilentAuthenticationCallback delegate) {
+        mDelegate = delegate;
+    }
+
+    /**
+     * Strips any decorators applied by a previous submission of the same parameters.
+     *
+     * @param callback The callback, possibly decorated.
+     * @return The caller's own callback.
+     */
+    public static SilentAuthenticationCallback unwrap(final SilentAuthenticationCallback callback) {
+        SilentAuthenticationCallback result = callback;
+
+        while (result instanceof ForwardingSilentAuthenticationCallback) {
+            result = ((ForwardingSilentAuthenticationCallback) result).mDelegate;
+        }
+
+        return result;
+    }
+}
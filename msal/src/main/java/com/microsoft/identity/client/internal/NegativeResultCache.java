@@ -0,0 +1,229 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.microsoft.identity.client.exception.MsalUiRequiredException;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers silent requests which failed because user interaction is required (e.g. the refresh
+ * token was revoked, invalid_grant), so that repeating them fails immediately instead of going
+ * to the network or the broker again.
+ * <p>
+ * Entries are keyed by (client, account, authority, scopes, claims) and are dropped when their
+ * time-to-live expires or when the account signs in again or is removed.
+ */
+public class NegativeResultCache {
+
+    private static final String TAG = NegativeResultCache.class.getSimpleName();
+
+    /**
+     * Upper bound on the number of remembered failures; the cache is purged when it is reached.
+     */
+    private static final int MAX_ENTRIES = 256;
+
+    private static final String KEY_DELIMITER = "|";
+
+    private final ConcurrentMap<String, Entry> mEntries = new ConcurrentHashMap<>();
+
+    private static final class Entry {
+
+        private final String mHomeAccountId;
+        private final MsalUiRequiredException mException;
+        private final long mExpiresAtNanos;
+
+        private Entry(@NonNull final String homeAccountId,
+                      @NonNull final MsalUiRequiredException exception,
+                      final long expiresAtNanos) {
+            mHomeAccountId = homeAccountId;
+            mException = exception;
+            mExpiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(final long nowNanos) {
+            return mExpiresAtNanos - nowNanos <= 0;
+        }
+    }
+
+    /**
+     * Builds the key of a silent request.
+     *
+     * @param clientId      The client id of the application.
+     * @param homeAccountId The home account id of the account the token is requested for.
+     * @param authority     The authority of the request.
+     * @param scopes        The requested scopes.
+     * @param claims        The claims of the request as JSON, or null.
+     * @return The key, or null if the request cannot be keyed (e.g. it has no account).
+     */
+    @Nullable
+    public static String createKey(@Nullable final String clientId,
+                                   @Nullable final String homeAccountId,
+                                   @Nullable final String authority,
+                                   @Nullable final List<String> scopes,
+                                   @Nullable final String claims) {
+        if (TextUtils.isEmpty(clientId)
+                || TextUtils.isEmpty(homeAccountId)
+                || TextUtils.isEmpty(authority)
+                || null == scopes) {
+            return null;
+        }
+
+        String normalizedAuthority = authority.toLowerCase(Locale.ROOT);
+
+        if (normalizedAuthority.endsWith("/")) {
+            normalizedAuthority = normalizedAuthority.substring(0, normalizedAuthority.length() - 1);
+        }
+
+        // Scopes are case-insensitive and unordered, see ScopeSet.
+        return clientId
+                + KEY_DELIMITER + homeAccountId.toLowerCase(Locale.ROOT)
+                + KEY_DELIMITER + normalizedAuthority
+                + KEY_DELIMITER + ScopeSet.of(scopes).toCanonicalString()
+                + KEY_DELIMITER + (null == claims ? "" : claims);
+    }
+
+    /**
+     * @param key The key of a silent request, see {@link #createKey}.
+     * @return The failure remembered for the request, or null if there is none or it has expired.
+     */
+    @Nullable
+    public MsalUiRequiredException get(@Nullable final String key) {
+        if (null == key) {
+            return null;
+        }
+
+        final Entry entry = mEntries.get(key);
+
+        if (null == entry) {
+            return null;
+        }
+
+        if (entry.isExpired(System.nanoTime())) {
+            mEntries.remove(key, entry);
+            return null;
+        }
+
+        return entry.mException;
+    }
+
+    /**
+     * Remembers the failure of a silent request.
+     *
+     * @param key           The key of the request, see {@link #createKey}.
+     * @param homeAccountId The home account id of the account the token was requested for.
+     * @param exception     The failure.
+     * @param ttlMillis     How long the failure should be remembered, in milliseconds.
+     */
+    public void put(@Nullable final String key,
+                    @Nullable final String homeAccountId,
+                    @NonNull final MsalUiRequiredException exception,
+                    final long ttlMillis) {
+        if (null == key || TextUtils.isEmpty(homeAccountId) || ttlMillis <= 0) {
+            return;
+        }
+
+        final long nowNanos = System.nanoTime();
+
+        if (mEntries.size() >= MAX_ENTRIES) {
+            purgeExpired(nowNanos);
+
+            if (mEntries.size() >= MAX_ENTRIES) {
+                mEntries.clear();
+            }
+        }
+
+        mEntries.put(
+                key,
+                new Entry(
+                        homeAccountId.toLowerCase(Locale.ROOT),
+                        exception,
+                        nowNanos + TimeUnit.MILLISECONDS.toNanos(ttlMillis)
+                )
+        );
+    }
+
+    /**
+     * Forgets every failure remembered for the given account, e.g. because it signed in again.
+     *
+     * @param homeAccountId The home account id of the account.
+     */
+    public void invalidate(@Nullable final String homeAccountId) {
+        if (TextUtils.isEmpty(homeAccountId) || mEntries.isEmpty()) {
+            return;
+        }
+
+        final String normalizedHomeAccountId = homeAccountId.toLowerCase(Locale.ROOT);
+        final Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+        int removed = 0;
+
+        while (iterator.hasNext()) {
+            if (normalizedHomeAccountId.equals(iterator.next().getValue().mHomeAccountId)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        if (removed > 0) {
+            Logger.verbose(
+                    TAG + ":invalidate",
+                    "Forgot " + removed + " cached failure(s)."
+            );
+        }
+    }
+
+    /**
+     * Forgets every remembered failure.
+     */
+    public void clear() {
+        mEntries.clear();
+    }
+
+    @VisibleForTesting
+    int size() {
+        return mEntries.size();
+    }
+
+    private void purgeExpired(final long nowNanos) {
+        final Iterator<Entry> iterator = mEntries.values().iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(nowNanos)) {
+                iterator.remove();
+            }
+        }
+    }
+}
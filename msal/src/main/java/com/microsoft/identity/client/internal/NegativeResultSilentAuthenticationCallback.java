@@ -0,0 +1,70 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalException;
+import com.microsoft.identity.client.exception.MsalUiRequiredException;
+
+/**
+ * Records silent requests failing with {@link MsalUiRequiredException} in a
+ * {@link NegativeResultCache}.
+ */
+public class NegativeResultSilentAuthenticationCallback extends ForwardingSilentAuthenticationCallback {
+
+    private final NegativeResultCache mCache;
+    private final String mKey;
+    private final String mHomeAccountId;
+    private final long mTtlMillis;
+
+    public NegativeResultSilentAuthenticationCallback(@NonNull final SilentAuthenticationCallback delegate,
+                                                      @NonNull final NegativeResultCache cache,
+                                                      @Nullable final String key,
+                                                      @Nullable final String homeAccountId,
+                                                      final long ttlMillis) {
+        super(delegate);
+        mCache = cache;
+        mKey = key;
+        mHomeAccountId = homeAccountId;
+        mTtlMillis = ttlMillis;
+    }
+
+    @Override
+    public void onSuccess(final IAuthenticationResult authenticationResult) {
+        mDelegate.onSuccess(authenticationResult);
+    }
+
+    @Override
+    public void onError(final MsalException exception) {
+        // A failure served from the cache must not extend its own lifetime.
+        if (exception instanceof MsalUiRequiredException && mCache.get(mKey) != exception) {
+            mCache.put(mKey, mHomeAccountId, (MsalUiRequiredException) exception, mTtlMillis);
+        }
+
+        mDelegate.onError(exception);
+    }
+}
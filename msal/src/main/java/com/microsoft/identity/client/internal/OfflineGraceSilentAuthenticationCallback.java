@@ -0,0 +1,127 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalClientException;
+import com.microsoft.identity.client.exception.MsalException;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * When a silent request fails because the network is unavailable, falls back to the expired
+ * token in the cache if it is still within the offline grace period.
+ */
+public class OfflineGraceSilentAuthenticationCallback extends ForwardingSilentAuthenticationCallback {
+
+    private static final String TAG = OfflineGraceSilentAuthenticationCallback.class.getSimpleName();
+
+    /**
+     * Looks up the token to fall back to.
+     */
+    public interface StaleResultSource {
+
+        /**
+         * @return The cached result to serve, or null if there is none within the grace period.
+         */
+        @Nullable
+        @WorkerThread
+        IAuthenticationResult getStaleResult();
+    }
+
+    private final ExecutorService mExecutor;
+    private final StaleResultSource mStaleResultSource;
+
+    public OfflineGraceSilentAuthenticationCallback(@NonNull final SilentAuthenticationCallback delegate,
+                                                    @NonNull final ExecutorService executor,
+                                                    @NonNull final StaleResultSource staleResultSource) {
+        super(delegate);
+        mExecutor = executor;
+        mStaleResultSource = staleResultSource;
+    }
+
+    /**
+     * Service errors and an open circuit are not connectivity failures: serving stale tokens for
+     * them would queue a refresh which, once run, fails the same way.
+     *
+     * @param exception The failure of a silent request.
+     * @return True if the request failed because the network was unavailable.
+     */
+    public static boolean isConnectivityFailure(@NonNull final MsalException exception) {
+        return exception instanceof MsalClientException
+                && (MsalClientException.IO_ERROR.equals(exception.getErrorCode())
+                || MsalClientException.DEVICE_NETWORK_NOT_AVAILABLE.equals(exception.getErrorCode()));
+    }
+
+    @Override
+    public void onSuccess(final IAuthenticationResult authenticationResult) {
+        mDelegate.onSuccess(authenticationResult);
+    }
+
+    @Override
+    public void onError(final MsalException exception) {
+        if (!isConnectivityFailure(exception)) {
+            mDelegate.onError(exception);
+            return;
+        }
+
+        // The fallback reads the token cache, keep it off the main thread.
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                IAuthenticationResult staleResult = null;
+
+                try {
+                    staleResult = mStaleResultSource.getStaleResult();
+                } catch (final RuntimeException e) {
+                    Logger.warn(
+                            TAG + ":onError",
+                            "Unable to read the token cache: " + e.getMessage()
+                    );
+                }
+
+                final IAuthenticationResult result = staleResult;
+
+                new Handler(Looper.getMainLooper()).post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (null != result) {
+                            mDelegate.onSuccess(result);
+                        } else {
+                            mDelegate.onError(exception);
+                        }
+                    }
+                });
+            }
+        });
+    }
+}
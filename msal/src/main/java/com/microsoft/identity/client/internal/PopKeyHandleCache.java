@@ -0,0 +1,418 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.microsoft.identity.common.exception.ClientException;
+import com.microsoft.identity.common.internal.logging.Logger;
+import com.microsoft.identity.common.internal.platform.DevicePopManager;
+import com.microsoft.identity.common.internal.platform.IDevicePopManager;
+
+import java.io.IOException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableEntryException;
+import java.security.cert.CertificateException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide cache of loaded PoP key handles, for the PoP key work done by MSAL itself: the
+ * pre-generation of the key and {@link com.microsoft.identity.client.SignedHttpRequestGenerator}.
+ * PoP token requests load the key through their own {@link DevicePopManager} in common, so this
+ * cache does not speed them up.
+ * <p>
+ * Creating a {@link DevicePopManager} loads the Android KeyStore entry of its key, which costs
+ * about as much as signing with it. The cache keeps one loaded manager per key alias, along with
+ * the values derived from its key: the thumbprint, the request confirmation (the JWK of the
+ * public key) and the secure hardware state.
+ * <p>
+ * A cached handle is dropped once its key no longer exists, whoever cleared it, see
+ * {@link #get(String)}. A key replaced without going through {@link #rotate(Context, String)}
+ * requires {@link #invalidate(String)}, as the cached values would describe the previous key.
+ */
+public final class PopKeyHandleCache {
+
+    private static final String TAG = PopKeyHandleCache.class.getSimpleName();
+
+    /**
+     * Alias under which the handle of the default key is cached.
+     */
+    private static final String DEFAULT_ALIAS = "";
+
+    private static final String ANDROID_KEYSTORE = "AndroidKeyStore";
+
+    /**
+     * Loads the manager of a key.
+     */
+    @VisibleForTesting
+    interface Loader {
+
+        /**
+         * @param alias The alias of the key, or null for the default key.
+         * @return The manager of the key, whether or not it exists yet.
+         */
+        @NonNull
+        IDevicePopManager load(@Nullable String alias) throws ClientException;
+    }
+
+    private static final Loader DEFAULT_LOADER = new Loader() {
+        @NonNull
+        @Override
+        public IDevicePopManager load(@Nullable final String alias) throws ClientException {
+            try {
+                return null == alias ? new DevicePopManager() : new DevicePopManager(alias);
+            } catch (final KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException e) {
+                throw new ClientException(ClientException.UNKNOWN_ERROR, "Failed to load the PoP key.", e);
+            }
+        }
+    };
+
+    private static final ConcurrentMap<String, Handle> sHandles = new ConcurrentHashMap<>();
+
+    // Serializes the generation, rotation and clearing of each key.
+    private static final ConcurrentMap<String, Object> sLocks = new ConcurrentHashMap<>();
+
+    private static volatile Loader sLoader = DEFAULT_LOADER;
+
+    private PopKeyHandleCache() {
+        // Utility class.
+    }
+
+    /**
+     * A loaded key and the values derived from it, each computed on first use.
+     */
+    public static final class Handle {
+
+        private final String mAlias;
+        private final IDevicePopManager mDevicePopManager;
+        private volatile KeyStore.PrivateKeyEntry mPrivateKeyEntry;
+        private volatile String mThumbprint;
+        private volatile String mRequestConfirmation;
+        private volatile IDevicePopManager.SecureHardwareState mSecureHardwareState;
+
+        Handle(@Nullable final String alias, @NonNull final IDevicePopManager devicePopManager) {
+            mAlias = alias;
+            mDevicePopManager = devicePopManager;
+        }
+
+        /**
+         * @return The loaded manager. Do not generate its key directly, see
+         * {@link PopKeyHandleCache#rotate(Context, String)}.
+         */
+        @NonNull
+        public IDevicePopManager getDevicePopManager() {
+            return mDevicePopManager;
+        }
+
+        /**
+         * @return The thumbprint of the key.
+         */
+        @NonNull
+        public String getThumbprint() throws ClientException {
+            String thumbprint = mThumbprint;
+
+            if (null == thumbprint) {
+                thumbprint = mDevicePopManager.getAsymmetricKeyThumbprint();
+                mThumbprint = thumbprint;
+            }
+
+            return thumbprint;
+        }
+
+        /**
+         * @return The request confirmation (req_cnf) of the key, carrying its JWK.
+         */
+        @NonNull
+        public String getRequestConfirmation() throws ClientException {
+            String requestConfirmation = mRequestConfirmation;
+
+            if (null == requestConfirmation) {
+                requestConfirmation = mDevicePopManager.getRequestConfirmation();
+                mRequestConfirmation = requestConfirmation;
+            }
+
+            return requestConfirmation;
+        }
+
+        /**
+         * @return Whether the key is held by secure hardware.
+         */
+        @NonNull
+        public IDevicePopManager.SecureHardwareState getSecureHardwareState() throws ClientException {
+            IDevicePopManager.SecureHardwareState secureHardwareState = mSecureHardwareState;
+
+            if (null == secureHardwareState) {
+                secureHardwareState = mDevicePopManager.getSecureHardwareState();
+                mSecureHardwareState = secureHardwareState;
+            }
+
+            return secureHardwareState;
+        }
+
+        /**
+         * Only available for keys with an explicit alias: the alias of the default key is private
+         * to {@link DevicePopManager}, so the default key is only used through
+         * {@link #getDevicePopManager()}.
+         *
+         * @return The KeyStore entry of the key, for signing without going through the manager.
+         */
+        @NonNull
+        public KeyStore.PrivateKeyEntry getPrivateKeyEntry() throws ClientException {
+            if (null == mAlias) {
+                throw new ClientException(
+                        ClientException.UNKNOWN_ERROR,
+                        "The KeyStore entry of the default PoP key is not accessible."
+                );
+            }
+
+            KeyStore.PrivateKeyEntry privateKeyEntry = mPrivateKeyEntry;
+
+            if (null == privateKeyEntry) {
+                privateKeyEntry = loadPrivateKeyEntry(mAlias);
+                mPrivateKeyEntry = privateKeyEntry;
+            }
+
+            return privateKeyEntry;
+        }
+    }
+
+    @NonNull
+    private static KeyStore.PrivateKeyEntry loadPrivateKeyEntry(@NonNull final String alias) throws ClientException {
+        final KeyStore.Entry entry;
+
+        try {
+            final KeyStore keyStore = KeyStore.getInstance(ANDROID_KEYSTORE);
+            keyStore.load(null);
+            entry = keyStore.getEntry(alias, null);
+        } catch (final KeyStoreException | CertificateException | NoSuchAlgorithmException
+                | UnrecoverableEntryException | IOException e) {
+            throw new ClientException(ClientException.UNKNOWN_ERROR, "Failed to load the PoP key.", e);
+        }
+
+        if (!(entry instanceof KeyStore.PrivateKeyEntry)) {
+            throw new ClientException(ClientException.UNKNOWN_ERROR, "The PoP key does not exist.");
+        }
+
+        return (KeyStore.PrivateKeyEntry) entry;
+    }
+
+    /**
+     * Gets the handle of a key, loading it on first use. A cached handle is only returned while
+     * its key exists, which the loaded manager checks without reloading the key.
+     *
+     * @param alias The alias of the key, or null for the default key.
+     * @return The handle, or null if the key does not exist.
+     */
+    @Nullable
+    public static Handle get(@Nullable final String alias) throws ClientException {
+        final String key = null == alias ? DEFAULT_ALIAS : alias;
+        final Handle cachedHandle = getCached(key);
+
+        if (null != cachedHandle) {
+            return cachedHandle;
+        }
+
+        final IDevicePopManager devicePopManager = sLoader.load(alias);
+
+        if (!devicePopManager.asymmetricKeyExists()) {
+            return null;
+        }
+
+        return cache(key, new Handle(alias, devicePopManager));
+    }
+
+    /**
+     * Gets the handle of a key, generating the key if it does not exist.
+     * <p>
+     * The key is looked up again right before it is generated, while holding the lock of its
+     * alias, so a key generated meanwhile, e.g. by the first PoP token request, is not replaced.
+     * PoP token requests do not take that lock, so a generation starting at the same instant
+     * cannot be excluded, only made unlikely.
+     *
+     * @param context The application context.
+     * @param alias   The alias of the key, or null for the default key.
+     * @return The handle.
+     */
+    @NonNull
+    public static Handle getOrGenerate(@NonNull final Context context,
+                                       @Nullable final String alias) throws ClientException {
+        final String key = null == alias ? DEFAULT_ALIAS : alias;
+        final Handle cachedHandle = getCached(key);
+
+        if (null != cachedHandle) {
+            return cachedHandle;
+        }
+
+        synchronized (getLock(key)) {
+            final IDevicePopManager devicePopManager = sLoader.load(alias);
+
+            if (devicePopManager.asymmetricKeyExists()) {
+                return cache(key, new Handle(alias, devicePopManager));
+            }
+
+            return generate(context, alias, devicePopManager);
+        }
+    }
+
+    /**
+     * Generates the default key if it does not exist, so that the first PoP token request does
+     * not pay for it. Failures are logged: the key is then generated by that request instead.
+     *
+     * @param context        The application context.
+     * @param brokerEligible Whether requests go through the broker, which holds the key instead.
+     * @return True if the key exists.
+     */
+    public static boolean pregenerate(@NonNull final Context context, final boolean brokerEligible) {
+        final String methodName = ":pregenerate";
+
+        if (brokerEligible) {
+            Logger.verbose(TAG + methodName, "Requests go through the broker, not generating a PoP key.");
+            return false;
+        }
+
+        try {
+            getOrGenerate(context, null);
+            return true;
+        } catch (final ClientException e) {
+            Logger.warn(TAG + methodName, "Failed to pre-generate the PoP key: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Replaces a key with a newly generated one, and caches the handle of the new key.
+     *
+     * @param context The application context.
+     * @param alias   The alias of the key, or null for the default key.
+     * @return The handle of the new key.
+     */
+    @NonNull
+    public static Handle rotate(@NonNull final Context context,
+                                @Nullable final String alias) throws ClientException {
+        synchronized (getLock(null == alias ? DEFAULT_ALIAS : alias)) {
+            clear(alias);
+            return generate(context, alias, sLoader.load(alias));
+        }
+    }
+
+    /**
+     * Deletes a key and drops its handle.
+     *
+     * @param alias The alias of the key, or null for the default key.
+     * @return True if the key was deleted.
+     */
+    public static boolean clear(@Nullable final String alias) throws ClientException {
+        final String key = null == alias ? DEFAULT_ALIAS : alias;
+
+        synchronized (getLock(key)) {
+            final Handle handle = sHandles.remove(key);
+            final IDevicePopManager devicePopManager = null != handle
+                    ? handle.getDevicePopManager()
+                    : sLoader.load(alias);
+
+            return devicePopManager.clearAsymmetricKey();
+        }
+    }
+
+    /**
+     * Drops the handle of a key, e.g. because the key was changed without going through this cache.
+     *
+     * @param alias The alias of the key, or null for the default key.
+     */
+    public static void invalidate(@Nullable final String alias) {
+        sHandles.remove(null == alias ? DEFAULT_ALIAS : alias);
+    }
+
+    /**
+     * Drops every handle.
+     */
+    public static void invalidateAll() {
+        sHandles.clear();
+    }
+
+    /**
+     * Must be called holding the lock of the alias.
+     */
+    @NonNull
+    private static Handle generate(@NonNull final Context context,
+                                   @Nullable final String alias,
+                                   @NonNull final IDevicePopManager devicePopManager) throws ClientException {
+        final String methodName = ":generate";
+        final String key = null == alias ? DEFAULT_ALIAS : alias;
+
+        final String thumbprint = devicePopManager.generateAsymmetricKey(context);
+        Logger.verbose(TAG + methodName, "Generated a PoP key.");
+
+        // A handle cached meanwhile refers to a key which was just replaced.
+        final Handle handle = new Handle(alias, devicePopManager);
+        handle.mThumbprint = thumbprint;
+        sHandles.put(key, handle);
+        return handle;
+    }
+
+    @Nullable
+    private static Handle getCached(@NonNull final String key) {
+        final String methodName = ":getCached";
+        final Handle handle = sHandles.get(key);
+
+        if (null != handle && !handle.mDevicePopManager.asymmetricKeyExists()) {
+            // Cleared without going through this cache, e.g. by a DevicePopManager of common.
+            Logger.verbose(TAG + methodName, "The PoP key no longer exists, dropping its handle.");
+            sHandles.remove(key, handle);
+            return null;
+        }
+
+        return handle;
+    }
+
+    @NonNull
+    private static Object getLock(@NonNull final String key) {
+        final Object lock = new Object();
+        final Object existingLock = sLocks.putIfAbsent(key, lock);
+        return null == existingLock ? lock : existingLock;
+    }
+
+    @NonNull
+    private static Handle cache(@NonNull final String key, @NonNull final Handle handle) {
+        final Handle existingHandle = sHandles.putIfAbsent(key, handle);
+        return null == existingHandle ? handle : existingHandle;
+    }
+
+    @VisibleForTesting
+    static void setLoader(@Nullable final Loader loader) {
+        sLoader = null == loader ? DEFAULT_LOADER : loader;
+        sHandles.clear();
+    }
+
+    @VisibleForTesting
+    static int size() {
+        return sHandles.size();
+    }
+}
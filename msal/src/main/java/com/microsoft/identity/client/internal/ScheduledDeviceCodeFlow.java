@@ -0,0 +1,323 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.microsoft.identity.client.ICancellable;
+import com.microsoft.identity.common.exception.BaseException;
+import com.microsoft.identity.common.exception.ClientException;
+import com.microsoft.identity.common.exception.ErrorStrings;
+import com.microsoft.identity.common.exception.ServiceException;
+import com.microsoft.identity.common.internal.cache.ICacheRecord;
+import com.microsoft.identity.common.internal.commands.DeviceCodeFlowCommandCallback;
+import com.microsoft.identity.common.internal.commands.parameters.DeviceCodeFlowCommandParameters;
+import com.microsoft.identity.common.internal.logging.Logger;
+import com.microsoft.identity.common.internal.providers.microsoft.microsoftsts.MicrosoftStsAuthorizationRequest;
+import com.microsoft.identity.common.internal.providers.microsoft.microsoftsts.MicrosoftStsAuthorizationResponse;
+import com.microsoft.identity.common.internal.providers.microsoft.microsoftsts.MicrosoftStsTokenRequest;
+import com.microsoft.identity.common.internal.providers.oauth2.AuthorizationErrorResponse;
+import com.microsoft.identity.common.internal.providers.oauth2.AuthorizationResult;
+import com.microsoft.identity.common.internal.providers.oauth2.OAuth2Strategy;
+import com.microsoft.identity.common.internal.providers.oauth2.OAuth2StrategyParameters;
+import com.microsoft.identity.common.internal.providers.oauth2.OAuth2TokenCache;
+import com.microsoft.identity.common.internal.providers.oauth2.TokenErrorResponse;
+import com.microsoft.identity.common.internal.providers.oauth2.TokenRequest;
+import com.microsoft.identity.common.internal.providers.oauth2.TokenResult;
+import com.microsoft.identity.common.internal.request.SdkType;
+import com.microsoft.identity.common.internal.result.LocalAuthenticationResult;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the device code flow against the eSTS token endpoint, polling with a
+ * {@link DeviceCodePollingSession} instead of a thread blocked for the lifetime of the flow.
+ * <p>
+ * The device code is requested on the executor; the user code, result and errors are delivered to
+ * the {@link DeviceCodeFlowCommandCallback} on the main thread. Tokens are saved to the token
+ * cache of the command parameters before the result is delivered, unless the flow was cancelled.
+ * Polls failing with an I/O error are retried, see {@link DeviceCodePollingSession}.
+ * <p>
+ * Unlike the DeviceCodeFlowCommand, this flow talks to the token endpoint directly: it never goes
+ * through the broker, and emits no command telemetry.
+ */
+public class ScheduledDeviceCodeFlow implements ICancellable {
+
+    private static final String TAG = ScheduledDeviceCodeFlow.class.getSimpleName();
+
+    private static final String ERROR_AUTHORIZATION_PENDING = "authorization_pending";
+
+    private static final String ERROR_SLOW_DOWN = "slow_down";
+
+    /**
+     * Polling interval used when the server does not return one, see RFC 8628 section 3.2.
+     */
+    private static final long DEFAULT_INTERVAL_SECONDS = 5;
+
+    private static final long DEFAULT_EXPIRES_IN_SECONDS = TimeUnit.MINUTES.toSeconds(15);
+
+    private final DeviceCodeFlowCommandParameters mParameters;
+    private final ScheduledExecutorService mScheduler;
+    private final ExecutorService mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean mCancelled = new AtomicBoolean(false);
+
+    private volatile DeviceCodePollingSession<LocalAuthenticationResult> mSession;
+
+    /**
+     * @param parameters The device code flow parameters.
+     * @param scheduler  Times the polls of every session.
+     * @param executor   Runs the network requests.
+     */
+    public ScheduledDeviceCodeFlow(@NonNull final DeviceCodeFlowCommandParameters parameters,
+                                   @NonNull final ScheduledExecutorService scheduler,
+                                   @NonNull final ExecutorService executor) {
+        mParameters = parameters;
+        mScheduler = scheduler;
+        mExecutor = executor;
+    }
+
+    /**
+     * Requests the device code and starts polling.
+     *
+     * @param callback Receives the user code and the outcome of the flow.
+     */
+    public void start(@NonNull final DeviceCodeFlowCommandCallback<LocalAuthenticationResult, BaseException> callback) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                requestDeviceCode(callback);
+            }
+        });
+    }
+
+    @Override
+    public void cancel() {
+        if (!mCancelled.compareAndSet(false, true)) {
+            return;
+        }
+
+        final DeviceCodePollingSession<LocalAuthenticationResult> session = mSession;
+        if (null != session) {
+            session.cancel();
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return mCancelled.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void requestDeviceCode(@NonNull final DeviceCodeFlowCommandCallback<LocalAuthenticationResult, BaseException> callback) {
+        final String methodName = ":requestDeviceCode";
+
+        if (mCancelled.get()) {
+            return;
+        }
+
+        try {
+            final OAuth2StrategyParameters strategyParameters = new OAuth2StrategyParameters();
+            strategyParameters.setContext(mParameters.getAndroidApplicationContext());
+            final OAuth2Strategy strategy = mParameters.getAuthority().createOAuth2Strategy(strategyParameters);
+            final String scope = TextUtils.join(" ", mParameters.getScopes());
+
+            final MicrosoftStsAuthorizationRequest authorizationRequest = new MicrosoftStsAuthorizationRequest.Builder()
+                    .setAuthority(mParameters.getAuthority().getAuthorityURL())
+                    .setClientId(mParameters.getClientId())
+                    .setScope(scope)
+                    .setState(UUID.randomUUID().toString())
+                    .build();
+
+            final AuthorizationResult authorizationResult = strategy.getDeviceCode(authorizationRequest);
+
+            if (!authorizationResult.getSuccess()) {
+                final AuthorizationErrorResponse errorResponse = authorizationResult.getAuthorizationErrorResponse();
+                postError(callback, new ServiceException(
+                        errorResponse.getError(),
+                        errorResponse.getErrorDescription(),
+                        null
+                ));
+                return;
+            }
+
+            final MicrosoftStsAuthorizationResponse authorizationResponse =
+                    (MicrosoftStsAuthorizationResponse) authorizationResult.getAuthorizationResponse();
+
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onUserCodeReceived(
+                            authorizationResponse.getVerificationUri(),
+                            authorizationResponse.getUserCode(),
+                            authorizationResponse.getMessage()
+                    );
+                }
+            });
+
+            final MicrosoftStsTokenRequest tokenRequest = new MicrosoftStsTokenRequest();
+            tokenRequest.setCodeVerifier("");
+            tokenRequest.setCorrelationId(null == mParameters.getCorrelationId()
+                    ? UUID.randomUUID()
+                    : UUID.fromString(mParameters.getCorrelationId()));
+            tokenRequest.setClientId(mParameters.getClientId());
+            tokenRequest.setGrantType(TokenRequest.GrantTypes.DEVICE_CODE);
+            tokenRequest.setDeviceCode(authorizationResponse.getDeviceCode());
+            tokenRequest.setRedirectUri(mParameters.getRedirectUri());
+            tokenRequest.setScope(scope);
+            tokenRequest.setClientAppName(mParameters.getApplicationName());
+            tokenRequest.setClientAppVersion(mParameters.getApplicationVersion());
+
+            final DeviceCodePollingSession<LocalAuthenticationResult> session = new DeviceCodePollingSession<>(
+                    mScheduler,
+                    mExecutor,
+                    new DeviceCodePollingSession.Poller<LocalAuthenticationResult>() {
+                        @NonNull
+                        @Override
+                        public DeviceCodePollingSession.Poll<LocalAuthenticationResult> poll() throws Exception {
+                            final TokenResult tokenResult = strategy.requestToken(tokenRequest);
+
+                            if (tokenResult.getSuccess()) {
+                                if (mCancelled.get()) {
+                                    // The session is done, so no further poll is scheduled and
+                                    // the tokens of a cancelled flow are not saved.
+                                    return DeviceCodePollingSession.Poll.pending();
+                                }
+
+                                final ICacheRecord cacheRecord = ((OAuth2TokenCache) mParameters.getOAuth2TokenCache())
+                                        .save(strategy, authorizationRequest, tokenResult.getTokenResponse());
+
+                                return DeviceCodePollingSession.Poll.complete(new LocalAuthenticationResult(
+                                        cacheRecord,
+                                        Collections.singletonList(cacheRecord),
+                                        SdkType.MSAL,
+                                        false
+                                ));
+                            }
+
+                            final TokenErrorResponse errorResponse = tokenResult.getErrorResponse();
+
+                            if (ERROR_AUTHORIZATION_PENDING.equals(errorResponse.getError())) {
+                                return DeviceCodePollingSession.Poll.pending();
+                            }
+
+                            if (ERROR_SLOW_DOWN.equals(errorResponse.getError())) {
+                                return DeviceCodePollingSession.Poll.slowDown();
+                            }
+
+                            return DeviceCodePollingSession.Poll.failed(new ServiceException(
+                                    errorResponse.getError(),
+                                    errorResponse.getErrorDescription(),
+                                    null
+                            ));
+                        }
+                    },
+                    new DeviceCodePollingSession.Listener<LocalAuthenticationResult>() {
+                        @Override
+                        public void onComplete(@NonNull final LocalAuthenticationResult result) {
+                            mMainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onTaskCompleted(result);
+                                }
+                            });
+                        }
+
+                        @Override
+                        public void onError(@NonNull final Exception error) {
+                            postError(callback, toBaseException(error));
+                        }
+
+                        @Override
+                        public void onExpired() {
+                            postError(callback, new ServiceException(
+                                    ErrorStrings.DEVICE_CODE_FLOW_EXPIRED_TOKEN_ERROR_CODE,
+                                    "The device_code expired before the user signed in.",
+                                    null
+                            ));
+                        }
+                    }
+            );
+
+            mSession = session;
+            session.start(
+                    TimeUnit.SECONDS.toMillis(parseSeconds(authorizationResponse.getInterval(), DEFAULT_INTERVAL_SECONDS)),
+                    TimeUnit.SECONDS.toMillis(parseSeconds(authorizationResponse.getExpiresIn(), DEFAULT_EXPIRES_IN_SECONDS))
+            );
+
+            // Cancelled while the device code was being requested.
+            if (mCancelled.get()) {
+                session.cancel();
+            }
+        } catch (final Exception e) {
+            Logger.warn(TAG + methodName, "Device code request failed: " + e.getMessage());
+            postError(callback, toBaseException(e));
+        }
+    }
+
+    private void postError(@NonNull final DeviceCodeFlowCommandCallback<LocalAuthenticationResult, BaseException> callback,
+                           @NonNull final BaseException error) {
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onError(error);
+            }
+        });
+    }
+
+    @NonNull
+    private static BaseException toBaseException(@NonNull final Exception exception) {
+        if (exception instanceof BaseException) {
+            return (BaseException) exception;
+        }
+
+        if (exception instanceof IOException) {
+            return new ClientException(ClientException.IO_ERROR, exception.getMessage(), exception);
+        }
+
+        return new ClientException(ClientException.UNKNOWN_ERROR, exception.getMessage(), exception);
+    }
+
+    private static long parseSeconds(@Nullable final String value, final long defaultValue) {
+        if (TextUtils.isEmpty(value)) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
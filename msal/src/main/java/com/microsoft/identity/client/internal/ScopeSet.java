@@ -0,0 +1,262 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An immutable set of OAuth scopes, compared the way the service compares them: without regard to
+ * case, surrounding whitespace or order.
+ * <p>
+ * Members are trimmed, case-folded with {@link Locale#ROOT} and sorted once, when the set is
+ * created; the hash code and the canonical string (the members joined by a space) are computed at
+ * the same time, so equal sets compare by hash code and canonical string.
+ * <p>
+ * {@link #contains(Object)} ignores case and surrounding whitespace, but {@link #equals(Object)}
+ * follows the {@link Set} contract: another set is only equal if it holds exactly the folded
+ * members.
+ */
+public final class ScopeSet extends AbstractSet<String> {
+
+    private static final String DELIMITER = " ";
+
+    private static final ScopeSet EMPTY = new ScopeSet(new String[0], "");
+
+    private final String[] mScopes;
+    private final String mCanonical;
+    private final int mHashCode;
+
+    private ScopeSet(@NonNull final String[] sortedFoldedScopes, @NonNull final String canonical) {
+        mScopes = sortedFoldedScopes;
+        mCanonical = canonical;
+
+        int hashCode = 0;
+        for (final String scope : sortedFoldedScopes) {
+            hashCode += scope.hashCode();
+        }
+        mHashCode = hashCode;
+    }
+
+    /**
+     * @param scopes Scopes, in any case or order; null and blank entries are ignored.
+     * @return The canonical set of the supplied scopes.
+     */
+    @NonNull
+    public static ScopeSet of(@Nullable final Collection<String> scopes) {
+        if (scopes instanceof ScopeSet) {
+            return (ScopeSet) scopes;
+        }
+
+        if (null == scopes || scopes.isEmpty()) {
+            return EMPTY;
+        }
+
+        final TreeSet<String> folded = new TreeSet<>();
+
+        for (final String scope : scopes) {
+            addFolded(folded, scope);
+        }
+
+        return create(folded);
+    }
+
+    /**
+     * @param target A space-delimited list of scopes, e.g. the target of an access token.
+     * @return The canonical set of the supplied scopes.
+     */
+    @NonNull
+    public static ScopeSet parse(@Nullable final String target) {
+        if (null == target || target.isEmpty()) {
+            return EMPTY;
+        }
+
+        final TreeSet<String> folded = new TreeSet<>();
+        final int length = target.length();
+        int start = -1;
+
+        for (int i = 0; i <= length; i++) {
+            final boolean isDelimiter = i == length || Character.isWhitespace(target.charAt(i));
+
+            if (isDelimiter && start >= 0) {
+                addFolded(folded, target.substring(start, i));
+                start = -1;
+            } else if (!isDelimiter && start < 0) {
+                start = i;
+            }
+        }
+
+        return create(folded);
+    }
+
+    private static void addFolded(@NonNull final TreeSet<String> folded, @Nullable final String scope) {
+        if (null == scope) {
+            return;
+        }
+
+        final String trimmed = scope.trim();
+
+        if (!trimmed.isEmpty()) {
+            folded.add(trimmed.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @NonNull
+    private static ScopeSet create(@NonNull final TreeSet<String> folded) {
+        if (folded.isEmpty()) {
+            return EMPTY;
+        }
+
+        final StringBuilder canonical = new StringBuilder();
+        for (final String scope : folded) {
+            if (canonical.length() > 0) {
+                canonical.append(DELIMITER);
+            }
+            canonical.append(scope);
+        }
+
+        return new ScopeSet(folded.toArray(new String[folded.size()]), canonical.toString());
+    }
+
+    /**
+     * @return The members, sorted and joined by a space. Equal sets have equal canonical strings.
+     */
+    @NonNull
+    public String toCanonicalString() {
+        return mCanonical;
+    }
+
+    /**
+     * @param other Another set.
+     * @return The members of this set which are not in the other set, e.g. the declined scopes
+     * when this set holds the requested scopes and the other the granted ones.
+     */
+    @NonNull
+    public List<String> difference(@NonNull final ScopeSet other) {
+        final List<String> difference = new ArrayList<>();
+
+        if (this == other) {
+            return difference;
+        }
+
+        for (final String scope : mScopes) {
+            if (Arrays.binarySearch(other.mScopes, scope) < 0) {
+                difference.add(scope);
+            }
+        }
+
+        return difference;
+    }
+
+    @Override
+    public int size() {
+        return mScopes.length;
+    }
+
+    @Override
+    public boolean contains(@Nullable final Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+
+        final String scope = ((String) o).trim().toLowerCase(Locale.ROOT);
+        return Arrays.binarySearch(mScopes, scope) >= 0;
+    }
+
+    @Override
+    public boolean containsAll(@NonNull final Collection<?> c) {
+        if (c instanceof ScopeSet) {
+            return ((ScopeSet) c).difference(this).isEmpty();
+        }
+
+        return super.containsAll(c);
+    }
+
+    @NonNull
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int mIndex;
+
+            @Override
+            public boolean hasNext() {
+                return mIndex < mScopes.length;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return mScopes[mIndex++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("ScopeSet is immutable.");
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o instanceof ScopeSet) {
+            final ScopeSet other = (ScopeSet) o;
+            return mHashCode == other.mHashCode && mCanonical.equals(other.mCanonical);
+        }
+
+        if (!(o instanceof Set) || ((Set<?>) o).size() != mScopes.length) {
+            return false;
+        }
+
+        // Exact membership, contains() folds the case of this side only.
+        for (final Object scope : (Set<?>) o) {
+            if (!(scope instanceof String) || Arrays.binarySearch(mScopes, scope) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+}
@@ -0,0 +1,263 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.microsoft.identity.common.adal.internal.cache.IStorageHelper;
+import com.microsoft.identity.common.adal.internal.cache.StorageHelper;
+import com.microsoft.identity.common.internal.cache.MsalOAuth2TokenCache;
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Process-wide memoizer of resources shared between PublicClientApplication instances (token
+ * cache, storage helpers, one-time initializers, etc).
+ * <p>
+ * A resource is created by the first {@link #get(String, ResourceFactory)} of its key and lives
+ * as long as the process: applications have no lifecycle which would let it be released.
+ * Resources are created outside of any global lock, so a slow creation only blocks the callers
+ * waiting for the same key. Resources which belong to an object, e.g. a token cache, are
+ * registered with {@link #get(Object, String, ResourceFactory)} and keyed by the identity of
+ * their owner.
+ */
+public final class SharedResourceRegistry {
+
+    private static final String TAG = SharedResourceRegistry.class.getSimpleName();
+
+    public static final String TOKEN_CACHE = "token_cache";
+    public static final String STORAGE_HELPER = "storage_helper";
+    public static final String TELEMETRY = "telemetry";
+    public static final String HTTP_CACHE_PREFIX = "http_cache:";
+    public static final String TOKEN_SHARE_UTILITY_PREFIX = "token_share_utility:";
+
+    /**
+     * Creates a shared resource the first time it is requested.
+     *
+     * @param <T> The type of the resource.
+     */
+    public interface ResourceFactory<T> {
+        @NonNull
+        T create();
+    }
+
+    private static final ConcurrentMap<String, FutureTask<Object>> sResources = new ConcurrentHashMap<>();
+
+    /**
+     * Resources of each owner, keyed by owner identity: owners need not implement equals, and two
+     * equal owners must not share resources.
+     */
+    private static final Map<Object, ConcurrentMap<String, FutureTask<Object>>> sOwnedResources = new IdentityHashMap<>();
+
+    private SharedResourceRegistry() {
+        // Utility class.
+    }
+
+    /**
+     * Gets the resource registered under the supplied key, creating it if necessary. Concurrent
+     * callers of the same key wait for a single creation. If the creation fails, the failure is
+     * rethrown to the callers waiting for it and the next call tries again.
+     *
+     * @param key     The key of the resource.
+     * @param factory The factory used if the resource does not yet exist.
+     * @param <T>     The type of the resource.
+     * @return The shared resource.
+     */
+    @NonNull
+    public static <T> T get(@NonNull final String key,
+                            @NonNull final ResourceFactory<T> factory) {
+        return get(sResources, key, factory);
+    }
+
+    /**
+     * Gets the resource registered under the supplied key for the supplied owner, creating it if
+     * necessary; see {@link #get(String, ResourceFactory)}. Each owner instance has its own
+     * resources, and holds them for the lifetime of the process.
+     *
+     * @param owner   The object the resource belongs to, compared by identity.
+     * @param key     The key of the resource.
+     * @param factory The factory used if the resource does not yet exist.
+     * @param <T>     The type of the resource.
+     * @return The shared resource.
+     */
+    @NonNull
+    public static <T> T get(@NonNull final Object owner,
+                            @NonNull final String key,
+                            @NonNull final ResourceFactory<T> factory) {
+        ConcurrentMap<String, FutureTask<Object>> resources;
+
+        synchronized (sOwnedResources) {
+            resources = sOwnedResources.get(owner);
+
+            if (null == resources) {
+                resources = new ConcurrentHashMap<>();
+                sOwnedResources.put(owner, resources);
+            }
+        }
+
+        return get(resources, key, factory);
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    private static <T> T get(@NonNull final ConcurrentMap<String, FutureTask<Object>> resources,
+                             @NonNull final String key,
+                             @NonNull final ResourceFactory<T> factory) {
+        final String methodName = ":get";
+
+        FutureTask<Object> resource = resources.get(key);
+
+        if (null == resource) {
+            final FutureTask<Object> creation = new FutureTask<>(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    Logger.verbose(TAG + methodName, "Creating shared resource [" + key + "]");
+                    return factory.create();
+                }
+            });
+
+            resource = resources.putIfAbsent(key, creation);
+
+            if (null == resource) {
+                resource = creation;
+                creation.run();
+            }
+        }
+
+        try {
+            return (T) getUninterruptibly(resource);
+        } catch (final ExecutionException e) {
+            resources.remove(key, resource);
+
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IllegalStateException("Failed to create shared resource [" + key + "]", cause);
+        }
+    }
+
+    private static Object getUninterruptibly(@NonNull final FutureTask<Object> resource) throws ExecutionException {
+        boolean interrupted = false;
+
+        try {
+            while (true) {
+                try {
+                    return resource.get();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets the process-wide {@link MsalOAuth2TokenCache}.
+     *
+     * @param context The application context.
+     * @return The shared token cache.
+     */
+    @NonNull
+    public static MsalOAuth2TokenCache getTokenCache(@NonNull final Context context) {
+        return get(TOKEN_CACHE, new ResourceFactory<MsalOAuth2TokenCache>() {
+            @NonNull
+            @Override
+            public MsalOAuth2TokenCache create() {
+                return MsalOAuth2TokenCache.create(context.getApplicationContext());
+            }
+        });
+    }
+
+    /**
+     * Gets the process-wide {@link IStorageHelper}.
+     *
+     * @param context The application context.
+     * @return The shared storage helper.
+     */
+    @NonNull
+    public static IStorageHelper getStorageHelper(@NonNull final Context context) {
+        return get(STORAGE_HELPER, new ResourceFactory<IStorageHelper>() {
+            @NonNull
+            @Override
+            public IStorageHelper create() {
+                return new StorageHelper(context.getApplicationContext());
+            }
+        });
+    }
+
+    /**
+     * Runs the supplied initializer unless it already ran under the same key in this process.
+     *
+     * @param key         The key of the initializer.
+     * @param initializer The one-time initialization to run.
+     * @return True if this call ran the initializer, false if an earlier call did.
+     */
+    public static boolean runOnce(@NonNull final String key,
+                                  @NonNull final Runnable initializer) {
+        final boolean[] ran = new boolean[1];
+
+        get(key, new ResourceFactory<Boolean>() {
+            @NonNull
+            @Override
+            public Boolean create() {
+                ran[0] = true;
+                initializer.run();
+                return Boolean.TRUE;
+            }
+        });
+
+        return ran[0];
+    }
+
+    @VisibleForTesting
+    static boolean contains(@NonNull final String key) {
+        return sResources.containsKey(key);
+    }
+
+    @VisibleForTesting
+    static void clear() {
+        sResources.clear();
+
+        synchronized (sOwnedResources) {
+            sOwnedResources.clear();
+        }
+    }
+}
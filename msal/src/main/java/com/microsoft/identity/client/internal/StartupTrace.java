@@ -0,0 +1,224 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records per-phase timings of PublicClientApplication initialization.
+ * <p>
+ * Phases on the critical path are timed with {@link #beginPhase()} / {@link #endPhase(String, long)},
+ * phases which are deferred to a background thread are run via
+ * {@link #runPhaseAsync(ExecutorService, String, Runnable)}. Background phases which must be done
+ * before the first request are run via {@link #runRequiredPhaseAsync(ExecutorService, String, Runnable)}
+ * and awaited with {@link #awaitRequiredPhases()}. Once the critical path has been marked complete
+ * and every background phase has finished, a single summary line is logged.
+ */
+public class StartupTrace {
+
+    private static final String TAG = StartupTrace.class.getSimpleName();
+
+    private final String mName;
+    private final long mStartNanos;
+    private final Map<String, Long> mPhaseDurationsNanos = new LinkedHashMap<>();
+    private final AtomicInteger mPendingAsyncPhases = new AtomicInteger(0);
+    private final AtomicBoolean mEmitted = new AtomicBoolean(false);
+    private final List<Future<?>> mRequiredPhases = new CopyOnWriteArrayList<>();
+    private volatile long mCriticalPathNanos = -1;
+
+    public StartupTrace(@NonNull final String name) {
+        mName = name;
+        mStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the start of a synchronous phase.
+     *
+     * @return The start timestamp to pass to {@link #endPhase(String, long)}.
+     */
+    public long beginPhase() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a synchronous phase.
+     *
+     * @param phase      The name of the phase.
+     * @param startNanos The value returned by {@link #beginPhase()}.
+     */
+    public void endPhase(@NonNull final String phase, final long startNanos) {
+        record(phase, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Runs a phase which is not required before the first API call on the supplied executor.
+     *
+     * @param executor The executor to run the phase on.
+     * @param phase    The name of the phase.
+     * @param runnable The work to run.
+     * @return The Future of the submitted work.
+     */
+    public Future<?> runPhaseAsync(@NonNull final ExecutorService executor,
+                                   @NonNull final String phase,
+                                   @NonNull final Runnable runnable) {
+        mPendingAsyncPhases.incrementAndGet();
+
+        return executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                final long start = System.nanoTime();
+                try {
+                    runnable.run();
+                } catch (final RuntimeException e) {
+                    Logger.error(TAG, "Deferred startup phase [" + phase + "] failed.", e);
+                } finally {
+                    record(phase + "(async)", System.nanoTime() - start);
+                    mPendingAsyncPhases.decrementAndGet();
+                    emitIfComplete();
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a phase which must be done before the first request, but not before the application
+     * object is handed out, on the supplied executor.
+     *
+     * @param executor The executor to run the phase on.
+     * @param phase    The name of the phase.
+     * @param runnable The work to run.
+     * @return The Future of the submitted work.
+     */
+    public Future<?> runRequiredPhaseAsync(@NonNull final ExecutorService executor,
+                                           @NonNull final String phase,
+                                           @NonNull final Runnable runnable) {
+        final Future<?> future = runPhaseAsync(executor, phase, runnable);
+        mRequiredPhases.add(future);
+        return future;
+    }
+
+    /**
+     * Blocks until every phase started with {@link #runRequiredPhaseAsync(ExecutorService, String, Runnable)}
+     * has finished. Returns immediately once they have.
+     */
+    public void awaitRequiredPhases() {
+        final String methodName = ":awaitRequiredPhases";
+
+        for (final Future<?> future : mRequiredPhases) {
+            if (future.isDone()) {
+                continue;
+            }
+
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Logger.warn(TAG + methodName, "Interrupted while waiting for startup to complete.");
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final ExecutionException e) {
+                // Failures are logged by the phase itself.
+            }
+        }
+    }
+
+    /**
+     * Marks the end of the critical path; the caller may now hand out the application object.
+     */
+    public void completeCriticalPath() {
+        mCriticalPathNanos = System.nanoTime() - mStartNanos;
+        emitIfComplete();
+    }
+
+    /**
+     * Gets the duration of each recorded phase, in milliseconds, in the order they completed.
+     *
+     * @return An unmodifiable Map of phase name to duration.
+     */
+    @NonNull
+    public Map<String, Long> getPhaseDurationsMillis() {
+        final Map<String, Long> result = new LinkedHashMap<>();
+
+        synchronized (mPhaseDurationsNanos) {
+            for (final Map.Entry<String, Long> entry : mPhaseDurationsNanos.entrySet()) {
+                result.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+            }
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Gets the time taken before the application object could be returned, or -1 if the critical
+     * path has not yet completed.
+     */
+    public long getCriticalPathMillis() {
+        return mCriticalPathNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(mCriticalPathNanos);
+    }
+
+    private void record(@NonNull final String phase, final long durationNanos) {
+        synchronized (mPhaseDurationsNanos) {
+            mPhaseDurationsNanos.put(phase, durationNanos);
+        }
+    }
+
+    private void emitIfComplete() {
+        if (mCriticalPathNanos < 0 || mPendingAsyncPhases.get() > 0) {
+            return;
+        }
+
+        if (!mEmitted.compareAndSet(false, true)) {
+            return;
+        }
+
+        final StringBuilder builder = new StringBuilder(mName)
+                .append(" startup trace: critical_path=")
+                .append(getCriticalPathMillis())
+                .append("ms total=")
+                .append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mStartNanos))
+                .append("ms");
+
+        for (final Map.Entry<String, Long> entry : getPhaseDurationsMillis().entrySet()) {
+            builder.append(' ')
+                    .append(entry.getKey())
+                    .append('=')
+                    .append(entry.getValue())
+                    .append("ms");
+        }
+
+        Logger.info(TAG, builder.toString());
+    }
+}
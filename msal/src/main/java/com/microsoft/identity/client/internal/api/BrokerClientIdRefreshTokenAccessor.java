@@ -29,6 +29,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.microsoft.identity.client.exception.MsalClientException;
+import com.microsoft.identity.client.internal.SharedResourceRegistry;
 import com.microsoft.identity.common.adal.internal.AuthenticationConstants;
 import com.microsoft.identity.common.internal.authscheme.BearerAuthenticationSchemeInternal;
 import com.microsoft.identity.common.internal.broker.BrokerValidator;
@@ -72,7 +73,7 @@ public final class BrokerClientIdRefreshTokenAccessor {
             throw new MsalClientException(NOT_ELIGIBLE_TO_USE_BROKER, "This can only be invoked by Broker apps with a valid signature hash.");
         }
 
-        final MsalOAuth2TokenCache tokenCache = MsalOAuth2TokenCache.create(context);
+        final MsalOAuth2TokenCache tokenCache = SharedResourceRegistry.getTokenCache(context);
         final ICacheRecord cacheRecord = getCacheRecordForIdentifier(tokenCache, accountObjectId);
 
         if (cacheRecord == null) {
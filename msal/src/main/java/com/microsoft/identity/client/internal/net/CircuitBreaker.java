@@ -0,0 +1,248 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal.net;
+
+import androidx.annotation.NonNull;
+
+import com.microsoft.identity.common.internal.logging.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-authority circuit breaker.
+ * <p>
+ * After a configured number of consecutive failures the circuit for an authority opens and requests
+ * to it are short-circuited. Once the open duration has elapsed a single trial request is let
+ * through (half-open); its outcome closes or re-opens the circuit. A trial whose outcome says nothing
+ * about the authority's health is released with {@link #releaseTrial}, and a trial which reports no
+ * outcome at all within the trial timeout re-opens the circuit.
+ */
+public class CircuitBreaker {
+
+    private static final String TAG = CircuitBreaker.class.getSimpleName();
+
+    /**
+     * How long a half-open circuit waits for the outcome of its trial request.
+     */
+    public static final long DEFAULT_TRIAL_TIMEOUT_MILLIS = 60 * 1000;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final class Circuit {
+        State mState = State.CLOSED;
+        int mConsecutiveFailures;
+        long mOpenedAtMillis;
+        boolean mTrialInFlight;
+        long mTrialStartedAtMillis;
+    }
+
+    private final ConcurrentMap<String, Circuit> mCircuits = new ConcurrentHashMap<>();
+    private final ResilienceMetrics mMetrics;
+    private volatile int mFailureThreshold;
+    private volatile long mOpenDurationMillis;
+    private final long mTrialTimeoutMillis;
+
+    public CircuitBreaker(final int failureThreshold,
+                          final long openDurationMillis,
+                          @NonNull final ResilienceMetrics metrics) {
+        this(failureThreshold, openDurationMillis, DEFAULT_TRIAL_TIMEOUT_MILLIS, metrics);
+    }
+
+    public CircuitBreaker(final int failureThreshold,
+                          final long openDurationMillis,
+                          final long trialTimeoutMillis,
+                          @NonNull final ResilienceMetrics metrics) {
+        mFailureThreshold = failureThreshold;
+        mOpenDurationMillis = openDurationMillis;
+        mTrialTimeoutMillis = trialTimeoutMillis;
+        mMetrics = metrics;
+    }
+
+    /**
+     * Updates the breaker settings.
+     *
+     * @param failureThreshold   The number of consecutive failures which open a circuit; 0 disables
+     *                           the breaker.
+     * @param openDurationMillis How long a circuit stays open before a trial request is allowed.
+     */
+    public void configure(final int failureThreshold, final long openDurationMillis) {
+        mFailureThreshold = failureThreshold;
+        mOpenDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * @param authority The authority host.
+     * @return True if a request to the authority may proceed.
+     */
+    public boolean allowRequest(@NonNull final String authority) {
+        final String methodName = ":allowRequest";
+
+        if (mFailureThreshold <= 0) {
+            return true;
+        }
+
+        final Circuit circuit = getCircuit(authority);
+
+        synchronized (circuit) {
+            final long now = System.currentTimeMillis();
+
+            switch (circuit.mState) {
+                case OPEN:
+                    if (now - circuit.mOpenedAtMillis >= mOpenDurationMillis) {
+                        Logger.info(TAG + methodName, "Circuit half-open for [" + authority + "]");
+                        circuit.mState = State.HALF_OPEN;
+                        startTrial(circuit, now);
+                        return true;
+                    }
+
+                    mMetrics.onShortCircuited();
+                    return false;
+                case HALF_OPEN:
+                    if (!circuit.mTrialInFlight) {
+                        startTrial(circuit, now);
+                        return true;
+                    }
+
+                    if (now - circuit.mTrialStartedAtMillis >= mTrialTimeoutMillis) {
+                        // The trial never reported back, treat it as failed.
+                        Logger.warn(TAG + methodName, "Trial timed out, circuit re-opened for [" + authority + "]");
+                        open(circuit, now);
+                    }
+
+                    mMetrics.onShortCircuited();
+                    return false;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Records a request which reached a healthy authority.
+     *
+     * @param authority The authority host.
+     */
+    public void recordSuccess(@NonNull final String authority) {
+        final String methodName = ":recordSuccess";
+        final Circuit circuit = getCircuit(authority);
+
+        synchronized (circuit) {
+            if (circuit.mState != State.CLOSED) {
+                Logger.info(TAG + methodName, "Circuit closed for [" + authority + "]");
+            }
+
+            circuit.mState = State.CLOSED;
+            circuit.mConsecutiveFailures = 0;
+            circuit.mTrialInFlight = false;
+        }
+    }
+
+    /**
+     * Records the end of a request whose outcome says nothing about the authority's health, e.g.
+     * a cancelled request. A half-open circuit lets the next request through as its trial.
+     *
+     * @param authority The authority host.
+     */
+    public void releaseTrial(@NonNull final String authority) {
+        final Circuit circuit = getCircuit(authority);
+
+        synchronized (circuit) {
+            circuit.mTrialInFlight = false;
+        }
+    }
+
+    /**
+     * Records a request which failed because the authority was unhealthy (5xx, 429, I/O error).
+     *
+     * @param authority The authority host.
+     */
+    public void recordFailure(@NonNull final String authority) {
+        final String methodName = ":recordFailure";
+
+        if (mFailureThreshold <= 0) {
+            return;
+        }
+
+        final Circuit circuit = getCircuit(authority);
+
+        synchronized (circuit) {
+            circuit.mConsecutiveFailures++;
+
+            if (circuit.mState == State.HALF_OPEN
+                    || (circuit.mState == State.CLOSED && circuit.mConsecutiveFailures >= mFailureThreshold)) {
+                Logger.warn(TAG + methodName, "Circuit opened for [" + authority + "]");
+                open(circuit, System.currentTimeMillis());
+            }
+        }
+    }
+
+    /**
+     * @return The state of every known circuit, keyed by authority host.
+     */
+    @NonNull
+    public Map<String, State> getStates() {
+        final Map<String, State> states = new HashMap<>();
+
+        for (final Map.Entry<String, Circuit> entry : mCircuits.entrySet()) {
+            synchronized (entry.getValue()) {
+                states.put(entry.getKey(), entry.getValue().mState);
+            }
+        }
+
+        return states;
+    }
+
+    private static void startTrial(@NonNull final Circuit circuit, final long now) {
+        circuit.mTrialInFlight = true;
+        circuit.mTrialStartedAtMillis = now;
+    }
+
+    private void open(@NonNull final Circuit circuit, final long now) {
+        circuit.mState = State.OPEN;
+        circuit.mOpenedAtMillis = now;
+        circuit.mTrialInFlight = false;
+        mMetrics.onCircuitOpened();
+    }
+
+    private Circuit getCircuit(@NonNull final String authority) {
+        Circuit circuit = mCircuits.get(authority);
+
+        if (null == circuit) {
+            final Circuit created = new Circuit();
+            circuit = mCircuits.putIfAbsent(authority, created);
+
+            if (null == circuit) {
+                circuit = created;
+            }
+        }
+
+        return circuit;
+    }
+}
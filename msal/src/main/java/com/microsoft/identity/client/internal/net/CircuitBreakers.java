@@ -0,0 +1,72 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal.net;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Holds the process-wide circuit breaker of silent token requests and its metrics.
+ */
+public final class CircuitBreakers {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_DURATION_MILLIS = 30000;
+
+    private static final ResilienceMetrics sMetrics = new ResilienceMetrics();
+
+    private static final CircuitBreaker sCircuitBreaker = new CircuitBreaker(
+            DEFAULT_FAILURE_THRESHOLD,
+            DEFAULT_OPEN_DURATION_MILLIS,
+            sMetrics
+    );
+
+    private CircuitBreakers() {
+        // Utility class.
+    }
+
+    /**
+     * Configures the circuit breaker.
+     *
+     * @param failureThreshold   Consecutive failures which open a circuit; 0 disables the breaker.
+     * @param openDurationMillis How long a circuit stays open.
+     */
+    public static void configure(final int failureThreshold, final long openDurationMillis) {
+        sCircuitBreaker.configure(failureThreshold, openDurationMillis);
+    }
+
+    /**
+     * @return The per-authority circuit breaker, shared by silent token requests.
+     */
+    @NonNull
+    public static CircuitBreaker get() {
+        return sCircuitBreaker;
+    }
+
+    /**
+     * @return The circuit breaker metrics.
+     */
+    @NonNull
+    public static ResilienceMetrics getMetrics() {
+        return sMetrics;
+    }
+}
@@ -0,0 +1,60 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal.net;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the behavior of the circuit breaker.
+ */
+public class ResilienceMetrics {
+
+    public static final String CIRCUIT_OPENED = "circuit_opened";
+    public static final String SHORT_CIRCUITED = "short_circuited";
+
+    private final AtomicLong mCircuitOpened = new AtomicLong();
+    private final AtomicLong mShortCircuited = new AtomicLong();
+
+    void onCircuitOpened() {
+        mCircuitOpened.incrementAndGet();
+    }
+
+    void onShortCircuited() {
+        mShortCircuited.incrementAndGet();
+    }
+
+    /**
+     * @return A point-in-time copy of every counter, keyed by counter name.
+     */
+    @NonNull
+    public Map<String, Long> snapshot() {
+        final Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put(CIRCUIT_OPENED, mCircuitOpened.get());
+        snapshot.put(SHORT_CIRCUITED, mShortCircuited.get());
+        return snapshot;
+    }
+}
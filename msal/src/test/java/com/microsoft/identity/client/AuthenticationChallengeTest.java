@@ -0,0 +1,165 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client;
+
+import com.microsoft.identity.client.claims.AuthenticationChallenge;
+import com.microsoft.identity.client.claims.ClaimsRequest;
+import com.microsoft.identity.client.claims.WWWAuthenticateHeader;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+import static com.microsoft.identity.client.WWWAuthenticateHeaderTest.DEVICE_ID_CLAIM_NAME;
+import static com.microsoft.identity.client.WWWAuthenticateHeaderTest.HEADER_DOUBLE_QUOTE;
+import static com.microsoft.identity.client.WWWAuthenticateHeaderTest.HEADER_NOQUOTE;
+import static com.microsoft.identity.client.WWWAuthenticateHeaderTest.HEADER_SINGLE_QUOTE;
+
+@RunWith(RobolectricTestRunner.class)
+public class AuthenticationChallengeTest {
+
+    private static final String CAE_CLAIMS = "eyJhY2Nlc3NfdG9rZW4iOnsibmJmIjp7ImVzc2VudGlhbCI6dHJ1ZSwidmFsdWUiOiIxNjA0MTA2NjUxIn19fQ==";
+    private static final String HEADER_CAE = "Bearer realm=\"\", "
+            + "authorization_uri=\"https://login.microsoftonline.com/common/oauth2/authorize\", "
+            + "client_id=\"00000003-0000-0000-c000-000000000000\", "
+            + "error=\"insufficient_claims\", "
+            + "claims=\"" + CAE_CLAIMS + "\"";
+    private static final String HEADER_MULTIPLE = "Negotiate, Basic dXNlcjpwYXNzd29yZA==, "
+            + "PoP realm=\"contoso\", nonce=\"a\\\"b\", Bearer error=insufficient_claims";
+
+    @Test
+    public void testParseBearerChallenge() {
+        final List<AuthenticationChallenge> challenges = WWWAuthenticateHeader.parse(HEADER_CAE);
+
+        Assert.assertEquals(1, challenges.size());
+
+        final AuthenticationChallenge challenge = challenges.get(0);
+        Assert.assertEquals("Bearer", challenge.getScheme());
+        Assert.assertTrue(challenge.isScheme("bearer"));
+        Assert.assertNull(challenge.getToken68());
+        Assert.assertEquals(5, challenge.getParameterCount());
+        Assert.assertEquals("", challenge.getParameter("realm"));
+        Assert.assertEquals("insufficient_claims", challenge.getParameter("ERROR"));
+        Assert.assertEquals(CAE_CLAIMS, challenge.getParameter("claims"));
+        Assert.assertEquals("client_id", challenge.getParameterName(2));
+        Assert.assertFalse(challenge.hasParameter("nonce"));
+    }
+
+    @Test
+    public void testParseMultipleChallenges() {
+        final List<AuthenticationChallenge> challenges = WWWAuthenticateHeader.parse(HEADER_MULTIPLE);
+
+        Assert.assertEquals(4, challenges.size());
+
+        Assert.assertEquals("Negotiate", challenges.get(0).getScheme());
+        Assert.assertNull(challenges.get(0).getToken68());
+        Assert.assertEquals(0, challenges.get(0).getParameterCount());
+
+        Assert.assertEquals("Basic", challenges.get(1).getScheme());
+        Assert.assertEquals("dXNlcjpwYXNzd29yZA==", challenges.get(1).getToken68());
+
+        Assert.assertEquals("PoP", challenges.get(2).getScheme());
+        Assert.assertEquals("contoso", challenges.get(2).getParameter("realm"));
+        Assert.assertEquals("a\"b", challenges.get(2).getParameter("nonce"));
+
+        Assert.assertEquals("Bearer", challenges.get(3).getScheme());
+        Assert.assertEquals("insufficient_claims", challenges.get(3).getParameter("error"));
+    }
+
+    @Test
+    public void testParseHeaderWithoutScheme() {
+        for (final String header : new String[]{HEADER_SINGLE_QUOTE, HEADER_DOUBLE_QUOTE, HEADER_NOQUOTE}) {
+            final List<AuthenticationChallenge> challenges = WWWAuthenticateHeader.parse(header);
+
+            Assert.assertEquals(1, challenges.size());
+
+            final AuthenticationChallenge challenge = challenges.get(0);
+            Assert.assertNull(challenge.getScheme());
+            Assert.assertEquals(3, challenge.getParameterCount());
+            Assert.assertEquals("", challenge.getParameterValue(0));
+            Assert.assertEquals("{\"access_token\":{\"device_id\":null}}", challenge.getParameter("claims"));
+            Assert.assertEquals("", challenge.getParameterValue(2));
+
+            final ClaimsRequest claimsRequest = challenge.getClaimsRequest();
+            Assert.assertEquals(DEVICE_ID_CLAIM_NAME, claimsRequest.getAccessTokenClaimsRequested().get(0).getName());
+        }
+    }
+
+    @Test
+    public void testParseEmptyHeader() {
+        Assert.assertTrue(WWWAuthenticateHeader.parse(null).isEmpty());
+        Assert.assertTrue(WWWAuthenticateHeader.parse("").isEmpty());
+        Assert.assertTrue(WWWAuthenticateHeader.parse(" , ").isEmpty());
+    }
+
+    @Test
+    public void testGetBase64EncodedClaimsRequest() {
+        final ClaimsRequest claimsRequest = WWWAuthenticateHeader.parse(HEADER_CAE).get(0).getClaimsRequest();
+
+        Assert.assertEquals("nbf", claimsRequest.getAccessTokenClaimsRequested().get(0).getName());
+        Assert.assertEquals(Boolean.TRUE,
+                claimsRequest.getAccessTokenClaimsRequested().get(0).getAdditionalInformation().getEssential());
+    }
+
+    @Test
+    public void testGetClaimsRequestWithoutClaims() {
+        Assert.assertNull(WWWAuthenticateHeader.parse(HEADER_MULTIPLE).get(2).getClaimsRequest());
+    }
+
+    @Test
+    public void testGetMalformedClaimsRequest() {
+        final String[] malformedClaims = {
+                // base64 which does not decode to JSON
+                "bm90IGpzb24=",
+                // base64 of a JSON array
+                "WzEsMl0=",
+                // base64 of a claims request whose access_token is not an object
+                "eyJhY2Nlc3NfdG9rZW4iOiJuYmYifQ==",
+                // not base64
+                "not*base64",
+                "{not json",
+                "{\\\"access_token\\\":5}"
+        };
+
+        for (final String claims : malformedClaims) {
+            final List<AuthenticationChallenge> challenges =
+                    WWWAuthenticateHeader.parse("Bearer error=\"insufficient_claims\", claims=\"" + claims + "\"");
+
+            Assert.assertEquals(1, challenges.size());
+            Assert.assertNull(claims, challenges.get(0).getClaimsRequest());
+        }
+    }
+
+    @Test
+    public void testParseMatchesClaimsDirectiveLookup() {
+        for (final String header : new String[]{HEADER_NOQUOTE, HEADER_SINGLE_QUOTE, HEADER_DOUBLE_QUOTE}) {
+            Assert.assertEquals(
+                    WWWAuthenticateHeader.getClaimsRequestFromWWWAuthenticateHeaderValue(header),
+                    WWWAuthenticateHeader.parse(header).get(0).getClaimsRequest()
+            );
+        }
+    }
+}
@@ -24,8 +24,10 @@ package com.microsoft.identity.client;
 
 import com.microsoft.identity.common.internal.cache.CacheRecord;
 import com.microsoft.identity.common.internal.cache.ICacheRecord;
+import com.microsoft.identity.common.internal.dto.AccessTokenRecord;
 import com.microsoft.identity.common.internal.dto.AccountRecord;
 import com.microsoft.identity.common.internal.dto.IdTokenRecord;
+import com.microsoft.identity.common.internal.dto.RefreshTokenRecord;
 import com.microsoft.identity.internal.testutils.mocks.MockTokenCreator;
 
 import org.junit.Assert;
@@ -35,6 +37,8 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -112,4 +116,113 @@ public class AuthenticationResultTest {
         Assert.assertNull(authenticationResult.getCorrelationId());
     }
 
+    @Test
+    public void testAccessTokenValuesArePrecomputed() {
+        final AccessTokenRecord accessTokenRecord = new AccessTokenRecord();
+        accessTokenRecord.setSecret("secret");
+        accessTokenRecord.setAccessTokenType("Bearer");
+        accessTokenRecord.setExpiresOn("1600000000");
+        accessTokenRecord.setTarget("user.read  openid profile ");
+        ((CacheRecord) mCacheRecords.get(0)).setAccessToken(accessTokenRecord);
+
+        final AuthenticationResult authenticationResult = new AuthenticationResult(mCacheRecords, null);
+
+        Assert.assertEquals("Bearer secret", authenticationResult.getAuthorizationHeader());
+        Assert.assertEquals(1600000000000L, authenticationResult.getExpiresOnEpochMillis());
+        Assert.assertEquals(1600000000000L, authenticationResult.getExpiresOn().getTime());
+        Assert.assertArrayEquals(
+                new String[]{"user.read", "openid", "profile"},
+                authenticationResult.getScope()
+        );
+        Assert.assertEquals(
+                Arrays.asList("user.read", "openid", "profile"),
+                new ArrayList<>(authenticationResult.getScopeSet())
+        );
+        Assert.assertSame(authenticationResult.getScopeSet(), authenticationResult.getScopeSet());
+    }
+
+    @Test
+    public void testMalformedExpirationDoesNotFailConstruction() {
+        final AccessTokenRecord accessTokenRecord = new AccessTokenRecord();
+        accessTokenRecord.setSecret("secret");
+        accessTokenRecord.setAccessTokenType("Bearer");
+        accessTokenRecord.setExpiresOn("not-a-number");
+        accessTokenRecord.setTarget("user.read");
+        ((CacheRecord) mCacheRecords.get(0)).setAccessToken(accessTokenRecord);
+
+        final AuthenticationResult authenticationResult = new AuthenticationResult(mCacheRecords, null);
+
+        Assert.assertEquals(0, authenticationResult.getExpiresOnEpochMillis());
+        Assert.assertEquals("Bearer secret", authenticationResult.getAuthorizationHeader());
+    }
+
+    @Test
+    public void testMissingAccessTokenKeepsNonNullValues() {
+        ((CacheRecord) mCacheRecords.get(0)).setAccessToken(null);
+
+        final AuthenticationResult authenticationResult = new AuthenticationResult(mCacheRecords, null);
+
+        Assert.assertNotNull(authenticationResult.getAuthorizationHeader());
+        Assert.assertEquals(0, authenticationResult.getScope().length);
+        Assert.assertTrue(authenticationResult.getScopeSet().isEmpty());
+    }
+
+    @Test
+    public void testAuthenticationResultsShareCanonicalAccount() {
+        final AuthenticationResult first = new AuthenticationResult(mCacheRecords, null);
+        final AuthenticationResult second = new AuthenticationResult(mCacheRecords, null);
+
+        Assert.assertNotNull(first.getAccount());
+        Assert.assertSame(first.getAccount(), second.getAccount());
+    }
+
+    @Test
+    public void testAccountIdentityKeyChangesWithIdToken() {
+        final IdTokenRecord idTokenRecord = new IdTokenRecord();
+        idTokenRecord.setSecret(mCacheRecords.get(0).getIdToken().getSecret() + "-reissued");
+
+        final CacheRecord cacheRecord = new CacheRecord();
+        cacheRecord.setAccount(mCacheRecords.get(0).getAccount());
+        cacheRecord.setIdToken(idTokenRecord);
+
+        final List<ICacheRecord> cacheRecords = new ArrayList<>();
+        cacheRecords.add(cacheRecord);
+
+        Assert.assertEquals(
+                AccountIdentityCache.createKey(mCacheRecords),
+                AccountIdentityCache.createKey(new ArrayList<>(mCacheRecords))
+        );
+        Assert.assertNotEquals(
+                AccountIdentityCache.createKey(mCacheRecords),
+                AccountIdentityCache.createKey(cacheRecords)
+        );
+    }
+
+    @Test
+    public void testAccountIdentityKeyDoesNotContainIdToken() {
+        final String key = AccountIdentityCache.createKey(mCacheRecords);
+
+        Assert.assertNotNull(key);
+        Assert.assertFalse(key.contains(mCacheRecords.get(0).getIdToken().getSecret()));
+    }
+
+    @Test
+    public void testResultDoesNotRetainCredentials() {
+        final CacheRecord cacheRecord = new CacheRecord();
+        cacheRecord.setAccount(mCacheRecords.get(0).getAccount());
+        cacheRecord.setIdToken(mCacheRecords.get(0).getIdToken());
+        cacheRecord.setAccessToken(new AccessTokenRecord());
+        cacheRecord.setRefreshToken(new RefreshTokenRecord());
+
+        final List<ICacheRecord> retained = AuthenticationResult.retainAccountRecords(
+                Collections.<ICacheRecord>singletonList(cacheRecord)
+        );
+
+        Assert.assertEquals(1, retained.size());
+        Assert.assertSame(cacheRecord.getAccount(), retained.get(0).getAccount());
+        Assert.assertSame(cacheRecord.getIdToken(), retained.get(0).getIdToken());
+        Assert.assertNull(retained.get(0).getAccessToken());
+        Assert.assertNull(retained.get(0).getRefreshToken());
+    }
+
 }
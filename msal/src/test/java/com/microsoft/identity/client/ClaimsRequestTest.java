@@ -29,6 +29,10 @@ import junit.framework.Assert;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class ClaimsRequestTest {
 
     public final static String DEVICE_ID_CLAIM_NAME = "device_id";
@@ -100,6 +104,80 @@ public class ClaimsRequestTest {
 
     }
 
+    @Test
+    public void testSerializedJsonIsReusedUntilMutation() {
+        ClaimsRequest cr = new ClaimsRequest();
+        cr.requestClaimInAccessToken(DEVICE_ID_CLAIM_NAME, null);
+
+        final String first = ClaimsRequest.getJsonStringFromClaimsRequest(cr);
+        Assert.assertSame(first, ClaimsRequest.getJsonStringFromClaimsRequest(cr));
+
+        cr.requestClaimInIdToken(POLICY_ID_CLAIM_NAME, null);
+        Assert.assertEquals(
+                "{\"id_token\":{\"policy_id\":null},\"access_token\":{\"device_id\":null}}",
+                ClaimsRequest.getJsonStringFromClaimsRequest(cr)
+        );
+    }
+
+    @Test
+    public void testSerializedJsonIsInvalidatedByNestedMutation() {
+        final RequestedClaimAdditionalInformation info = new RequestedClaimAdditionalInformation();
+        ClaimsRequest cr = new ClaimsRequest();
+        cr.requestClaimInAccessToken(DEVICE_ID_CLAIM_NAME, info);
+
+        ClaimsRequest.getJsonStringFromClaimsRequest(cr);
+        info.setEssential(true);
+
+        Assert.assertEquals(
+                "{\"access_token\":{\"device_id\":{\"essential\":true}}}",
+                ClaimsRequest.getJsonStringFromClaimsRequest(cr)
+        );
+    }
+
+    @Test
+    public void testSerializedJsonIsInvalidatedByMutatedValue() {
+        final List<Object> value = new ArrayList<Object>(Arrays.asList("a"));
+        final RequestedClaimAdditionalInformation info = new RequestedClaimAdditionalInformation();
+        info.setValue(value);
+        ClaimsRequest cr = new ClaimsRequest();
+        cr.requestClaimInAccessToken(DEVICE_ID_CLAIM_NAME, info);
 
+        ClaimsRequest.getJsonStringFromClaimsRequest(cr);
+        value.add("b");
+
+        Assert.assertEquals(
+                "{\"access_token\":{\"device_id\":{\"essential\":false,\"value\":\"[a, b]\"}}}",
+                ClaimsRequest.getJsonStringFromClaimsRequest(cr)
+        );
+    }
+
+    @Test
+    public void testSerializedJsonIsNotReusedForUncopyableValue() {
+        final StringBuilder value = new StringBuilder("a");
+        final RequestedClaimAdditionalInformation info = new RequestedClaimAdditionalInformation();
+        info.setValue(value);
+        ClaimsRequest cr = new ClaimsRequest();
+        cr.requestClaimInAccessToken(DEVICE_ID_CLAIM_NAME, info);
+
+        ClaimsRequest.getJsonStringFromClaimsRequest(cr);
+        value.append("b");
+
+        Assert.assertEquals(
+                "{\"access_token\":{\"device_id\":{\"essential\":false,\"value\":\"ab\"}}}",
+                ClaimsRequest.getJsonStringFromClaimsRequest(cr)
+        );
+    }
+
+    @Test
+    public void testCopyIsEqualAndIndependent() {
+        ClaimsRequest cr = new ClaimsRequest();
+        cr.requestClaimInAccessToken(DEVICE_ID_CLAIM_NAME, null);
+
+        final ClaimsRequest copy = cr.copy();
+        Assert.assertEquals(cr, copy);
+
+        copy.requestClaimInUserInfo(POLICY_ID_CLAIM_NAME, null);
+        Assert.assertFalse(cr.equals(copy));
+    }
 
 }
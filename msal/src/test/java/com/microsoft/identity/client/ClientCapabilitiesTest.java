@@ -52,6 +52,31 @@ public final class ClientCapabilitiesTest {
         Assert.assertNotEquals(clientCapabilities, getAccessTokenClaimsRequest(CommandParametersAdapter.CLIENT_CAPABILITIES_CLAIM, CP1_CAPABILITY));
     }
 
+    @Test
+    public void testAddClientCapabilitiesDoesNotModifyClaimsRequest() {
+        final ClaimsRequest requested = getAccessTokenClaimsRequest("device_id", "value");
+        final ClaimsRequest original = requested.copy();
+
+        final ClaimsRequest merged = CommandParametersAdapter.addClientCapabilitiesToClaimsRequest(requested, CP1_CAPABILITY);
+
+        Assert.assertEquals(original, requested);
+        Assert.assertEquals(2, merged.getAccessTokenClaimsRequested().size());
+    }
+
+    @Test
+    public void testAddClientCapabilitiesReflectsMutatedClaimsRequest() {
+        final ClaimsRequest requested = getAccessTokenClaimsRequest("device_id", "value");
+        CommandParametersAdapter.addClientCapabilitiesToClaimsRequest(requested, CP1_CAPABILITY);
+
+        requested.getAccessTokenClaimsRequested().get(0).getAdditionalInformation().getValues().add("other");
+        final ClaimsRequest merged = CommandParametersAdapter.addClientCapabilitiesToClaimsRequest(requested, CP1_CAPABILITY);
+
+        Assert.assertEquals(
+                Arrays.<Object>asList("value", "other"),
+                merged.getAccessTokenClaimsRequested().get(0).getAdditionalInformation().getValues()
+        );
+    }
+
     private ClaimsRequest getAccessTokenClaimsRequest(@NonNull String claimName, @NonNull String claimValue) {
         ClaimsRequest cp1ClaimsRequest = new ClaimsRequest();
         RequestedClaimAdditionalInformation info = new RequestedClaimAdditionalInformation();
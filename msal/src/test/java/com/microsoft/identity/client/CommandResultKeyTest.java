@@ -0,0 +1,103 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client;
+
+import com.microsoft.identity.client.internal.CommandResultCache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+
+@RunWith(RobolectricTestRunner.class)
+public class CommandResultKeyTest {
+
+    private static final String SILENT_REQUEST_KEY = "client|uid.utid|https://login.microsoftonline.com/common|user.read|";
+
+    @Test
+    public void testIdenticalBearerRequestsShareKey() {
+        final String key = PublicClientApplication.getCommandResultKey(bearerParameters(), SILENT_REQUEST_KEY);
+
+        Assert.assertNotNull(key);
+        Assert.assertEquals(key, PublicClientApplication.getCommandResultKey(bearerParameters(), SILENT_REQUEST_KEY));
+    }
+
+    @Test
+    public void testPopResultIsNotCached() throws MalformedURLException {
+        Assert.assertNull(PublicClientApplication.getCommandResultKey(
+                popParameters("https://graph.microsoft.com/v1.0/me"),
+                SILENT_REQUEST_KEY
+        ));
+    }
+
+    @Test
+    public void testForceRefreshIsNotCached() {
+        final AcquireTokenSilentParameters parameters = bearerParameters();
+        parameters.setForceRefresh(true);
+
+        Assert.assertNull(PublicClientApplication.getCommandResultKey(parameters, SILENT_REQUEST_KEY));
+    }
+
+    @Test
+    public void testBearerRequestAfterPopRequest() throws MalformedURLException {
+        final CommandResultCache cache = new CommandResultCache(10, 30000);
+        final String popKey = PublicClientApplication.getCommandResultKey(
+                popParameters("https://graph.microsoft.com/v1.0/me"),
+                SILENT_REQUEST_KEY
+        );
+
+        // The PoP result is never stored, so the Bearer request with the same scopes misses.
+        Assert.assertNull(popKey);
+
+        final String bearerKey = PublicClientApplication.getCommandResultKey(bearerParameters(), SILENT_REQUEST_KEY);
+
+        Assert.assertNotNull(bearerKey);
+        Assert.assertNull(cache.get(bearerKey, String.class));
+        Assert.assertEquals(Long.valueOf(1), cache.getStatistics().get(CommandResultCache.STAT_MISSES));
+    }
+
+    private static AcquireTokenSilentParameters bearerParameters() {
+        return new AcquireTokenSilentParameters.Builder()
+                .withScopes(Collections.singletonList("user.read"))
+                .fromAuthority("https://login.microsoftonline.com/common")
+                .build();
+    }
+
+    private static AcquireTokenSilentParameters popParameters(final String url) throws MalformedURLException {
+        return new AcquireTokenSilentParameters.Builder()
+                .withScopes(Collections.singletonList("user.read"))
+                .fromAuthority("https://login.microsoftonline.com/common")
+                .withAuthenticationScheme(
+                        PoPAuthenticationScheme.builder()
+                                .withHttpMethod(HttpMethod.GET)
+                                .withUrl(new URL(url))
+                                .withNonce("nonce")
+                                .build()
+                )
+                .build();
+    }
+}
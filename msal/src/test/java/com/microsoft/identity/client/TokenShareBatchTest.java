@@ -0,0 +1,190 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client;
+
+import com.microsoft.identity.client.exception.MsalUiRequiredException;
+import com.microsoft.identity.client.internal.NegativeResultCache;
+import com.microsoft.identity.common.adal.internal.tokensharing.ITokenShareResultInternal;
+import com.microsoft.identity.common.adal.internal.tokensharing.TokenShareUtility;
+import com.microsoft.identity.common.exception.ClientException;
+import com.microsoft.identity.common.internal.authorities.AzureActiveDirectoryAudience;
+import com.microsoft.identity.common.internal.dto.AccountRecord;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+@RunWith(RobolectricTestRunner.class)
+public class TokenShareBatchTest {
+
+    private static final String MSA_LOCAL_ACCOUNT_ID = "00000000-0000-0000-1111-000000000000";
+    private static final String AAD_LOCAL_ACCOUNT_ID = "11111111-1111-1111-1111-111111111111";
+    private static final String AAD_HOME_TENANT_ID = "22222222-2222-2222-2222-222222222222";
+
+    private TokenShareUtility mTokenShareUtility;
+
+    @Before
+    public void setUp() {
+        mTokenShareUtility = Mockito.mock(TokenShareUtility.class);
+    }
+
+    @Test
+    public void testExportUsesFormatOfEachAccount() throws Exception {
+        final ITokenShareResultInternal msaResult = tokenShareResult("msa-rt", TokenShareResult.TokenShareExportFormat.RAW);
+        final ITokenShareResultInternal aadResult = tokenShareResult("aad-blob", TokenShareResult.TokenShareExportFormat.SSO_STATE_SERIALIZER_BLOB);
+        Mockito.when(mTokenShareUtility.getMsaFamilyRefreshTokenWithMetadata(MSA_LOCAL_ACCOUNT_ID)).thenReturn(msaResult);
+        Mockito.when(mTokenShareUtility.getOrgIdFamilyRefreshTokenWithMetadata(AAD_LOCAL_ACCOUNT_ID)).thenReturn(aadResult);
+
+        final TokenShareBatchResult batchResult = PublicClientApplication.getEachFamilyRefreshTokenWithMetadata(
+                mTokenShareUtility,
+                Arrays.asList(msaAccount(), aadAccount(AAD_HOME_TENANT_ID), aadAccount("guest-tenant"))
+        );
+
+        Assert.assertTrue(batchResult.isComplete());
+        Assert.assertEquals(2, batchResult.getSuccessCount());
+        Assert.assertEquals("msa-rt", batchResult.getResults().get(0).getRefreshToken());
+        Assert.assertEquals(TokenShareResult.TokenShareExportFormat.RAW, batchResult.getResults().get(0).getFormat());
+        Assert.assertEquals("aad-blob", batchResult.getResults().get(1).getRefreshToken());
+        // The guest profile shares the family refresh token of its home account.
+        Mockito.verify(mTokenShareUtility, Mockito.times(1)).getOrgIdFamilyRefreshTokenWithMetadata(AAD_LOCAL_ACCOUNT_ID);
+    }
+
+    @Test
+    public void testExportReportsFailurePerAccount() throws Exception {
+        Mockito.when(mTokenShareUtility.getMsaFamilyRefreshTokenWithMetadata(MSA_LOCAL_ACCOUNT_ID))
+                .thenThrow(new IllegalStateException("No family refresh token."));
+        Mockito.when(mTokenShareUtility.getOrgIdFamilyRefreshTokenWithMetadata(AAD_LOCAL_ACCOUNT_ID))
+                .thenReturn(tokenShareResult("aad-blob", TokenShareResult.TokenShareExportFormat.SSO_STATE_SERIALIZER_BLOB));
+
+        final TokenShareBatchResult batchResult = PublicClientApplication.getEachFamilyRefreshTokenWithMetadata(
+                mTokenShareUtility,
+                Arrays.asList(msaAccount(), aadAccount(AAD_HOME_TENANT_ID))
+        );
+
+        Assert.assertFalse(batchResult.isComplete());
+        Assert.assertEquals(1, batchResult.getSuccessCount());
+        Assert.assertEquals("aad-blob", batchResult.getResults().get(0).getRefreshToken());
+        Assert.assertEquals(1, batchResult.getFailures().size());
+        Assert.assertEquals(
+                ClientException.TOKEN_CACHE_ITEM_NOT_FOUND,
+                batchResult.getFailures().get(MSA_LOCAL_ACCOUNT_ID).getErrorCode()
+        );
+    }
+
+    @Test
+    public void testExportWithoutAccounts() {
+        final TokenShareBatchResult batchResult = PublicClientApplication.getEachFamilyRefreshTokenWithMetadata(
+                mTokenShareUtility,
+                null
+        );
+
+        Assert.assertTrue(batchResult.isComplete());
+        Assert.assertEquals(0, batchResult.getSuccessCount());
+        Mockito.verifyZeroInteractions(mTokenShareUtility);
+    }
+
+    @Test
+    public void testImportSkipsBadEntries() throws Exception {
+        Mockito.doThrow(new IllegalArgumentException("Malformed blob."))
+                .when(mTokenShareUtility).saveOrgIdFamilyRefreshToken("malformed-blob");
+
+        final TokenShareBatchResult batchResult = PublicClientApplication.saveEachFamilyRefreshToken(
+                mTokenShareUtility,
+                Arrays.asList(
+                        tokenShareResult("msa-rt", TokenShareResult.TokenShareExportFormat.RAW),
+                        null,
+                        tokenShareResult("", TokenShareResult.TokenShareExportFormat.RAW),
+                        tokenShareResult("malformed-blob", TokenShareResult.TokenShareExportFormat.SSO_STATE_SERIALIZER_BLOB),
+                        tokenShareResult("aad-blob", TokenShareResult.TokenShareExportFormat.SSO_STATE_SERIALIZER_BLOB)
+                )
+        );
+
+        Assert.assertEquals(2, batchResult.getSuccessCount());
+        Assert.assertTrue(batchResult.getResults().isEmpty());
+        Assert.assertEquals(Arrays.asList("1", "2", "3"), new ArrayList<>(batchResult.getFailures().keySet()));
+        Assert.assertEquals(
+                ClientException.TOKEN_SHARING_MSA_PERSISTENCE_ERROR,
+                batchResult.getFailures().get("2").getErrorCode()
+        );
+        Assert.assertEquals(
+                ClientException.TOKEN_SHARING_DESERIALIZATION_ERROR,
+                batchResult.getFailures().get("3").getErrorCode()
+        );
+        Mockito.verify(mTokenShareUtility).saveMsaFamilyRefreshToken("msa-rt");
+        Mockito.verify(mTokenShareUtility).saveOrgIdFamilyRefreshToken("aad-blob");
+    }
+
+    @Test
+    public void testImportForgetsRememberedFailures() {
+        final String key = NegativeResultCache.createKey(
+                "client-id",
+                AAD_LOCAL_ACCOUNT_ID + "." + AAD_HOME_TENANT_ID,
+                "https://login.microsoftonline.com/common",
+                Arrays.asList("User.Read"),
+                null
+        );
+        PublicClientApplication.sNegativeResultCache.put(
+                key,
+                AAD_LOCAL_ACCOUNT_ID + "." + AAD_HOME_TENANT_ID,
+                new MsalUiRequiredException(MsalUiRequiredException.INVALID_GRANT, "Refresh token revoked."),
+                60000
+        );
+
+        final TokenShareBatchResult batchResult = PublicClientApplication.saveEachFamilyRefreshToken(
+                mTokenShareUtility,
+                Arrays.asList(tokenShareResult("aad-blob", TokenShareResult.TokenShareExportFormat.SSO_STATE_SERIALIZER_BLOB))
+        );
+
+        Assert.assertEquals(1, batchResult.getSuccessCount());
+        Assert.assertNull(PublicClientApplication.sNegativeResultCache.get(key));
+    }
+
+    private static AccountRecord msaAccount() {
+        final AccountRecord accountRecord = new AccountRecord();
+        accountRecord.setHomeAccountId(MSA_LOCAL_ACCOUNT_ID + "." + AzureActiveDirectoryAudience.MSA_MEGA_TENANT_ID);
+        accountRecord.setLocalAccountId(MSA_LOCAL_ACCOUNT_ID);
+        accountRecord.setRealm(AzureActiveDirectoryAudience.MSA_MEGA_TENANT_ID);
+        return accountRecord;
+    }
+
+    private static AccountRecord aadAccount(final String realm) {
+        final AccountRecord accountRecord = new AccountRecord();
+        accountRecord.setHomeAccountId(AAD_LOCAL_ACCOUNT_ID + "." + AAD_HOME_TENANT_ID);
+        accountRecord.setLocalAccountId(AAD_HOME_TENANT_ID.equals(realm) ? AAD_LOCAL_ACCOUNT_ID : "guest-" + realm);
+        accountRecord.setRealm(realm);
+        return accountRecord;
+    }
+
+    private static ITokenShareResultInternal tokenShareResult(final String refreshToken, final String format) {
+        final ITokenShareResultInternal result = Mockito.mock(ITokenShareResultInternal.class);
+        Mockito.when(result.getRefreshToken()).thenReturn(refreshToken);
+        Mockito.when(result.getFormat()).thenReturn(format);
+        return result;
+    }
+}
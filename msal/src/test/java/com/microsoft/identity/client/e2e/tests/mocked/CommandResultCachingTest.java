@@ -24,7 +24,10 @@ package com.microsoft.identity.client.e2e.tests.mocked;
 
 import com.microsoft.identity.client.AcquireTokenParameters;
 import com.microsoft.identity.client.AcquireTokenSilentParameters;
+import com.microsoft.identity.client.IAuthenticationResult;
 import com.microsoft.identity.client.Logger;
+import com.microsoft.identity.client.PublicClientApplication;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
 import com.microsoft.identity.client.claims.ClaimsRequest;
 import com.microsoft.identity.client.e2e.shadows.ShadowAuthority;
 import com.microsoft.identity.client.e2e.shadows.ShadowHttpRequest;
@@ -33,17 +36,20 @@ import com.microsoft.identity.client.e2e.shadows.ShadowStorageHelper;
 import com.microsoft.identity.client.e2e.tests.AcquireTokenAbstractTest;
 import com.microsoft.identity.client.e2e.utils.AcquireTokenTestHelper;
 import com.microsoft.identity.client.e2e.utils.CacheCountAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalException;
+import com.microsoft.identity.client.internal.CommandResultCache;
 import com.microsoft.identity.common.internal.controllers.CommandDispatcherHelper;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
-import org.robolectric.shadows.ShadowLog;
 
 import java.util.Arrays;
+import java.util.Map;
 
 import static com.microsoft.identity.client.e2e.utils.RoboTestUtils.flushScheduler;
 import static com.microsoft.identity.internal.testutils.TestConstants.Authorities.AAD_MOCK_AUTHORITY;
@@ -51,7 +57,10 @@ import static com.microsoft.identity.internal.testutils.TestConstants.Authoritie
 import static com.microsoft.identity.internal.testutils.TestConstants.Configurations.MULTIPLE_ACCOUNT_MODE_AAD_CONFIG_FILE_PATH;
 import static com.microsoft.identity.internal.testutils.TestConstants.Scopes.USER_READ_SCOPE;
 
-@Ignore
+/**
+ * Exercises the command result caches: MSAL's cache of silent results and the command
+ * dispatcher's. Each request is awaited, by flushing the main looper, before the next one starts.
+ */
 @RunWith(RobolectricTestRunner.class)
 @Config(shadows = {ShadowStorageHelper.class, ShadowAuthority.class, ShadowHttpRequest.class, ShadowMsalUtils.class})
 public final class CommandResultCachingTest extends AcquireTokenAbstractTest {
@@ -59,8 +68,6 @@ public final class CommandResultCachingTest extends AcquireTokenAbstractTest {
     @Before
     public void before() {
         CommandDispatcherHelper.clear();
-        ShadowLog.stream = System.out;
-
     }
 
     @Override
@@ -69,82 +76,68 @@ public final class CommandResultCachingTest extends AcquireTokenAbstractTest {
     }
 
     /**
-     * verifies that two different commands result in 2 cache entries
+     * The second of two identical silent requests is answered from the cache.
      */
     @Test
-    @Ignore
-    public void testAcquireTokenCache2DifferentRequests() throws InterruptedException {
-        final String username = "fake@test.com";
+    public void testAcquireTokenCache2IdenticalRequests() {
+        performInteractiveAcquireTokenCall("fake@test.com", AAD_MOCK_AUTHORITY);
 
-        final AcquireTokenParameters parameters = new AcquireTokenParameters.Builder()
-                .startAuthorizationFromActivity(mActivity)
-                .withLoginHint(username)
-                .withScopes(Arrays.asList(mScopes))
-                .fromAuthority(AAD_MOCK_AUTHORITY)
-                .withCallback(AcquireTokenTestHelper.successfulInteractiveCallback())
-                .build();
+        final IAuthenticationResult first = acquireTokenSilent(silentParameters());
+        final IAuthenticationResult second = acquireTokenSilent(silentParameters());
 
-        mApplication.acquireToken(parameters);
-        flushScheduler();
-
-        final AcquireTokenSilentParameters silentParameters = new AcquireTokenSilentParameters.Builder()
-                .forAccount(AcquireTokenTestHelper.getAccount())
-                .withScopes(Arrays.asList(mScopes))
-                .forceRefresh(false)
-                .fromAuthority(AAD_MOCK_AUTHORITY)
-                .withCallback(new CacheCountAuthenticationCallback(1))
-                .build();
+        Assert.assertEquals(first.getAccessToken(), second.getAccessToken());
+        Assert.assertEquals(Long.valueOf(1), getStatistics().get(CommandResultCache.STAT_HITS));
+        Assert.assertEquals(Long.valueOf(1), getStatistics().get(CommandResultCache.STAT_SIZE));
+    }
 
-        ClaimsRequest cr = new ClaimsRequest();
-        cr.requestClaimInAccessToken("device_id", null);
+    /**
+     * Requests which differ in their claims do not share a cached result. The claims request
+     * refreshes the token, which evicts the result cached for the account.
+     */
+    @Test
+    public void testAcquireTokenCache2DifferentRequests() {
+        performInteractiveAcquireTokenCall("fake@test.com", AAD_MOCK_AUTHORITY);
 
-        final AcquireTokenSilentParameters modifiedSilentParameters = new AcquireTokenSilentParameters.Builder()
-                .forAccount(AcquireTokenTestHelper.getAccount())
-                .withScopes(Arrays.asList(mScopes))
-                .forceRefresh(false)
-                .fromAuthority(AAD_MOCK_AUTHORITY)
-                .withClaims(cr)
-                .withCallback(new CacheCountAuthenticationCallback(2))
-                .build();
+        final ClaimsRequest claimsRequest = new ClaimsRequest();
+        claimsRequest.requestClaimInAccessToken("device_id", null);
 
-        mApplication.acquireTokenSilentAsync(silentParameters);
-        Thread.sleep(500);
-        mApplication.acquireTokenSilentAsync(modifiedSilentParameters);
+        acquireTokenSilent(silentParameters());
+        acquireTokenSilent(silentParameters().withClaims(claimsRequest));
 
-        flushScheduler();
+        Assert.assertEquals(Long.valueOf(0), getStatistics().get(CommandResultCache.STAT_HITS));
+        Assert.assertEquals(Long.valueOf(1), getStatistics().get(CommandResultCache.STAT_SIZE));
     }
 
     /**
-     * Second silent request is expected to be retrieved from the cache.
+     * A force-refresh request never reads the cache, and the result it replaces is evicted: the
+     * next silent request gets the refreshed token.
      */
     @Test
-    @Ignore
-    public void testAcquireTokenCache2IdenticalRequests() throws InterruptedException {
-        final String username = "fake@test.com";
+    public void testForceRefreshEvictsCachedResult() {
+        performInteractiveAcquireTokenCall("fake@test.com", AAD_MOCK_AUTHORITY);
 
-        final AcquireTokenParameters parameters = new AcquireTokenParameters.Builder()
-                .startAuthorizationFromActivity(mActivity)
-                .withLoginHint(username)
-                .withScopes(Arrays.asList(mScopes))
-                .fromAuthority(AAD_MOCK_AUTHORITY)
-                .withCallback(AcquireTokenTestHelper.successfulInteractiveCallback())
-                .build();
+        acquireTokenSilent(silentParameters());
+        final IAuthenticationResult refreshed = acquireTokenSilent(silentParameters().forceRefresh(true));
 
-        mApplication.acquireToken(parameters);
-        flushScheduler();
+        Assert.assertEquals(Long.valueOf(0), getStatistics().get(CommandResultCache.STAT_HITS));
+        Assert.assertEquals(Long.valueOf(0), getStatistics().get(CommandResultCache.STAT_SIZE));
 
-        final AcquireTokenSilentParameters silentParameters = new AcquireTokenSilentParameters.Builder()
-                .forAccount(AcquireTokenTestHelper.getAccount())
-                .withScopes(Arrays.asList(mScopes))
-                .forceRefresh(false)
-                .fromAuthority(AAD_MOCK_AUTHORITY)
-                .withCallback(new CacheCountAuthenticationCallback(1))
-                .build();
+        Assert.assertEquals(refreshed.getAccessToken(), acquireTokenSilent(silentParameters()).getAccessToken());
+        Assert.assertEquals(Long.valueOf(0), getStatistics().get(CommandResultCache.STAT_HITS));
+    }
 
-        mApplication.acquireTokenSilentAsync(silentParameters);
-        Thread.sleep(200);
-        mApplication.acquireTokenSilentAsync(silentParameters);
-        flushScheduler();
+    /**
+     * An interactive request for the account evicts its cached silent results.
+     */
+    @Test
+    public void testInteractiveRequestEvictsCachedResult() {
+        performInteractiveAcquireTokenCall("fake@test.com", AAD_MOCK_AUTHORITY);
+
+        acquireTokenSilent(silentParameters());
+        Assert.assertEquals(Long.valueOf(1), getStatistics().get(CommandResultCache.STAT_SIZE));
+
+        performInteractiveAcquireTokenCall("fake@test.com", AAD_MOCK_AUTHORITY);
+        Assert.assertEquals(Long.valueOf(0), getStatistics().get(CommandResultCache.STAT_SIZE));
     }
 
     /**
@@ -257,4 +250,41 @@ public final class CommandResultCachingTest extends AcquireTokenAbstractTest {
     public String[] getScopes() {
         return USER_READ_SCOPE;
     }
+
+    private AcquireTokenSilentParameters.Builder silentParameters() {
+        return new AcquireTokenSilentParameters.Builder()
+                .forAccount(AcquireTokenTestHelper.getAccount())
+                .withScopes(Arrays.asList(mScopes))
+                .forceRefresh(false)
+                .fromAuthority(AAD_MOCK_AUTHORITY);
+    }
+
+    private Map<String, Long> getStatistics() {
+        return ((PublicClientApplication) mApplication).getCommandResultCacheStatistics();
+    }
+
+    /**
+     * Runs a silent request and flushes the main looper until its result has been delivered.
+     */
+    private IAuthenticationResult acquireTokenSilent(final AcquireTokenSilentParameters.Builder parameters) {
+        final IAuthenticationResult[] result = new IAuthenticationResult[1];
+
+        parameters.withCallback(new SilentAuthenticationCallback() {
+            @Override
+            public void onSuccess(final IAuthenticationResult authenticationResult) {
+                result[0] = authenticationResult;
+            }
+
+            @Override
+            public void onError(final MsalException exception) {
+                Assert.fail(exception.getMessage());
+            }
+        });
+
+        mApplication.acquireTokenSilentAsync(parameters.build());
+        flushScheduler();
+
+        Assert.assertNotNull("The silent request did not complete.", result[0]);
+        return result[0];
+    }
 }
@@ -0,0 +1,143 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.client.e2e.tests.mocked;
+
+import com.microsoft.identity.client.AcquireTokenSilentParameters;
+import com.microsoft.identity.client.HttpMethod;
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.PoPAuthenticationScheme;
+import com.microsoft.identity.client.claims.ClaimsRequest;
+import com.microsoft.identity.client.e2e.shadows.ShadowAuthority;
+import com.microsoft.identity.client.e2e.shadows.ShadowHttpRequest;
+import com.microsoft.identity.client.e2e.shadows.ShadowMsalUtils;
+import com.microsoft.identity.client.e2e.shadows.ShadowStorageHelper;
+import com.microsoft.identity.client.e2e.tests.AcquireTokenAbstractTest;
+import com.microsoft.identity.client.e2e.utils.AcquireTokenTestHelper;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static com.microsoft.identity.internal.testutils.TestConstants.Authorities.AAD_MOCK_AUTHORITY;
+import static com.microsoft.identity.internal.testutils.TestConstants.Configurations.MULTIPLE_ACCOUNT_MODE_AAD_CONFIG_FILE_PATH;
+import static com.microsoft.identity.internal.testutils.TestConstants.Scopes.USER_READ_SCOPE;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = {ShadowStorageHelper.class, ShadowAuthority.class, ShadowHttpRequest.class, ShadowMsalUtils.class})
+public final class PeekCachedTokenTest extends AcquireTokenAbstractTest {
+
+    private static final long WARM_UP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    @Before
+    public void signIn() {
+        performInteractiveAcquireTokenCall("fake@test.com", AAD_MOCK_AUTHORITY);
+    }
+
+    @Override
+    public String getAuthority() {
+        return AAD_MOCK_AUTHORITY;
+    }
+
+    @Test
+    public void testMainThreadPeekWarmsMemory() throws InterruptedException {
+        // Robolectric runs the test on the main thread: the token cache is not read here.
+        Assert.assertNull(mApplication.peekCachedToken(peekParameters().build()));
+
+        IAuthenticationResult result = null;
+        final long giveUpAt = System.currentTimeMillis() + WARM_UP_TIMEOUT_MILLIS;
+
+        while (null == result && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(10);
+            result = mApplication.peekCachedToken(peekParameters().build());
+        }
+
+        Assert.assertNotNull(result);
+        Assert.assertFalse(result.getAccessToken().isEmpty());
+    }
+
+    @Test
+    public void testWorkerThreadPeekReadsTokenCache() throws InterruptedException {
+        final IAuthenticationResult result = peekFromWorker(peekParameters().build());
+
+        Assert.assertNotNull(result);
+        Assert.assertFalse(result.getAccessToken().isEmpty());
+    }
+
+    @Test
+    public void testPeekWithClaimsReturnsNull() throws InterruptedException {
+        final ClaimsRequest claimsRequest = new ClaimsRequest();
+        claimsRequest.requestClaimInAccessToken("device_id", null);
+
+        Assert.assertNull(peekFromWorker(peekParameters().withClaims(claimsRequest).build()));
+    }
+
+    @Test
+    public void testPopPeekReturnsNull() throws InterruptedException, MalformedURLException {
+        final PoPAuthenticationScheme popScheme = PoPAuthenticationScheme.builder()
+                .withHttpMethod(HttpMethod.GET)
+                .withUrl(new URL("https://graph.microsoft.com/v1.0/me"))
+                .build();
+
+        Assert.assertNull(peekFromWorker(peekParameters().withAuthenticationScheme(popScheme).build()));
+    }
+
+    @Override
+    public String getConfigFilePath() {
+        return MULTIPLE_ACCOUNT_MODE_AAD_CONFIG_FILE_PATH;
+    }
+
+    @Override
+    public String[] getScopes() {
+        return USER_READ_SCOPE;
+    }
+
+    private AcquireTokenSilentParameters.Builder peekParameters() {
+        return new AcquireTokenSilentParameters.Builder()
+                .forAccount(AcquireTokenTestHelper.getAccount())
+                .withScopes(Arrays.asList(mScopes))
+                .fromAuthority(AAD_MOCK_AUTHORITY);
+    }
+
+    private IAuthenticationResult peekFromWorker(final AcquireTokenSilentParameters parameters)
+            throws InterruptedException {
+        final IAuthenticationResult[] result = new IAuthenticationResult[1];
+        final Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                result[0] = mApplication.peekCachedToken(parameters);
+            }
+        });
+
+        worker.start();
+        worker.join(WARM_UP_TIMEOUT_MILLIS);
+        return result[0];
+    }
+}
@@ -0,0 +1,169 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.app.Application;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+@RunWith(RobolectricTestRunner.class)
+public class AuthorityPreconnectorTest {
+
+    @Test
+    public void testHostsAreLowerCasedIndependentlyOfLocale() throws MalformedURLException {
+        final Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+
+        try {
+            final AuthorityPreconnector preconnector = newPreconnector(new CountingConnector());
+
+            preconnector.addHost(new URL("https://LOGIN.MICROSOFTONLINE.COM/common"));
+
+            Assert.assertEquals(Arrays.asList("login.microsoftonline.com"), preconnector.getHosts());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testOnlyHttpsHostsAreKeptWarmOnce() throws MalformedURLException {
+        final AuthorityPreconnector preconnector = newPreconnector(new CountingConnector());
+
+        preconnector.addHost(new URL("https://login.microsoftonline.com/common"));
+        preconnector.addHost(new URL("https://LOGIN.microsoftonline.com/organizations"));
+        preconnector.addHost(new URL("https://login.microsoftonline.us/contoso.com"));
+        preconnector.addHost(new URL("http://localhost/adfs"));
+
+        Assert.assertEquals(
+                Arrays.asList("login.microsoftonline.com", "login.microsoftonline.us"),
+                preconnector.getHosts()
+        );
+    }
+
+    @Test
+    public void testPreconnectResolvesAndProbesOnce() throws MalformedURLException {
+        final CountingConnector connector = new CountingConnector();
+        final AuthorityPreconnector preconnector = newPreconnector(connector);
+        preconnector.addHost(new URL("https://login.microsoftonline.com/common"));
+
+        preconnector.preconnect(false);
+
+        Assert.assertEquals(1, connector.mResolves);
+        Assert.assertEquals(1, connector.mProbes);
+
+        final Map<String, Long> metrics = preconnector.getMetrics();
+        Assert.assertEquals(Long.valueOf(1), metrics.get(AuthorityPreconnector.HOSTS));
+        Assert.assertEquals(Long.valueOf(1), metrics.get(AuthorityPreconnector.PRECONNECTS));
+        Assert.assertEquals(Long.valueOf(0), metrics.get(AuthorityPreconnector.FAILURES));
+        Assert.assertNotNull(metrics.get(AuthorityPreconnector.CONNECT_MILLIS));
+    }
+
+    @Test
+    public void testNetworkChangeReceiverIsUnregistered() {
+        final Application application = ApplicationProvider.getApplicationContext();
+        final int registeredBefore = Shadows.shadowOf(application).getRegisteredReceivers().size();
+        final AuthorityPreconnector preconnector = newPreconnector(new CountingConnector());
+
+        preconnector.registerNetworkChangeReceiver();
+        preconnector.registerNetworkChangeReceiver();
+        Assert.assertEquals(registeredBefore + 1, Shadows.shadowOf(application).getRegisteredReceivers().size());
+
+        preconnector.unregisterNetworkChangeReceiver();
+        preconnector.unregisterNetworkChangeReceiver();
+        Assert.assertEquals(registeredBefore, Shadows.shadowOf(application).getRegisteredReceivers().size());
+    }
+
+    @Test
+    public void testRecentPreconnectIsSkippedUnlessForced() throws MalformedURLException {
+        final CountingConnector connector = new CountingConnector();
+        final AuthorityPreconnector preconnector = newPreconnector(connector);
+        preconnector.addHost(new URL("https://login.microsoftonline.com/common"));
+
+        preconnector.preconnect(false);
+        preconnector.preconnect(false);
+        Assert.assertEquals(1, connector.mResolves);
+
+        preconnector.preconnect(true);
+        Assert.assertEquals(2, connector.mResolves);
+    }
+
+    @Test
+    public void testFailedPreconnectIsCountedAndRetried() throws MalformedURLException {
+        final CountingConnector connector = new CountingConnector();
+        connector.mFail = true;
+        final AuthorityPreconnector preconnector = newPreconnector(connector);
+        preconnector.addHost(new URL("https://login.microsoftonline.com/common"));
+
+        preconnector.preconnect(false);
+        connector.mFail = false;
+        preconnector.preconnect(false);
+
+        final Map<String, Long> metrics = preconnector.getMetrics();
+        Assert.assertEquals(Long.valueOf(2), metrics.get(AuthorityPreconnector.PRECONNECTS));
+        Assert.assertEquals(Long.valueOf(1), metrics.get(AuthorityPreconnector.FAILURES));
+    }
+
+    private static AuthorityPreconnector newPreconnector(@NonNull final AuthorityPreconnector.Connector connector) {
+        return new AuthorityPreconnector(
+                ApplicationProvider.<Context>getApplicationContext(),
+                Executors.newSingleThreadExecutor(),
+                connector
+        );
+    }
+
+    private static class CountingConnector implements AuthorityPreconnector.Connector {
+        int mResolves;
+        int mProbes;
+        boolean mFail;
+
+        @Override
+        public void resolve(@NonNull final String host) throws IOException {
+            mResolves++;
+
+            if (mFail) {
+                throw new IOException("Unable to resolve host");
+            }
+        }
+
+        @Override
+        public void probe(@NonNull final URL url) {
+            mProbes++;
+        }
+    }
+}
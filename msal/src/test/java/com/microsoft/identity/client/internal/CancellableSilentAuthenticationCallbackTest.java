@@ -0,0 +1,122 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.exception.MsalClientException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class CancellableSilentAuthenticationCallbackTest {
+
+    private ScheduledExecutorService mScheduler;
+    private DeadlineSilentAuthenticationCallbackTest.RecordingCallback mDelegate;
+    private CancellableOperation mOperation;
+
+    @Before
+    public void setUp() {
+        mScheduler = Executors.newSingleThreadScheduledExecutor();
+        mDelegate = new DeadlineSilentAuthenticationCallbackTest.RecordingCallback();
+        mOperation = new CancellableOperation("test");
+    }
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdownNow();
+    }
+
+    @Test
+    public void testForwardsUntilCancelled() {
+        final CancellableSilentAuthenticationCallback callback =
+                new CancellableSilentAuthenticationCallback(mDelegate, mOperation);
+
+        callback.onSuccess(Mockito.mock(IAuthenticationResult.class));
+        mOperation.cancel();
+        callback.onSuccess(Mockito.mock(IAuthenticationResult.class));
+        callback.onError(new MsalClientException(MsalClientException.UNKNOWN_ERROR, "Late error."));
+
+        Assert.assertEquals(1, mDelegate.mResults.size());
+        Assert.assertTrue(mDelegate.mErrors.isEmpty());
+    }
+
+    @Test
+    public void testCancelBeforeDispatch() {
+        mOperation.cancel();
+
+        // The background task is attached after the caller already cancelled.
+        final FutureTask<Void> task = new FutureTask<>(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, null);
+        mOperation.setFuture(task);
+
+        Assert.assertTrue(mOperation.isCancelled());
+        Assert.assertTrue(task.isCancelled());
+
+        final CancellableSilentAuthenticationCallback callback =
+                new CancellableSilentAuthenticationCallback(mDelegate, mOperation);
+        callback.onError(new MsalClientException(MsalClientException.UNKNOWN_ERROR, "Dispatch failed."));
+
+        Assert.assertTrue(mDelegate.mResults.isEmpty());
+        Assert.assertTrue(mDelegate.mErrors.isEmpty());
+    }
+
+    @Test
+    public void testCancelWithTimeout() throws InterruptedException {
+        // Same nesting as PublicClientApplication: the deadline wraps the cancellation.
+        final DeadlineSilentAuthenticationCallback callback = new DeadlineSilentAuthenticationCallback(
+                new CancellableSilentAuthenticationCallback(mDelegate, mOperation),
+                Deadline.after(10, TimeUnit.MILLISECONDS)
+        );
+        callback.schedule(mScheduler);
+
+        mOperation.cancel();
+
+        // Give the scheduled timeout time to fire and post its error.
+        final long waitUntil = System.currentTimeMillis() + 200;
+        while (System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        }
+
+        Assert.assertFalse(callback.checkDeadline("dispatch"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        Assert.assertTrue(mDelegate.mResults.isEmpty());
+        Assert.assertTrue(mDelegate.mErrors.isEmpty());
+    }
+}
@@ -0,0 +1,173 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalClientException;
+import com.microsoft.identity.client.exception.MsalException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ClaimsChallengeCoalescerTest {
+
+    private static final String KEY = "client|home|authority|scope|{\"access_token\":{}}";
+    private static final String OTHER_KEY = "client|home|authority|other|{\"access_token\":{}}";
+
+    private static class RecordingCallback implements SilentAuthenticationCallback {
+
+        private final List<IAuthenticationResult> mResults = new ArrayList<>();
+        private final List<MsalException> mErrors = new ArrayList<>();
+
+        @Override
+        public void onSuccess(final IAuthenticationResult authenticationResult) {
+            mResults.add(authenticationResult);
+        }
+
+        @Override
+        public void onError(final MsalException exception) {
+            mErrors.add(exception);
+        }
+    }
+
+    @Test
+    public void testIdenticalChallengesShareOneRequest() {
+        final ClaimsChallengeCoalescer coalescer = new ClaimsChallengeCoalescer();
+        final RecordingCallback first = new RecordingCallback();
+        final RecordingCallback second = new RecordingCallback();
+        final IAuthenticationResult result = Mockito.mock(IAuthenticationResult.class);
+
+        final ClaimsChallengeCoalescer.Ticket leader = coalescer.submit(KEY, first);
+        final ClaimsChallengeCoalescer.Ticket follower = coalescer.submit(KEY, second);
+
+        Assert.assertTrue(leader.isLeader());
+        Assert.assertFalse(follower.isLeader());
+        Assert.assertNull(follower.getReusedResult());
+
+        leader.getCallback().onSuccess(result);
+
+        Assert.assertEquals(1, first.mResults.size());
+        Assert.assertSame(result, first.mResults.get(0));
+        Assert.assertEquals(1, second.mResults.size());
+        Assert.assertSame(result, second.mResults.get(0));
+    }
+
+    @Test
+    public void testDifferentChallengesDoNotShareRequests() {
+        final ClaimsChallengeCoalescer coalescer = new ClaimsChallengeCoalescer();
+
+        Assert.assertTrue(coalescer.submit(KEY, new RecordingCallback()).isLeader());
+        Assert.assertTrue(coalescer.submit(OTHER_KEY, new RecordingCallback()).isLeader());
+        Assert.assertEquals(2, coalescer.size());
+    }
+
+    @Test
+    public void testRecentResultIsReused() {
+        final ClaimsChallengeCoalescer coalescer = new ClaimsChallengeCoalescer(TimeUnit.MINUTES.toMillis(1));
+        final IAuthenticationResult result = Mockito.mock(IAuthenticationResult.class);
+
+        coalescer.submit(KEY, new RecordingCallback()).getCallback().onSuccess(result);
+
+        final RecordingCallback late = new RecordingCallback();
+        final ClaimsChallengeCoalescer.Ticket ticket = coalescer.submit(KEY, late);
+
+        Assert.assertFalse(ticket.isLeader());
+        Assert.assertSame(result, ticket.getReusedResult());
+        Assert.assertTrue(late.mResults.isEmpty());
+    }
+
+    @Test
+    public void testResultIsNotReusedAfterWindow() throws InterruptedException {
+        final ClaimsChallengeCoalescer coalescer = new ClaimsChallengeCoalescer(0);
+
+        coalescer.submit(KEY, new RecordingCallback())
+                .getCallback()
+                .onSuccess(Mockito.mock(IAuthenticationResult.class));
+        Thread.sleep(2);
+
+        final ClaimsChallengeCoalescer.Ticket ticket = coalescer.submit(KEY, new RecordingCallback());
+
+        Assert.assertTrue(ticket.isLeader());
+        Assert.assertNull(ticket.getReusedResult());
+    }
+
+    @Test
+    public void testFailureIsSharedButNotReused() {
+        final ClaimsChallengeCoalescer coalescer = new ClaimsChallengeCoalescer();
+        final RecordingCallback first = new RecordingCallback();
+        final RecordingCallback second = new RecordingCallback();
+        final MsalClientException exception = new MsalClientException(MsalClientException.UNKNOWN_ERROR);
+
+        final ClaimsChallengeCoalescer.Ticket leader = coalescer.submit(KEY, first);
+        coalescer.submit(KEY, second);
+        leader.getCallback().onError(exception);
+
+        Assert.assertSame(exception, first.mErrors.get(0));
+        Assert.assertSame(exception, second.mErrors.get(0));
+        Assert.assertEquals(0, coalescer.size());
+        Assert.assertTrue(coalescer.submit(KEY, new RecordingCallback()).isLeader());
+    }
+
+    @Test
+    public void testRequestIsCancelledWhenNobodyWaits() {
+        final ClaimsChallengeCoalescer coalescer = new ClaimsChallengeCoalescer();
+        final RecordingCallback first = new RecordingCallback();
+        final RecordingCallback second = new RecordingCallback();
+        final CancellableOperation operation = new CancellableOperation("test");
+
+        final ClaimsChallengeCoalescer.Ticket leader = coalescer.submit(KEY, first);
+        final ClaimsChallengeCoalescer.Ticket follower = coalescer.submit(KEY, second);
+        leader.setOperation(operation);
+
+        leader.cancel();
+        Assert.assertTrue(leader.isCancelled());
+        Assert.assertFalse(operation.isCancelled());
+
+        follower.cancel();
+        Assert.assertTrue(operation.isCancelled());
+        Assert.assertEquals(0, coalescer.size());
+
+        // A late answer reaches nobody.
+        leader.getCallback().onSuccess(Mockito.mock(IAuthenticationResult.class));
+        Assert.assertTrue(first.mResults.isEmpty());
+        Assert.assertTrue(second.mResults.isEmpty());
+    }
+
+    @Test
+    public void testOperationAttachedAfterCancellationIsCancelled() {
+        final ClaimsChallengeCoalescer coalescer = new ClaimsChallengeCoalescer();
+        final CancellableOperation operation = new CancellableOperation("test");
+
+        final ClaimsChallengeCoalescer.Ticket leader = coalescer.submit(KEY, new RecordingCallback());
+        leader.cancel();
+        leader.setOperation(operation);
+
+        Assert.assertTrue(operation.isCancelled());
+    }
+}
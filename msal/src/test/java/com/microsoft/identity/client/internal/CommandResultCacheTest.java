@@ -0,0 +1,181 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class CommandResultCacheTest {
+
+    private static final int MAX_SIZE = 3;
+    private static final long TTL_MILLIS = 30000;
+
+    private static final class FakeTicker implements CommandResultCache.Ticker {
+
+        private long mNanos;
+
+        @Override
+        public long nanoTime() {
+            return mNanos;
+        }
+
+        void advance(final long millis) {
+            mNanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+
+    private FakeTicker mTicker;
+    private CommandResultCache mCache;
+
+    @Before
+    public void setUp() {
+        mTicker = new FakeTicker();
+        mCache = new CommandResultCache(MAX_SIZE, TTL_MILLIS, mTicker);
+    }
+
+    @Test
+    public void testIdenticalRequestIsServedFromCache() {
+        mCache.put("silent|a", "result");
+
+        Assert.assertEquals("result", mCache.get("silent|a", String.class));
+        Assert.assertEquals(Long.valueOf(1), mCache.getStatistics().get(CommandResultCache.STAT_HITS));
+        Assert.assertEquals(Long.valueOf(0), mCache.getStatistics().get(CommandResultCache.STAT_MISSES));
+    }
+
+    @Test
+    public void testDifferentRequestsAreCachedSeparately() {
+        mCache.put("silent|a", "result a");
+        mCache.put("silent|b", "result b");
+
+        Assert.assertEquals("result a", mCache.get("silent|a", String.class));
+        Assert.assertEquals("result b", mCache.get("silent|b", String.class));
+        Assert.assertNull(mCache.get("silent|c", String.class));
+        Assert.assertEquals(2, mCache.size());
+        Assert.assertEquals(Long.valueOf(1), mCache.getStatistics().get(CommandResultCache.STAT_MISSES));
+    }
+
+    @Test
+    public void testResultExpires() {
+        mCache.put("silent|a", "result");
+
+        mTicker.advance(TTL_MILLIS - 1);
+        Assert.assertNotNull(mCache.get("silent|a", String.class));
+
+        mTicker.advance(1);
+        Assert.assertNull(mCache.get("silent|a", String.class));
+        Assert.assertEquals(0, mCache.size());
+        Assert.assertEquals(Long.valueOf(1), mCache.getStatistics().get(CommandResultCache.STAT_EXPIRATIONS));
+    }
+
+    @Test
+    public void testExceedingMaxSizeEvictsOldest() {
+        for (int i = 0; i < MAX_SIZE + 2; i++) {
+            mCache.put("silent|" + i, "result " + i);
+        }
+
+        Assert.assertEquals(MAX_SIZE, mCache.size());
+        Assert.assertNull(mCache.get("silent|0", String.class));
+        Assert.assertNull(mCache.get("silent|1", String.class));
+        Assert.assertEquals("result " + (MAX_SIZE + 1), mCache.get("silent|" + (MAX_SIZE + 1), String.class));
+        Assert.assertEquals(Long.valueOf(2), mCache.getStatistics().get(CommandResultCache.STAT_EVICTIONS));
+    }
+
+    @Test
+    public void testReplacingResultDoesNotEvictIt() {
+        for (int i = 0; i < 10 * MAX_SIZE; i++) {
+            mCache.put("silent|a", "result " + i);
+        }
+
+        mCache.put("silent|b", "result b");
+
+        Assert.assertEquals("result " + (10 * MAX_SIZE - 1), mCache.get("silent|a", String.class));
+        Assert.assertEquals(Long.valueOf(0), mCache.getStatistics().get(CommandResultCache.STAT_EVICTIONS));
+    }
+
+    @Test
+    public void testResultOfAnotherTypeIsAMiss() {
+        mCache.put("accounts", new ArrayList<String>());
+
+        Assert.assertNull(mCache.get("accounts", String.class));
+        Assert.assertNotNull(mCache.get("accounts", List.class));
+    }
+
+    @Test
+    public void testRemoveByPrefix() {
+        mCache.put("silent|client|account1|scope", "result 1");
+        mCache.put("silent|client|account2|scope", "result 2");
+
+        mCache.removeByPrefix("silent|client|account1|");
+
+        Assert.assertNull(mCache.get("silent|client|account1|scope", String.class));
+        Assert.assertNotNull(mCache.get("silent|client|account2|scope", String.class));
+    }
+
+    @Test
+    public void testConcurrentPutsStayBounded() throws InterruptedException {
+        final int threads = 8;
+        final int putsPerThread = 500;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+
+                        for (int i = 0; i < putsPerThread; i++) {
+                            mCache.put("silent|" + thread + "|" + i, "result");
+                            mCache.get("silent|" + thread + "|" + i, String.class);
+                        }
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        Assert.assertTrue(mCache.size() <= MAX_SIZE);
+
+        final long hits = mCache.getStatistics().get(CommandResultCache.STAT_HITS);
+        final long misses = mCache.getStatistics().get(CommandResultCache.STAT_MISSES);
+        Assert.assertEquals(threads * putsPerThread, hits + misses);
+    }
+}
@@ -0,0 +1,112 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.net.ConnectivityManager;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+public class ConnectivityRefreshQueueTest {
+
+    @Test
+    public void testRefreshesAreDeduplicatedByKey() {
+        final ConnectivityRefreshQueue queue = new ConnectivityRefreshQueue(
+                ApplicationProvider.<Context>getApplicationContext(),
+                Executors.newSingleThreadExecutor()
+        );
+
+        queue.enqueue("account|scope", new CountingRunnable());
+        queue.enqueue("account|scope", new CountingRunnable());
+        queue.enqueue("account|other scope", new CountingRunnable());
+
+        Assert.assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void testDrainRunsEveryRefreshOnce() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final ConnectivityRefreshQueue queue = new ConnectivityRefreshQueue(
+                ApplicationProvider.<Context>getApplicationContext(),
+                executor
+        );
+        final CountingRunnable refresh = new CountingRunnable();
+
+        queue.enqueue("account|scope", refresh);
+        queue.enqueue("account|other scope", refresh);
+        queue.drain();
+        queue.drain();
+
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, refresh.mRuns.get());
+        Assert.assertEquals(0, queue.size());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testRegistrationWhileOnlineDoesNotDrain() {
+        final Application application = ApplicationProvider.getApplicationContext();
+        final Intent connectivityChange = new Intent(ConnectivityManager.CONNECTIVITY_ACTION);
+        application.sendStickyBroadcast(connectivityChange);
+        Assert.assertTrue(ConnectivityRefreshQueue.isNetworkAvailable(application));
+
+        final ConnectivityRefreshQueue queue = new ConnectivityRefreshQueue(
+                application,
+                Executors.newSingleThreadExecutor()
+        );
+
+        // Registering the receiver delivers the sticky broadcast, which is not a change.
+        queue.enqueue("account|scope", new CountingRunnable());
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        Assert.assertEquals(1, queue.size());
+
+        application.sendBroadcast(connectivityChange);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        Assert.assertEquals(0, queue.size());
+    }
+
+    private static final class CountingRunnable implements Runnable {
+
+        private final AtomicInteger mRuns = new AtomicInteger();
+
+        @Override
+        public void run() {
+            mRuns.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import com.microsoft.identity.client.IAuthenticationResult;
+import com.microsoft.identity.client.SilentAuthenticationCallback;
+import com.microsoft.identity.client.exception.MsalClientException;
+import com.microsoft.identity.client.exception.MsalException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class DeadlineSilentAuthenticationCallbackTest {
+
+    private ScheduledExecutorService mScheduler;
+    private RecordingCallback mDelegate;
+
+    @Before
+    public void setUp() {
+        mScheduler = Executors.newSingleThreadScheduledExecutor();
+        mDelegate = new RecordingCallback();
+    }
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdownNow();
+    }
+
+    @Test
+    public void testDeliversResultOnce() {
+        final DeadlineSilentAuthenticationCallback callback = new DeadlineSilentAuthenticationCallback(
+                mDelegate,
+                Deadline.after(1, TimeUnit.HOURS)
+        );
+        callback.schedule(mScheduler);
+
+        callback.onSuccess(Mockito.mock(IAuthenticationResult.class));
+        callback.onError(new MsalClientException(MsalClientException.UNKNOWN_ERROR, "Late error."));
+
+        Assert.assertEquals(1, mDelegate.mResults.size());
+        Assert.assertTrue(mDelegate.mErrors.isEmpty());
+    }
+
+    @Test
+    public void testCheckDeadlineDeliversTimeout() {
+        final DeadlineSilentAuthenticationCallback callback = new DeadlineSilentAuthenticationCallback(
+                mDelegate,
+                Deadline.after(0, TimeUnit.MILLISECONDS)
+        );
+
+        Assert.assertFalse(callback.checkDeadline("dispatch"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        Assert.assertEquals(1, mDelegate.mErrors.size());
+        Assert.assertEquals(MsalClientException.REQUEST_TIMEOUT, mDelegate.mErrors.get(0).getErrorCode());
+
+        // The request's own result arrives too late.
+        callback.onSuccess(Mockito.mock(IAuthenticationResult.class));
+        Assert.assertTrue(mDelegate.mResults.isEmpty());
+    }
+
+    @Test
+    public void testCheckDeadlineWithinBudget() {
+        final DeadlineSilentAuthenticationCallback callback = new DeadlineSilentAuthenticationCallback(
+                mDelegate,
+                Deadline.after(1, TimeUnit.HOURS)
+        );
+
+        Assert.assertTrue(callback.checkDeadline("dispatch"));
+
+        callback.onSuccess(Mockito.mock(IAuthenticationResult.class));
+
+        // Once a result was delivered, later stages do not proceed.
+        Assert.assertFalse(callback.checkDeadline("save"));
+        Assert.assertEquals(1, mDelegate.mResults.size());
+    }
+
+    @Test
+    public void testScheduledTimeout() throws InterruptedException {
+        final DeadlineSilentAuthenticationCallback callback = new DeadlineSilentAuthenticationCallback(
+                mDelegate,
+                Deadline.after(10, TimeUnit.MILLISECONDS)
+        );
+        callback.schedule(mScheduler);
+
+        final long giveUpAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (mDelegate.mErrors.isEmpty() && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        }
+
+        Assert.assertEquals(1, mDelegate.mErrors.size());
+        Assert.assertEquals(MsalClientException.REQUEST_TIMEOUT, mDelegate.mErrors.get(0).getErrorCode());
+    }
+
+    static final class RecordingCallback implements SilentAuthenticationCallback {
+
+        final List<IAuthenticationResult> mResults = new ArrayList<>();
+        final List<MsalException> mErrors = new ArrayList<>();
+
+        @Override
+        public void onSuccess(final IAuthenticationResult authenticationResult) {
+            mResults.add(authenticationResult);
+        }
+
+        @Override
+        public void onError(final MsalException exception) {
+            mErrors.add(exception);
+        }
+    }
+}
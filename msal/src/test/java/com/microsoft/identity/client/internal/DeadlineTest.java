@@ -0,0 +1,59 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class DeadlineTest {
+
+    @Test
+    public void testExpiredDeadline() {
+        final Deadline deadline = Deadline.after(0, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(deadline.isExpired());
+        Assert.assertEquals(0, deadline.getRemainingMillis());
+        Assert.assertEquals(0, deadline.getTimeoutMillis());
+    }
+
+    @Test
+    public void testRemainingBudget() {
+        final Deadline deadline = Deadline.after(1, TimeUnit.HOURS);
+
+        Assert.assertFalse(deadline.isExpired());
+        Assert.assertEquals(TimeUnit.HOURS.toMillis(1), deadline.getTimeoutMillis());
+        Assert.assertTrue(deadline.getRemainingMillis() > 0);
+        Assert.assertTrue(deadline.getRemainingMillis() <= deadline.getTimeoutMillis());
+    }
+
+    @Test
+    public void testRemainingNeverNegative() throws InterruptedException {
+        final Deadline deadline = Deadline.after(1, TimeUnit.MILLISECONDS);
+        Thread.sleep(10);
+
+        Assert.assertTrue(deadline.isExpired());
+        Assert.assertEquals(0, deadline.getRemainingMillis());
+    }
+}
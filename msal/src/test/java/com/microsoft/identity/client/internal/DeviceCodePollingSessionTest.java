@@ -0,0 +1,254 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DeviceCodePollingSessionTest {
+
+    private static final long INTERVAL_MILLIS = 10;
+
+    private final ScheduledExecutorService mScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService mExecutor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdownNow();
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testPollsUntilComplete() throws InterruptedException {
+        final ScriptedPoller poller = new ScriptedPoller(
+                DeviceCodePollingSession.Poll.<String>pending(),
+                DeviceCodePollingSession.Poll.<String>pending(),
+                DeviceCodePollingSession.Poll.complete("token")
+        );
+        final RecordingListener listener = new RecordingListener();
+
+        newSession(poller, listener).start(INTERVAL_MILLIS, TimeUnit.MINUTES.toMillis(1));
+
+        Assert.assertTrue(listener.await());
+        Assert.assertEquals("token", listener.mResult);
+        Assert.assertEquals(3, poller.mPolls.get());
+    }
+
+    @Test
+    public void testSlowDownIncreasesInterval() throws InterruptedException {
+        final ScriptedPoller poller = new ScriptedPoller(
+                DeviceCodePollingSession.Poll.<String>slowDown(),
+                DeviceCodePollingSession.Poll.<String>slowDown(),
+                DeviceCodePollingSession.Poll.complete("token")
+        );
+        final RecordingListener listener = new RecordingListener();
+        final DeviceCodePollingSession<String> session = newSession(poller, listener);
+
+        session.start(INTERVAL_MILLIS, TimeUnit.MINUTES.toMillis(1));
+
+        Assert.assertTrue(listener.await());
+        Assert.assertEquals(INTERVAL_MILLIS + 2 * INTERVAL_MILLIS, session.getIntervalMillis());
+    }
+
+    @Test
+    public void testErrorEndsPolling() throws InterruptedException {
+        final Exception error = new Exception("access_denied");
+        final ScriptedPoller poller = new ScriptedPoller(
+                DeviceCodePollingSession.Poll.<String>pending(),
+                DeviceCodePollingSession.Poll.<String>failed(error)
+        );
+        final RecordingListener listener = new RecordingListener();
+
+        newSession(poller, listener).start(INTERVAL_MILLIS, TimeUnit.MINUTES.toMillis(1));
+
+        Assert.assertTrue(listener.await());
+        Assert.assertSame(error, listener.mError);
+        Assert.assertEquals(2, poller.mPolls.get());
+    }
+
+    @Test
+    public void testIoErrorIsRetried() throws InterruptedException {
+        final FlakyPoller poller = new FlakyPoller(DeviceCodePollingSession.MAX_CONSECUTIVE_IO_ERRORS - 1);
+        final RecordingListener listener = new RecordingListener();
+
+        newSession(poller, listener).start(INTERVAL_MILLIS, TimeUnit.MINUTES.toMillis(1));
+
+        Assert.assertTrue(listener.await());
+        Assert.assertEquals("token", listener.mResult);
+        Assert.assertEquals(DeviceCodePollingSession.MAX_CONSECUTIVE_IO_ERRORS, poller.mPolls.get());
+    }
+
+    @Test
+    public void testConsecutiveIoErrorsEndPolling() throws InterruptedException {
+        final FlakyPoller poller = new FlakyPoller(Integer.MAX_VALUE);
+        final RecordingListener listener = new RecordingListener();
+
+        newSession(poller, listener).start(INTERVAL_MILLIS, TimeUnit.MINUTES.toMillis(1));
+
+        Assert.assertTrue(listener.await());
+        Assert.assertTrue(listener.mError instanceof IOException);
+        Assert.assertEquals(DeviceCodePollingSession.MAX_CONSECUTIVE_IO_ERRORS, poller.mPolls.get());
+    }
+
+    @Test
+    public void testExpiredDeviceCodeIsReported() throws InterruptedException {
+        final ScriptedPoller poller = new ScriptedPoller(DeviceCodePollingSession.Poll.<String>pending());
+        final RecordingListener listener = new RecordingListener();
+
+        newSession(poller, listener).start(INTERVAL_MILLIS, 0);
+
+        Assert.assertTrue(listener.await());
+        Assert.assertTrue(listener.mExpired);
+        Assert.assertEquals(0, poller.mPolls.get());
+    }
+
+    @Test
+    public void testCancelStopsPolling() throws InterruptedException {
+        final ScriptedPoller poller = new ScriptedPoller(DeviceCodePollingSession.Poll.<String>pending());
+        final RecordingListener listener = new RecordingListener();
+        final DeviceCodePollingSession<String> session = newSession(poller, listener);
+
+        session.start(TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(5));
+        session.cancel();
+
+        Assert.assertTrue(session.isCancelled());
+        Assert.assertFalse(listener.await(100));
+        Assert.assertEquals(0, poller.mPolls.get());
+    }
+
+    @Test
+    public void testManyConcurrentSessions() throws InterruptedException {
+        final int sessionCount = 50;
+        final List<RecordingListener> listeners = new ArrayList<>();
+
+        for (int i = 0; i < sessionCount; i++) {
+            final RecordingListener listener = new RecordingListener();
+            listeners.add(listener);
+            newSession(
+                    new ScriptedPoller(
+                            DeviceCodePollingSession.Poll.<String>pending(),
+                            DeviceCodePollingSession.Poll.complete("token" + i)
+                    ),
+                    listener
+            ).start(INTERVAL_MILLIS, TimeUnit.MINUTES.toMillis(1));
+        }
+
+        for (int i = 0; i < sessionCount; i++) {
+            Assert.assertTrue(listeners.get(i).await());
+            Assert.assertEquals("token" + i, listeners.get(i).mResult);
+        }
+    }
+
+    private DeviceCodePollingSession<String> newSession(@NonNull final DeviceCodePollingSession.Poller<String> poller,
+                                                        @NonNull final RecordingListener listener) {
+        return new DeviceCodePollingSession<>(mScheduler, mExecutor, poller, listener, INTERVAL_MILLIS);
+    }
+
+    /**
+     * Returns the scripted polls in order, repeating the last one.
+     */
+    private static class ScriptedPoller implements DeviceCodePollingSession.Poller<String> {
+        private final List<DeviceCodePollingSession.Poll<String>> mScript;
+        private final AtomicInteger mPolls = new AtomicInteger();
+
+        @SafeVarargs
+        ScriptedPoller(final DeviceCodePollingSession.Poll<String>... script) {
+            mScript = Arrays.asList(script);
+        }
+
+        @NonNull
+        @Override
+        public DeviceCodePollingSession.Poll<String> poll() {
+            final int index = mPolls.getAndIncrement();
+            return mScript.get(Math.min(index, mScript.size() - 1));
+        }
+    }
+
+    /**
+     * Fails the given number of polls with an {@link IOException}, then completes.
+     */
+    private static class FlakyPoller implements DeviceCodePollingSession.Poller<String> {
+        private final int mFailures;
+        private final AtomicInteger mPolls = new AtomicInteger();
+
+        FlakyPoller(final int failures) {
+            mFailures = failures;
+        }
+
+        @NonNull
+        @Override
+        public DeviceCodePollingSession.Poll<String> poll() throws IOException {
+            if (mPolls.getAndIncrement() < mFailures) {
+                throw new IOException("Connection reset");
+            }
+            return DeviceCodePollingSession.Poll.complete("token");
+        }
+    }
+
+    private static class RecordingListener implements DeviceCodePollingSession.Listener<String> {
+        private final CountDownLatch mLatch = new CountDownLatch(1);
+        private volatile String mResult;
+        private volatile Exception mError;
+        private volatile boolean mExpired;
+
+        @Override
+        public void onComplete(@NonNull final String result) {
+            mResult = result;
+            mLatch.countDown();
+        }
+
+        @Override
+        public void onError(@NonNull final Exception error) {
+            mError = error;
+            mLatch.countDown();
+        }
+
+        @Override
+        public void onExpired() {
+            mExpired = true;
+            mLatch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return await(5000);
+        }
+
+        boolean await(final long timeoutMillis) throws InterruptedException {
+            return mLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
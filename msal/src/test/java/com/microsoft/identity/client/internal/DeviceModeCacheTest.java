@@ -0,0 +1,91 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class DeviceModeCacheTest {
+
+    private static final String CLIENT_ID = "4b0db8c2-9f26-4417-8bde-3f0e3656f8e0";
+    private static final long TTL_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+    }
+
+    @Test
+    public void testDisabledWithoutTtl() {
+        Assert.assertNull(DeviceModeCache.create(mContext, 0));
+        Assert.assertNull(DeviceModeCache.create(mContext, -1));
+    }
+
+    @Test
+    public void testReturnsFreshValue() {
+        final DeviceModeCache cache = DeviceModeCache.create(mContext, TTL_SECONDS);
+        Assert.assertNull(cache.getIfFresh(CLIENT_ID));
+
+        cache.put(CLIENT_ID, true);
+        Assert.assertEquals(Boolean.TRUE, cache.getIfFresh(CLIENT_ID));
+
+        cache.put(CLIENT_ID, false);
+        Assert.assertEquals(Boolean.FALSE, cache.getIfFresh(CLIENT_ID));
+    }
+
+    @Test
+    public void testIgnoresOtherClients() {
+        final DeviceModeCache cache = DeviceModeCache.create(mContext, TTL_SECONDS);
+        cache.put(CLIENT_ID, true);
+
+        Assert.assertNull(cache.getIfFresh("another-client-id"));
+    }
+
+    @Test
+    public void testIgnoresExpiredValue() {
+        final DeviceModeCache cache = DeviceModeCache.create(mContext, TTL_SECONDS);
+        cache.put(CLIENT_ID, true, System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(TTL_SECONDS + 1));
+
+        Assert.assertNull(cache.getIfFresh(CLIENT_ID));
+    }
+
+    @Test
+    public void testIgnoresValueFromTheFuture() {
+        final DeviceModeCache cache = DeviceModeCache.create(mContext, TTL_SECONDS);
+        cache.put(CLIENT_ID, true, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5));
+
+        Assert.assertNull(cache.getIfFresh(CLIENT_ID));
+    }
+}
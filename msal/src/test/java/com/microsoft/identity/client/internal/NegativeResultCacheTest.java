@@ -0,0 +1,111 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import com.microsoft.identity.client.exception.MsalUiRequiredException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+
+@RunWith(RobolectricTestRunner.class)
+public class NegativeResultCacheTest {
+
+    private static final String CLIENT_ID = "client-id";
+    private static final String HOME_ACCOUNT_ID = "uid.utid";
+    private static final String AUTHORITY = "https://login.microsoftonline.com/common";
+    private static final long TTL_MILLIS = 60000;
+
+    private final MsalUiRequiredException mFailure =
+            new MsalUiRequiredException(MsalUiRequiredException.INVALID_GRANT, "Refresh token revoked.");
+
+    @Test
+    public void testKeyIgnoresScopeOrderAndCase() {
+        Assert.assertEquals(
+                NegativeResultCache.createKey(CLIENT_ID, HOME_ACCOUNT_ID, AUTHORITY, Arrays.asList("User.Read", "Mail.Read"), null),
+                NegativeResultCache.createKey(CLIENT_ID, HOME_ACCOUNT_ID, AUTHORITY + "/", Arrays.asList("mail.read", "user.read"), null)
+        );
+    }
+
+    @Test
+    public void testKeyDependsOnClaims() {
+        Assert.assertNotEquals(
+                NegativeResultCache.createKey(CLIENT_ID, HOME_ACCOUNT_ID, AUTHORITY, Arrays.asList("User.Read"), null),
+                NegativeResultCache.createKey(CLIENT_ID, HOME_ACCOUNT_ID, AUTHORITY, Arrays.asList("User.Read"), "{\"access_token\":{}}")
+        );
+    }
+
+    @Test
+    public void testNoKeyWithoutAccount() {
+        Assert.assertNull(NegativeResultCache.createKey(CLIENT_ID, null, AUTHORITY, Arrays.asList("User.Read"), null));
+    }
+
+    @Test
+    public void testFailureIsRemembered() {
+        final NegativeResultCache cache = new NegativeResultCache();
+        final String key = NegativeResultCache.createKey(CLIENT_ID, HOME_ACCOUNT_ID, AUTHORITY, Arrays.asList("User.Read"), null);
+
+        cache.put(key, HOME_ACCOUNT_ID, mFailure, TTL_MILLIS);
+
+        Assert.assertSame(mFailure, cache.get(key));
+    }
+
+    @Test
+    public void testFailureExpires() throws InterruptedException {
+        final NegativeResultCache cache = new NegativeResultCache();
+        final String key = NegativeResultCache.createKey(CLIENT_ID, HOME_ACCOUNT_ID, AUTHORITY, Arrays.asList("User.Read"), null);
+
+        cache.put(key, HOME_ACCOUNT_ID, mFailure, 1);
+        Thread.sleep(5);
+
+        Assert.assertNull(cache.get(key));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDisabledWithZeroTtl() {
+        final NegativeResultCache cache = new NegativeResultCache();
+        final String key = NegativeResultCache.createKey(CLIENT_ID, HOME_ACCOUNT_ID, AUTHORITY, Arrays.asList("User.Read"), null);
+
+        cache.put(key, HOME_ACCOUNT_ID, mFailure, 0);
+
+        Assert.assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testInvalidateForgetsOnlyThatAccount() {
+        final NegativeResultCache cache = new NegativeResultCache();
+        final String key = NegativeResultCache.createKey(CLIENT_ID, HOME_ACCOUNT_ID, AUTHORITY, Arrays.asList("User.Read"), null);
+        final String otherKey = NegativeResultCache.createKey(CLIENT_ID, "other.utid", AUTHORITY, Arrays.asList("User.Read"), null);
+
+        cache.put(key, HOME_ACCOUNT_ID, mFailure, TTL_MILLIS);
+        cache.put(otherKey, "other.utid", mFailure, TTL_MILLIS);
+        cache.invalidate(HOME_ACCOUNT_ID.toUpperCase());
+
+        Assert.assertNull(cache.get(key));
+        Assert.assertSame(mFailure, cache.get(otherKey));
+    }
+}
@@ -0,0 +1,56 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import com.microsoft.identity.client.exception.MsalClientException;
+import com.microsoft.identity.client.exception.MsalServiceException;
+import com.microsoft.identity.client.exception.MsalUiRequiredException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OfflineGraceSilentAuthenticationCallbackTest {
+
+    @Test
+    public void testNetworkFailuresAreConnectivityFailures() {
+        Assert.assertTrue(OfflineGraceSilentAuthenticationCallback.isConnectivityFailure(
+                new MsalClientException(MsalClientException.IO_ERROR)
+        ));
+        Assert.assertTrue(OfflineGraceSilentAuthenticationCallback.isConnectivityFailure(
+                new MsalClientException(MsalClientException.DEVICE_NETWORK_NOT_AVAILABLE)
+        ));
+    }
+
+    @Test
+    public void testServiceFailuresAreNotConnectivityFailures() {
+        Assert.assertFalse(OfflineGraceSilentAuthenticationCallback.isConnectivityFailure(
+                new MsalServiceException("service_unavailable", "STS outage", 503, null)
+        ));
+        Assert.assertFalse(OfflineGraceSilentAuthenticationCallback.isConnectivityFailure(
+                new MsalClientException(MsalClientException.AUTHORITY_CIRCUIT_OPEN)
+        ));
+        Assert.assertFalse(OfflineGraceSilentAuthenticationCallback.isConnectivityFailure(
+                new MsalUiRequiredException(MsalUiRequiredException.INVALID_GRANT, "Expired refresh token.")
+        ));
+    }
+}
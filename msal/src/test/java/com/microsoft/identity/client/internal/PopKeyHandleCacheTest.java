@@ -0,0 +1,275 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.microsoft.identity.common.exception.ClientException;
+import com.microsoft.identity.common.internal.platform.IDevicePopManager;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+public class PopKeyHandleCacheTest {
+
+    private static final String ALIAS = "test-alias";
+
+    private final List<IDevicePopManager> mLoaded = new ArrayList<>();
+    // Shared by every loaded manager, as the KeyStore is.
+    private volatile boolean mKeyExists;
+    private volatile ClientException mGenerationError;
+    private volatile long mGenerationMillis;
+    private final AtomicInteger mGenerated = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        PopKeyHandleCache.setLoader(new PopKeyHandleCache.Loader() {
+            @NonNull
+            @Override
+            public IDevicePopManager load(@Nullable final String alias) throws ClientException {
+                final IDevicePopManager devicePopManager = Mockito.mock(IDevicePopManager.class);
+                final String generatedThumbprint = "generated-" + mLoaded.size();
+                Mockito.when(devicePopManager.asymmetricKeyExists()).thenAnswer(new Answer<Boolean>() {
+                    @Override
+                    public Boolean answer(final InvocationOnMock invocation) {
+                        return mKeyExists;
+                    }
+                });
+                Mockito.when(devicePopManager.getAsymmetricKeyThumbprint()).thenReturn("thumbprint-" + mLoaded.size());
+                Mockito.when(devicePopManager.getRequestConfirmation()).thenReturn("req_cnf-" + mLoaded.size());
+                Mockito.when(devicePopManager.generateAsymmetricKey(Mockito.any(Context.class))).thenAnswer(new Answer<String>() {
+                    @Override
+                    public String answer(final InvocationOnMock invocation) throws Exception {
+                        if (null != mGenerationError) {
+                            throw mGenerationError;
+                        }
+
+                        Thread.sleep(mGenerationMillis);
+                        mGenerated.incrementAndGet();
+                        mKeyExists = true;
+                        return generatedThumbprint;
+                    }
+                });
+                Mockito.when(devicePopManager.clearAsymmetricKey()).thenAnswer(new Answer<Boolean>() {
+                    @Override
+                    public Boolean answer(final InvocationOnMock invocation) {
+                        mKeyExists = false;
+                        return true;
+                    }
+                });
+                mLoaded.add(devicePopManager);
+                return devicePopManager;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        PopKeyHandleCache.setLoader(null);
+    }
+
+    @Test
+    public void testMissingKeyIsNotCached() throws ClientException {
+        Assert.assertNull(PopKeyHandleCache.get(ALIAS));
+        Assert.assertEquals(0, PopKeyHandleCache.size());
+    }
+
+    @Test
+    public void testKeyIsLoadedOnce() throws ClientException {
+        mKeyExists = true;
+
+        final PopKeyHandleCache.Handle handle = PopKeyHandleCache.get(ALIAS);
+
+        Assert.assertSame(handle, PopKeyHandleCache.get(ALIAS));
+        Assert.assertEquals(1, mLoaded.size());
+        Assert.assertNotSame(handle, PopKeyHandleCache.get(null));
+    }
+
+    @Test
+    public void testDerivedValuesAreComputedOnce() throws ClientException {
+        mKeyExists = true;
+
+        final PopKeyHandleCache.Handle handle = PopKeyHandleCache.get(ALIAS);
+
+        Assert.assertEquals("thumbprint-0", handle.getThumbprint());
+        Assert.assertEquals("thumbprint-0", handle.getThumbprint());
+        Assert.assertEquals("req_cnf-0", handle.getRequestConfirmation());
+        Assert.assertEquals("req_cnf-0", handle.getRequestConfirmation());
+        handle.getSecureHardwareState();
+        handle.getSecureHardwareState();
+
+        Mockito.verify(mLoaded.get(0), Mockito.times(1)).getAsymmetricKeyThumbprint();
+        Mockito.verify(mLoaded.get(0), Mockito.times(1)).getRequestConfirmation();
+    }
+
+    @Test
+    public void testGetOrGenerateGeneratesMissingKey() throws ClientException {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        final PopKeyHandleCache.Handle handle = PopKeyHandleCache.getOrGenerate(context, ALIAS);
+
+        Assert.assertEquals("generated-0", handle.getThumbprint());
+        Assert.assertSame(handle, PopKeyHandleCache.getOrGenerate(context, ALIAS));
+        Assert.assertEquals(1, mGenerated.get());
+    }
+
+    @Test
+    public void testConcurrentGetOrGenerateGeneratesOnce() throws Exception {
+        final Context context = ApplicationProvider.getApplicationContext();
+        mGenerationMillis = 50;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<PopKeyHandleCache.Handle>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(new Callable<PopKeyHandleCache.Handle>() {
+                    @Override
+                    public PopKeyHandleCache.Handle call() throws ClientException {
+                        return PopKeyHandleCache.getOrGenerate(context, ALIAS);
+                    }
+                }));
+            }
+
+            for (final Future<PopKeyHandleCache.Handle> future : futures) {
+                Assert.assertSame(futures.get(0).get(), future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Later callers found the key generated by the first one instead of replacing it.
+        Assert.assertEquals(1, mGenerated.get());
+    }
+
+    @Test
+    public void testPregenerateGeneratesMissingKey() throws ClientException {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        Assert.assertTrue(PopKeyHandleCache.pregenerate(context, false));
+
+        Assert.assertEquals(1, mGenerated.get());
+        Assert.assertNotNull(PopKeyHandleCache.get(null));
+    }
+
+    @Test
+    public void testPregenerateKeepsExistingKey() throws ClientException {
+        final Context context = ApplicationProvider.getApplicationContext();
+        mKeyExists = true;
+
+        Assert.assertTrue(PopKeyHandleCache.pregenerate(context, false));
+
+        Assert.assertEquals(0, mGenerated.get());
+        Assert.assertEquals("thumbprint-0", PopKeyHandleCache.get(null).getThumbprint());
+    }
+
+    @Test
+    public void testPregenerateSkipsBrokerEligibleApplication() {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        Assert.assertFalse(PopKeyHandleCache.pregenerate(context, true));
+
+        Assert.assertTrue(mLoaded.isEmpty());
+        Assert.assertEquals(0, PopKeyHandleCache.size());
+    }
+
+    @Test
+    public void testPregenerateFailureIsNotCached() throws ClientException {
+        final Context context = ApplicationProvider.getApplicationContext();
+        mGenerationError = new ClientException(ClientException.UNKNOWN_ERROR, "KeyStore unavailable.");
+
+        Assert.assertFalse(PopKeyHandleCache.pregenerate(context, false));
+
+        Assert.assertEquals(0, PopKeyHandleCache.size());
+        Assert.assertNull(PopKeyHandleCache.get(null));
+    }
+
+    @Test
+    public void testRotateReplacesHandle() throws ClientException {
+        mKeyExists = true;
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        final PopKeyHandleCache.Handle handle = PopKeyHandleCache.get(ALIAS);
+        final PopKeyHandleCache.Handle rotatedHandle = PopKeyHandleCache.rotate(context, ALIAS);
+
+        Assert.assertNotSame(handle, rotatedHandle);
+        Assert.assertSame(rotatedHandle, PopKeyHandleCache.get(ALIAS));
+        Mockito.verify(mLoaded.get(0)).clearAsymmetricKey();
+    }
+
+    @Test
+    public void testClearDropsHandle() throws ClientException {
+        mKeyExists = true;
+
+        final PopKeyHandleCache.Handle handle = PopKeyHandleCache.get(ALIAS);
+
+        Assert.assertTrue(PopKeyHandleCache.clear(ALIAS));
+        Mockito.verify(handle.getDevicePopManager()).clearAsymmetricKey();
+        Assert.assertEquals(0, PopKeyHandleCache.size());
+    }
+
+    @Test
+    public void testKeyClearedElsewhereDropsHandle() throws ClientException {
+        mKeyExists = true;
+
+        final PopKeyHandleCache.Handle handle = PopKeyHandleCache.get(ALIAS);
+        Assert.assertNotNull(handle);
+
+        // E.g. cleared through a DevicePopManager of common.
+        mKeyExists = false;
+
+        Assert.assertNull(PopKeyHandleCache.get(ALIAS));
+        Assert.assertEquals(0, PopKeyHandleCache.size());
+    }
+
+    @Test
+    public void testInvalidateDropsHandle() throws ClientException {
+        mKeyExists = true;
+
+        final PopKeyHandleCache.Handle handle = PopKeyHandleCache.get(ALIAS);
+        PopKeyHandleCache.invalidate(ALIAS);
+
+        Assert.assertNotSame(handle, PopKeyHandleCache.get(ALIAS));
+        Assert.assertEquals(2, mLoaded.size());
+    }
+}
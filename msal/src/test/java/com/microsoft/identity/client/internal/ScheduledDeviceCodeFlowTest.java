@@ -0,0 +1,246 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+
+import com.microsoft.identity.common.exception.BaseException;
+import com.microsoft.identity.common.exception.ServiceException;
+import com.microsoft.identity.common.internal.authorities.Authority;
+import com.microsoft.identity.common.internal.cache.CacheRecord;
+import com.microsoft.identity.common.internal.commands.DeviceCodeFlowCommandCallback;
+import com.microsoft.identity.common.internal.commands.parameters.DeviceCodeFlowCommandParameters;
+import com.microsoft.identity.common.internal.dto.AccountRecord;
+import com.microsoft.identity.common.internal.providers.microsoft.microsoftsts.MicrosoftStsAuthorizationRequest;
+import com.microsoft.identity.common.internal.providers.microsoft.microsoftsts.MicrosoftStsAuthorizationResponse;
+import com.microsoft.identity.common.internal.providers.oauth2.AuthorizationResult;
+import com.microsoft.identity.common.internal.providers.oauth2.OAuth2Strategy;
+import com.microsoft.identity.common.internal.providers.oauth2.OAuth2StrategyParameters;
+import com.microsoft.identity.common.internal.providers.oauth2.OAuth2TokenCache;
+import com.microsoft.identity.common.internal.providers.oauth2.TokenErrorResponse;
+import com.microsoft.identity.common.internal.providers.oauth2.TokenRequest;
+import com.microsoft.identity.common.internal.providers.oauth2.TokenResponse;
+import com.microsoft.identity.common.internal.providers.oauth2.TokenResult;
+import com.microsoft.identity.common.internal.result.LocalAuthenticationResult;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings("unchecked")
+public class ScheduledDeviceCodeFlowTest {
+
+    private final ScheduledExecutorService mScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService mExecutor = Executors.newCachedThreadPool();
+    private final RecordingCallback mCallback = new RecordingCallback();
+
+    private OAuth2Strategy mStrategy;
+    private OAuth2TokenCache mTokenCache;
+    private ScheduledDeviceCodeFlow mFlow;
+
+    @Before
+    public void setUp() throws Exception {
+        mStrategy = Mockito.mock(OAuth2Strategy.class);
+        mTokenCache = Mockito.mock(OAuth2TokenCache.class);
+
+        final Authority authority = Mockito.mock(Authority.class);
+        Mockito.when(authority.getAuthorityURL()).thenReturn(new URL("https://login.microsoftonline.com/common"));
+        Mockito.when(authority.createOAuth2Strategy(Mockito.any(OAuth2StrategyParameters.class))).thenReturn(mStrategy);
+
+        final DeviceCodeFlowCommandParameters parameters = Mockito.mock(DeviceCodeFlowCommandParameters.class);
+        Mockito.when(parameters.getAuthority()).thenReturn(authority);
+        Mockito.when(parameters.getClientId()).thenReturn("client-id");
+        Mockito.when(parameters.getScopes()).thenReturn(new HashSet<>(Collections.singletonList("User.Read")));
+        Mockito.when(parameters.getOAuth2TokenCache()).thenReturn(mTokenCache);
+
+        final MicrosoftStsAuthorizationResponse authorizationResponse = Mockito.mock(MicrosoftStsAuthorizationResponse.class);
+        Mockito.when(authorizationResponse.getVerificationUri()).thenReturn("https://microsoft.com/devicelogin");
+        Mockito.when(authorizationResponse.getUserCode()).thenReturn("ABCDEFGH");
+        Mockito.when(authorizationResponse.getMessage()).thenReturn("Enter ABCDEFGH.");
+        Mockito.when(authorizationResponse.getDeviceCode()).thenReturn("device-code");
+        Mockito.when(authorizationResponse.getInterval()).thenReturn("0");
+        Mockito.when(authorizationResponse.getExpiresIn()).thenReturn("60");
+
+        final AuthorizationResult authorizationResult = Mockito.mock(AuthorizationResult.class);
+        Mockito.when(authorizationResult.getSuccess()).thenReturn(true);
+        Mockito.when(authorizationResult.getAuthorizationResponse()).thenReturn(authorizationResponse);
+        Mockito.when(mStrategy.getDeviceCode(Mockito.any(MicrosoftStsAuthorizationRequest.class))).thenReturn(authorizationResult);
+
+        final CacheRecord cacheRecord = new CacheRecord();
+        cacheRecord.setAccount(new AccountRecord());
+        cacheRecord.getAccount().setHomeAccountId("abcd");
+        cacheRecord.getAccount().setLocalAccountId("abcd");
+        Mockito.when(mTokenCache.save(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(cacheRecord);
+
+        mFlow = new ScheduledDeviceCodeFlow(parameters, mScheduler, mExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdownNow();
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testTokensAreSavedAndDelivered() throws Exception {
+        Mockito.when(mStrategy.requestToken(Mockito.any(TokenRequest.class)))
+                .thenReturn(errorResult("authorization_pending"), successResult());
+
+        mFlow.start(mCallback);
+        awaitOutcome();
+
+        Assert.assertEquals(Collections.singletonList("ABCDEFGH"), mCallback.mUserCodes);
+        Assert.assertEquals(1, mCallback.mResults.size());
+        Assert.assertTrue(mCallback.mErrors.isEmpty());
+        Mockito.verify(mStrategy, Mockito.times(2)).requestToken(Mockito.any(TokenRequest.class));
+        Mockito.verify(mTokenCache).save(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testIoErrorDuringPollIsRetried() throws Exception {
+        Mockito.when(mStrategy.requestToken(Mockito.any(TokenRequest.class)))
+                .thenThrow(new IOException("Connection reset"))
+                .thenReturn(successResult());
+
+        mFlow.start(mCallback);
+        awaitOutcome();
+
+        Assert.assertEquals(1, mCallback.mResults.size());
+        Assert.assertTrue(mCallback.mErrors.isEmpty());
+    }
+
+    @Test
+    public void testErrorResponseEndsFlow() throws Exception {
+        Mockito.when(mStrategy.requestToken(Mockito.any(TokenRequest.class)))
+                .thenReturn(errorResult("access_denied"));
+
+        mFlow.start(mCallback);
+        awaitOutcome();
+
+        Assert.assertTrue(mCallback.mResults.isEmpty());
+        Assert.assertEquals(1, mCallback.mErrors.size());
+        Assert.assertTrue(mCallback.mErrors.get(0) instanceof ServiceException);
+        Assert.assertEquals("access_denied", mCallback.mErrors.get(0).getErrorCode());
+        Mockito.verify(mTokenCache, Mockito.never()).save(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testTokensOfCancelledFlowAreNotSaved() throws Exception {
+        final TokenResult successResult = successResult();
+        final CountDownLatch polled = new CountDownLatch(1);
+        Mockito.when(mStrategy.requestToken(Mockito.any(TokenRequest.class))).thenAnswer(new Answer<TokenResult>() {
+            @Override
+            public TokenResult answer(final InvocationOnMock invocation) {
+                // The user signs in while the caller cancels the flow.
+                mFlow.cancel();
+                polled.countDown();
+                return successResult;
+            }
+        });
+
+        mFlow.start(mCallback);
+
+        Assert.assertTrue(polled.await(5, TimeUnit.SECONDS));
+        Mockito.verify(mTokenCache, Mockito.after(100).never()).save(Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(mStrategy, Mockito.times(1)).requestToken(Mockito.any(TokenRequest.class));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        Assert.assertTrue(mFlow.isCancelled());
+        Assert.assertTrue(mCallback.mResults.isEmpty());
+        Assert.assertTrue(mCallback.mErrors.isEmpty());
+    }
+
+    private void awaitOutcome() throws InterruptedException {
+        final long giveUpAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (mCallback.mResults.isEmpty() && mCallback.mErrors.isEmpty()
+                && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        }
+    }
+
+    private static TokenResult successResult() {
+        final TokenResult tokenResult = Mockito.mock(TokenResult.class);
+        Mockito.when(tokenResult.getSuccess()).thenReturn(true);
+        Mockito.when(tokenResult.getTokenResponse()).thenReturn(Mockito.mock(TokenResponse.class));
+        return tokenResult;
+    }
+
+    private static TokenResult errorResult(@NonNull final String error) {
+        final TokenErrorResponse errorResponse = new TokenErrorResponse();
+        errorResponse.setError(error);
+
+        final TokenResult tokenResult = Mockito.mock(TokenResult.class);
+        Mockito.when(tokenResult.getSuccess()).thenReturn(false);
+        Mockito.when(tokenResult.getErrorResponse()).thenReturn(errorResponse);
+        return tokenResult;
+    }
+
+    private static final class RecordingCallback
+            implements DeviceCodeFlowCommandCallback<LocalAuthenticationResult, BaseException> {
+
+        final List<String> mUserCodes = new ArrayList<>();
+        final List<LocalAuthenticationResult> mResults = new ArrayList<>();
+        final List<BaseException> mErrors = new ArrayList<>();
+
+        @Override
+        public void onUserCodeReceived(@NonNull final String vUri,
+                                       @NonNull final String userCode,
+                                       @NonNull final String message) {
+            mUserCodes.add(userCode);
+        }
+
+        @Override
+        public void onTaskCompleted(final LocalAuthenticationResult result) {
+            mResults.add(result);
+        }
+
+        @Override
+        public void onError(final BaseException error) {
+            mErrors.add(error);
+        }
+
+        @Override
+        public void onCancel() {
+        }
+    }
+}
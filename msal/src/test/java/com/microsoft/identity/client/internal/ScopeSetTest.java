@@ -0,0 +1,102 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class ScopeSetTest {
+
+    @Test
+    public void testMembersAreFoldedTrimmedAndSorted() {
+        final ScopeSet scopes = ScopeSet.of(Arrays.asList(" User.Read", "openid", "", null, "USER.READ"));
+
+        Assert.assertEquals(2, scopes.size());
+        Assert.assertEquals("openid user.read", scopes.toCanonicalString());
+    }
+
+    @Test
+    public void testEqualSets() {
+        final ScopeSet first = ScopeSet.of(Arrays.asList("Mail.Read", "User.Read"));
+        final ScopeSet second = ScopeSet.parse("user.read  mail.read");
+
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+        Assert.assertEquals(first.toCanonicalString(), second.toCanonicalString());
+    }
+
+    @Test
+    public void testContainsIgnoresCase() {
+        final ScopeSet scopes = ScopeSet.parse("user.read openid");
+
+        Assert.assertTrue(scopes.contains("User.Read"));
+        Assert.assertTrue(scopes.contains(" OPENID "));
+        Assert.assertFalse(scopes.contains("profile"));
+        Assert.assertFalse(scopes.contains(42));
+    }
+
+    @Test
+    public void testDifference() {
+        final ScopeSet requested = ScopeSet.of(Arrays.asList("User.Read", "Mail.Read", "openid"));
+        final ScopeSet granted = ScopeSet.parse("user.read openid profile");
+
+        Assert.assertEquals(Collections.singletonList("mail.read"), requested.difference(granted));
+        Assert.assertTrue(granted.containsAll(ScopeSet.parse("OPENID")));
+        Assert.assertFalse(granted.containsAll(requested));
+    }
+
+    @Test
+    public void testSetContractWithFoldedHashSet() {
+        final ScopeSet scopes = ScopeSet.parse("User.Read openid");
+        final HashSet<String> folded = new HashSet<>(Arrays.asList("user.read", "openid"));
+
+        Assert.assertEquals(folded, scopes);
+        Assert.assertEquals(scopes, folded);
+        Assert.assertEquals(folded.hashCode(), scopes.hashCode());
+    }
+
+    @Test
+    public void testEqualsIsSymmetricWithUnfoldedHashSet() {
+        final ScopeSet scopes = ScopeSet.parse("User.Read openid");
+        final HashSet<String> unfolded = new HashSet<>(Arrays.asList("User.Read", "openid"));
+
+        Assert.assertNotEquals(unfolded, scopes);
+        Assert.assertNotEquals(scopes, unfolded);
+    }
+
+    @Test
+    public void testEmptyInputs() {
+        Assert.assertTrue(ScopeSet.of(null).isEmpty());
+        Assert.assertTrue(ScopeSet.parse(" ").isEmpty());
+        Assert.assertSame(ScopeSet.of(null), ScopeSet.parse(""));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        ScopeSet.parse("openid").add("profile");
+    }
+}
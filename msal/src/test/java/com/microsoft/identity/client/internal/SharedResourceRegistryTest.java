@@ -0,0 +1,197 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SharedResourceRegistryTest {
+
+    private static final String KEY = "test_resource";
+    private static final String OTHER_KEY = "other_test_resource";
+
+    @Before
+    public void setUp() {
+        SharedResourceRegistry.clear();
+    }
+
+    @After
+    public void tearDown() {
+        SharedResourceRegistry.clear();
+    }
+
+    @Test
+    public void testGetCreatesOnce() {
+        final AtomicInteger creations = new AtomicInteger();
+        final SharedResourceRegistry.ResourceFactory<Object> factory = countingFactory(creations);
+
+        final Object first = SharedResourceRegistry.get(KEY, factory);
+        final Object second = SharedResourceRegistry.get(KEY, factory);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, creations.get());
+        Assert.assertTrue(SharedResourceRegistry.contains(KEY));
+    }
+
+    @Test
+    public void testConcurrentGetWaitsForSingleCreation() throws Exception {
+        final CountDownLatch creating = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger creations = new AtomicInteger();
+        final AtomicReference<Object> firstResult = new AtomicReference<>();
+
+        final Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                firstResult.set(SharedResourceRegistry.get(KEY, new SharedResourceRegistry.ResourceFactory<Object>() {
+                    @NonNull
+                    @Override
+                    public Object create() {
+                        creations.incrementAndGet();
+                        creating.countDown();
+                        awaitQuietly(release);
+                        return new Object();
+                    }
+                }));
+            }
+        });
+        first.start();
+        Assert.assertTrue(creating.await(5, TimeUnit.SECONDS));
+
+        // A slow creation does not block other keys.
+        Assert.assertNotNull(SharedResourceRegistry.get(OTHER_KEY, countingFactory(new AtomicInteger())));
+
+        final AtomicReference<Object> secondResult = new AtomicReference<>();
+        final Thread second = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                secondResult.set(SharedResourceRegistry.get(KEY, countingFactory(creations)));
+            }
+        });
+        second.start();
+
+        release.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        Assert.assertEquals(1, creations.get());
+        Assert.assertNotNull(firstResult.get());
+        Assert.assertSame(firstResult.get(), secondResult.get());
+    }
+
+    @Test
+    public void testFailedCreationIsRetried() {
+        try {
+            SharedResourceRegistry.get(KEY, new SharedResourceRegistry.ResourceFactory<Object>() {
+                @NonNull
+                @Override
+                public Object create() {
+                    throw new IllegalStateException("Creation failed.");
+                }
+            });
+            Assert.fail("Expected the creation failure to be rethrown.");
+        } catch (final IllegalStateException e) {
+            Assert.assertEquals("Creation failed.", e.getMessage());
+        }
+
+        Assert.assertFalse(SharedResourceRegistry.contains(KEY));
+
+        final AtomicInteger creations = new AtomicInteger();
+        Assert.assertNotNull(SharedResourceRegistry.get(KEY, countingFactory(creations)));
+        Assert.assertEquals(1, creations.get());
+    }
+
+    @Test
+    public void testOwnedResourcesAreKeyedByOwnerIdentity() {
+        final AtomicInteger creations = new AtomicInteger();
+        final SharedResourceRegistry.ResourceFactory<Object> factory = countingFactory(creations);
+        final Object owner = new EqualToAll();
+        final Object equalOwner = new EqualToAll();
+
+        final Object first = SharedResourceRegistry.get(owner, KEY, factory);
+
+        Assert.assertSame(first, SharedResourceRegistry.get(owner, KEY, factory));
+        Assert.assertNotSame(first, SharedResourceRegistry.get(equalOwner, KEY, factory));
+        Assert.assertNotSame(first, SharedResourceRegistry.get(KEY, factory));
+        Assert.assertEquals(3, creations.get());
+    }
+
+    @Test
+    public void testRunOnce() {
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable initializer = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+
+        Assert.assertTrue(SharedResourceRegistry.runOnce(KEY, initializer));
+        Assert.assertFalse(SharedResourceRegistry.runOnce(KEY, initializer));
+        Assert.assertEquals(1, runs.get());
+    }
+
+    private static SharedResourceRegistry.ResourceFactory<Object> countingFactory(@NonNull final AtomicInteger creations) {
+        return new SharedResourceRegistry.ResourceFactory<Object>() {
+            @NonNull
+            @Override
+            public Object create() {
+                creations.incrementAndGet();
+                return new Object();
+            }
+        };
+    }
+
+    /**
+     * Equal to, and hashing like, every other instance.
+     */
+    private static final class EqualToAll {
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof EqualToAll;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    private static void awaitQuietly(@NonNull final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
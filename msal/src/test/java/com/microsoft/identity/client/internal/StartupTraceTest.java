@@ -0,0 +1,134 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RunWith(RobolectricTestRunner.class)
+public class StartupTraceTest {
+
+    private static final long PHASE_MILLIS = 50;
+
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mExecutor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testPhasesAreTimed() throws InterruptedException {
+        final StartupTrace trace = new StartupTrace("test");
+
+        final long start = trace.beginPhase();
+        Thread.sleep(PHASE_MILLIS);
+        trace.endPhase("sync", start);
+
+        Assert.assertEquals(-1, trace.getCriticalPathMillis());
+        trace.completeCriticalPath();
+
+        Assert.assertTrue(trace.getPhaseDurationsMillis().get("sync") >= PHASE_MILLIS);
+        Assert.assertTrue(trace.getCriticalPathMillis() >= PHASE_MILLIS);
+    }
+
+    @Test
+    public void testAwaitRequiredPhasesWaitsForThem() {
+        final StartupTrace trace = new StartupTrace("test");
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        trace.runRequiredPhaseAsync(mExecutor, "required", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(PHASE_MILLIS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.set(true);
+            }
+        });
+        trace.completeCriticalPath();
+
+        trace.awaitRequiredPhases();
+
+        Assert.assertTrue(done.get());
+        Assert.assertTrue(trace.getPhaseDurationsMillis().get("required(async)") >= PHASE_MILLIS);
+    }
+
+    @Test
+    public void testAwaitRequiredPhasesDoesNotWaitForOtherPhases() throws Exception {
+        final StartupTrace trace = new StartupTrace("test");
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<?> optional = trace.runPhaseAsync(mExecutor, "optional", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        trace.awaitRequiredPhases();
+
+        Assert.assertFalse(optional.isDone());
+        release.countDown();
+        optional.get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(trace.getPhaseDurationsMillis().containsKey("optional(async)"));
+    }
+
+    @Test
+    public void testFailedRequiredPhaseDoesNotBlock() {
+        final StartupTrace trace = new StartupTrace("test");
+
+        trace.runRequiredPhaseAsync(mExecutor, "failing", new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("Setup failed.");
+            }
+        });
+
+        trace.awaitRequiredPhases();
+
+        Assert.assertTrue(trace.getPhaseDurationsMillis().containsKey("failing(async)"));
+    }
+}
@@ -0,0 +1,146 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.client.internal.net;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class CircuitBreakerTest {
+
+    private static final String HOST = "login.microsoftonline.com";
+
+    private ResilienceMetrics mMetrics;
+
+    @Before
+    public void setUp() {
+        mMetrics = new ResilienceMetrics();
+    }
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        final CircuitBreaker breaker = new CircuitBreaker(2, TimeUnit.HOURS.toMillis(1), mMetrics);
+
+        breaker.recordFailure(HOST);
+        Assert.assertTrue(breaker.allowRequest(HOST));
+
+        breaker.recordFailure(HOST);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getStates().get(HOST));
+        Assert.assertFalse(breaker.allowRequest(HOST));
+        Assert.assertEquals(Long.valueOf(1), mMetrics.snapshot().get(ResilienceMetrics.CIRCUIT_OPENED));
+        Assert.assertEquals(Long.valueOf(1), mMetrics.snapshot().get(ResilienceMetrics.SHORT_CIRCUITED));
+    }
+
+    @Test
+    public void testSuccessResetsFailureCount() {
+        final CircuitBreaker breaker = new CircuitBreaker(2, TimeUnit.HOURS.toMillis(1), mMetrics);
+
+        breaker.recordFailure(HOST);
+        breaker.recordSuccess(HOST);
+        breaker.recordFailure(HOST);
+
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getStates().get(HOST));
+        Assert.assertTrue(breaker.allowRequest(HOST));
+    }
+
+    @Test
+    public void testHalfOpenAllowsSingleTrial() {
+        final CircuitBreaker breaker = openedBreaker(TimeUnit.HOURS.toMillis(1));
+
+        Assert.assertTrue(breaker.allowRequest(HOST));
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getStates().get(HOST));
+        Assert.assertFalse(breaker.allowRequest(HOST));
+    }
+
+    @Test
+    public void testTrialSuccessClosesCircuit() {
+        final CircuitBreaker breaker = openedBreaker(TimeUnit.HOURS.toMillis(1));
+        Assert.assertTrue(breaker.allowRequest(HOST));
+
+        breaker.recordSuccess(HOST);
+
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getStates().get(HOST));
+        Assert.assertTrue(breaker.allowRequest(HOST));
+        Assert.assertTrue(breaker.allowRequest(HOST));
+    }
+
+    @Test
+    public void testTrialFailureReopensCircuit() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, TimeUnit.HOURS.toMillis(1), mMetrics);
+        breaker.recordFailure(HOST);
+        breaker.configure(1, 0);
+        Assert.assertTrue(breaker.allowRequest(HOST));
+
+        breaker.configure(1, TimeUnit.HOURS.toMillis(1));
+        breaker.recordFailure(HOST);
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getStates().get(HOST));
+        Assert.assertFalse(breaker.allowRequest(HOST));
+    }
+
+    @Test
+    public void testReleasedTrialLetsNextRequestThrough() {
+        final CircuitBreaker breaker = openedBreaker(TimeUnit.HOURS.toMillis(1));
+        Assert.assertTrue(breaker.allowRequest(HOST));
+
+        breaker.releaseTrial(HOST);
+
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getStates().get(HOST));
+        Assert.assertTrue(breaker.allowRequest(HOST));
+        Assert.assertFalse(breaker.allowRequest(HOST));
+    }
+
+    @Test
+    public void testStaleTrialReopensCircuit() {
+        final CircuitBreaker breaker = openedBreaker(0);
+        Assert.assertTrue(breaker.allowRequest(HOST));
+
+        // The trial never reports an outcome.
+        Assert.assertFalse(breaker.allowRequest(HOST));
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getStates().get(HOST));
+        Assert.assertEquals(Long.valueOf(2), mMetrics.snapshot().get(ResilienceMetrics.CIRCUIT_OPENED));
+    }
+
+    @Test
+    public void testDisabledBreakerAllowsEverything() {
+        final CircuitBreaker breaker = new CircuitBreaker(0, TimeUnit.HOURS.toMillis(1), mMetrics);
+
+        for (int i = 0; i < 10; i++) {
+            breaker.recordFailure(HOST);
+        }
+
+        Assert.assertTrue(breaker.allowRequest(HOST));
+    }
+
+    /**
+     * @return A breaker whose circuit for {@link #HOST} is open and immediately eligible for a trial.
+     */
+    private CircuitBreaker openedBreaker(final long trialTimeoutMillis) {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 0, trialTimeoutMillis, mMetrics);
+        breaker.recordFailure(HOST);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getStates().get(HOST));
+        return breaker;
+    }
+}